@@ -3,20 +3,30 @@ package nl.eernie.jmoribus;
 
 import nl.eernie.jmoribus.configuration.Configuration;
 import nl.eernie.jmoribus.converter.PossibleStepsConverter;
-import nl.eernie.jmoribus.matcher.BeforeAfterType;
 import nl.eernie.jmoribus.matcher.MethodMatcher;
 import nl.eernie.jmoribus.matcher.PossibleStep;
-import nl.eernie.jmoribus.model.Scenario;
-import nl.eernie.jmoribus.model.Step;
-import nl.eernie.jmoribus.model.StepContainer;
 import nl.eernie.jmoribus.model.Story;
-import nl.eernie.jmoribus.reporter.Reporter;
-import nl.eernie.jmoribus.runner.StepRunner;
+import nl.eernie.jmoribus.reporter.ResultFile;
+import nl.eernie.jmoribus.reporter.ResultFileReporter;
+import nl.eernie.jmoribus.reporter.ScenarioResult;
+import nl.eernie.jmoribus.runner.ContextSnapshot;
+import nl.eernie.jmoribus.runner.DryRunner;
+import nl.eernie.jmoribus.runner.DurationHistory;
+import nl.eernie.jmoribus.runner.ExecutionPlan;
+import nl.eernie.jmoribus.runner.ExecutionPlanner;
+import nl.eernie.jmoribus.runner.FlakinessHistory;
+import nl.eernie.jmoribus.runner.PlannedStory;
+import nl.eernie.jmoribus.runner.StoryRunner;
+import nl.eernie.jmoribus.runner.WorkerPools;
 import nl.eernie.jmoribus.to.PossibleStepTO;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class JMoribus {
 
@@ -33,101 +43,136 @@ public class JMoribus {
     }
 
     public void runStories(List<Story> stories) {
+        run(compile(stories));
+    }
 
+    /**
+     * Matches and binds every step of the stories once. The resulting plan can be run repeatedly with
+     * {@link #run(ExecutionPlan)}.
+     */
+    public ExecutionPlan compile(List<Story> stories) {
         MethodMatcher methodMather = createMethodMatcher();
-        StepRunner stepRunner = new StepRunner(methodMather, config);
-
-        Reporter reporter = config.getConcurrentReporter();
+        return new ExecutionPlanner(methodMather, config).plan(stories);
+    }
 
+    /**
+     * Matches and binds every step of the stories without invoking hooks or step methods and reports the
+     * result, see {@link DryRunner}.
+     */
+    public void dryRun(List<Story> stories) {
+        MethodMatcher methodMather = createMethodMatcher();
+        new DryRunner(methodMather, config).run(stories);
+    }
 
-        for (Story story : stories) {
-            reporter.beforeStory(story);
-            if (story.getFeature() != null) {
-                reporter.feature(story.getFeature());
-            }
-            stepRunner.runBeforeAfter(BeforeAfterType.BEFORE_STORY);
-            if (story.getPrologue() != null) {
-                reporter.beforePrologue(story.getPrologue());
-                runStepContainer(methodMather, stepRunner, reporter, story.getPrologue());
-                reporter.afterPrologue(story.getPrologue());
-            }
-            for (Scenario scenario : story.getScenarios()) {
-                reporter.beforeScenario(scenario);
-                stepRunner.runBeforeAfter(BeforeAfterType.BEFORE_SCENARIO);
-                runStepContainer(methodMather, stepRunner, reporter, scenario);
-                reporter.afterScenario(scenario);
-                stepRunner.runBeforeAfter(BeforeAfterType.AFTER_SCENARIO);
+    /**
+     * Runs the plan. With a result journal the outcome of every scenario is written to it; when rerunning
+     * failures the journal keeps the outcome of the scenarios that were not rerun. Scenarios quarantined by
+     * their flakiness history run after all other scenarios.
+     */
+    public void run(ExecutionPlan plan) {
+        File journal = config.getResultJournalFile();
+        if (journal == null) {
+            runPlan(plan);
+            return;
+        }
+        List<ScenarioResult> previousResults = Collections.emptyList();
+        if (config.isRerunFailures()) {
+            previousResults = readJournal(journal);
+        }
+        ResultFileReporter journalReporter = new ResultFileReporter(journal);
+        config.getConcurrentReporter().addReporter(journalReporter);
+        try {
+            runPlan(plan);
+        } finally {
+            config.getConcurrentReporter().removeReporter(journalReporter);
+            if (!previousResults.isEmpty()) {
+                List<ScenarioResult> results = new ArrayList<>(previousResults);
+                results.addAll(readJournal(journal));
+                writeJournal(journal, ResultFile.merge(results));
             }
-            reporter.afterStory(story);
-            stepRunner.runBeforeAfter(BeforeAfterType.AFTER_STORY);
         }
     }
 
-    private MethodMatcher createMethodMatcher() {
-        List<Object> objects = config.getSteps();
-        return new MethodMatcher(objects);
+    private List<ScenarioResult> readJournal(File journal) {
+        try {
+            return ResultFile.read(journal);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read result journal " + journal, e);
+        }
     }
 
-    private void runStepContainer(MethodMatcher methodMather, StepRunner stepRunner, Reporter reporter, StepContainer stepContainer) {
-        if (stepContainer == null) {
-            return;
+    private void writeJournal(File journal, List<ScenarioResult> results) {
+        try {
+            ResultFile.write(journal, results);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write result journal " + journal, e);
         }
+    }
 
-        for (Step step : stepContainer.getSteps()) {
-            if (step instanceof Scenario) {
-                Scenario referringScenario = (Scenario) step;
-                reporter.beforeReferringScenario(stepContainer, referringScenario);
-                runStepContainer(methodMather, stepRunner, reporter, referringScenario);
-                reporter.afterReferringScenario(stepContainer, referringScenario);
-                continue;
-            }
-            reporter.beforeStep(step);
-            PossibleStep matchedStep = methodMather.findMatchedStep(step);
-            if (matchedStep != null) {
-                List<String> missingRequiredVariables = checkMissingVariables(matchedStep.getRequiredVariables());
-                if (missingRequiredVariables.isEmpty()) {
-                    try {
-                        stepRunner.run(matchedStep, step);
-
-                        List<String> missingOutputVariables = checkMissingVariables(matchedStep.getOutputVariables());
-                        if (missingOutputVariables.isEmpty()) {
-                            reporter.successStep(step);
-                        } else {
-                            String error = "Missing output variables: " + missingOutputVariables;
-                            reporter.errorStep(step, error);
-                        }
-                    } catch (AssertionError e) {
-                        reporter.failedStep(step, e);
-                    } catch (Throwable e) {
-                        if (e.getCause() instanceof AssertionError) {
-                            reporter.failedStep(step, (AssertionError) e.getCause());
-                        } else {
-                            reporter.errorStep(step, e);
-                        }
-                    }
-                } else {
-                    String error = "Missing required variables: " + missingRequiredVariables;
-                    reporter.errorStep(step, error);
-                }
+    private void runPlan(ExecutionPlan plan) {
+        ExecutorService scenarioExecutor = null;
+        if (config.getScenarioThreads() > 1) {
+            scenarioExecutor = WorkerPools.newPool("scenario", config.getScenarioThreads(), config.getExecutorMode());
+        }
+        DurationHistory durationHistory = plan.getDurationHistory();
+        File flakinessFile = config.getFlakinessHistoryFile();
+        FlakinessHistory flakinessHistory = flakinessFile == null ? null : FlakinessHistory.load(flakinessFile);
+        try {
+            StoryRunner storyRunner = new StoryRunner(plan.getMethodMatcher(), config, scenarioExecutor, durationHistory, flakinessHistory);
+            double quarantineRate = config.getQuarantineFlakeRate();
+            if (flakinessHistory != null && quarantineRate > 0) {
+                List<PlannedStory> quarantined = flakinessHistory.quarantined(plan.getStories(), quarantineRate);
+                runStories(flakinessHistory.withoutQuarantined(plan.getStories(), quarantineRate), storyRunner, durationHistory);
+                runStories(quarantined, storyRunner, durationHistory);
             } else {
-                reporter.pendingStep(step);
+                runStories(plan.getStories(), storyRunner, durationHistory);
+            }
+        } finally {
+            if (scenarioExecutor != null) {
+                scenarioExecutor.shutdownNow();
+            }
+            if (durationHistory != null && config.getDurationHistoryFile() != null) {
+                durationHistory.save(config.getDurationHistoryFile());
+            }
+            if (flakinessHistory != null) {
+                flakinessHistory.save(flakinessFile);
             }
         }
     }
 
-    private List<String> checkMissingVariables(String[] variablesToCheck) {
-        List<String> missingRequiredVariables = new ArrayList<>();
-        if (variablesToCheck != null) {
-
-            List<String> requiredVariables = Arrays.asList(variablesToCheck);
+    private void runStories(List<PlannedStory> stories, StoryRunner storyRunner, DurationHistory durationHistory) {
+        if (config.getStoryThreads() <= 1) {
+            for (PlannedStory story : stories) {
+                storyRunner.runStory(story);
+            }
+        } else if (durationHistory != null) {
+            runStoriesInParallel(durationHistory.longestFirst(stories), storyRunner);
+        } else {
+            runStoriesInParallel(stories, storyRunner);
+        }
+    }
 
-            for (String requiredVariable : requiredVariables) {
-                if (!config.getContextProvider().isVariableSet(requiredVariable)) {
-                    missingRequiredVariables.add(requiredVariable);
-                }
+    private void runStoriesInParallel(List<PlannedStory> stories, final StoryRunner storyRunner) {
+        ContextSnapshot snapshot = ContextSnapshot.capture(config.getContextProvider());
+        ExecutorService executor = WorkerPools.newPool("story", config.getStoryThreads(), config.getExecutorMode());
+        try {
+            List<Future<?>> futures = new ArrayList<>(stories.size());
+            for (final PlannedStory story : stories) {
+                futures.add(executor.submit(snapshot.wrap(new Runnable() {
+                    @Override
+                    public void run() {
+                        storyRunner.runStory(story);
+                    }
+                })));
             }
+            WorkerPools.awaitAll(futures);
+        } finally {
+            executor.shutdownNow();
         }
-        return missingRequiredVariables;
     }
-}
 
+    private MethodMatcher createMethodMatcher() {
+        List<Object> objects = config.getSteps();
+        return new MethodMatcher(objects, config.getStepMatching(), config.getMatchCacheSize());
+    }
+}
@@ -4,10 +4,18 @@ package nl.eernie.jmoribus.configuration;
 import nl.eernie.jmoribus.context.ContextProvider;
 import nl.eernie.jmoribus.reporter.ConcurrentReporter;
 import nl.eernie.jmoribus.reporter.Reporter;
+import nl.eernie.jmoribus.webdriver.WebDriverPool;
 import org.openqa.selenium.WebDriver;
 
+import java.io.File;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * The settings of a run. Settings are added to this interface over time, which breaks a class that implements it
+ * directly; extend {@link DefaultConfiguration} instead, it provides the default of every setting and keeps
+ * compiling when settings are added.
+ */
 public interface Configuration {
 
     ConcurrentReporter getConcurrentReporter();
@@ -21,4 +29,130 @@ public interface Configuration {
     ContextProvider getContextProvider();
 
     WebDriver getWebDriver();
+
+    /**
+     * @return the number of stories that are run concurrently, 1 runs all stories on the calling thread
+     */
+    int getStoryThreads();
+
+    /**
+     * @return the number of scenarios of one story that are run concurrently, 1 runs them in sequence.
+     * Above 1 every scenario replays the prologue of its story in its own context.
+     */
+    int getScenarioThreads();
+
+    ExecutorMode getExecutorMode();
+
+    /**
+     * @return true when the steps after a failed or erroneous step of a scenario are reported as skipped
+     * instead of being run
+     */
+    boolean isSkipStepsAfterFailure();
+
+    /**
+     * @return the number of failed scenarios after which no new stories are started, 0 never stops
+     */
+    int getMaxFailures();
+
+    /**
+     * @return the time in milliseconds a step may run before it is interrupted and abandoned, 0 waits forever.
+     * A {@link nl.eernie.jmoribus.annotation.Timeout} on the step method takes precedence.
+     */
+    long getStepTimeout();
+
+    /**
+     * @return the time in milliseconds all steps of a scenario, including its prologue, may take, 0 waits forever
+     */
+    long getScenarioTimeout();
+
+    /**
+     * @return the time in milliseconds all steps of a story may take, 0 waits forever
+     */
+    long getStoryTimeout();
+
+    /**
+     * @return the shard this run executes, from 0 up to the shard count
+     */
+    int getShardIndex();
+
+    /**
+     * @return the number of shards the stories are split over, 1 runs everything
+     */
+    int getShardCount();
+
+    ShardingMode getShardingMode();
+
+    /**
+     * @return the file the durations of stories and scenarios are kept in between runs, or null to keep none.
+     * With a history, concurrently running stories and scenarios start longest first.
+     */
+    File getDurationHistoryFile();
+
+    /**
+     * @return true to spread the stories or scenarios over the shards by their duration in the history instead
+     * of by hash. Every shard has to read the same history, for example one merged from all shards of the
+     * previous run, otherwise shards disagree on the assignment.
+     */
+    boolean isBalanceShardsByDuration();
+
+    /**
+     * @return the file every run writes the outcome of its scenarios to, see
+     * {@link nl.eernie.jmoribus.reporter.ResultFile}, or null to write none
+     */
+    File getResultJournalFile();
+
+    /**
+     * @return true to only run the scenarios that failed or were pending according to the result journal,
+     * together with the prologues and referred scenarios they need. The journal is updated with their new
+     * outcome and keeps the outcome of the other scenarios.
+     */
+    boolean isRerunFailures();
+
+    /**
+     * @return the directory that keeps the fingerprints of passed stories, or null to always run every story.
+     * A story is not run again while its source, the scenarios it refers to and the bytecode of its step
+     * classes are unchanged since it passed.
+     */
+    File getIncrementalCacheDirectory();
+
+    /**
+     * @return the maximum number of scenarios that may run at the same time with steps of a
+     * {@link nl.eernie.jmoribus.annotation.Category}, by category. Scenarios without limited categories are not
+     * held back.
+     */
+    Map<String, Integer> getCategoryLimits();
+
+    /**
+     * @return the pool that scenarios with steps taking a {@link WebDriver} lease their driver from, or null to
+     * pass {@link #getWebDriver()} to all of them
+     */
+    WebDriverPool getWebDriverPool();
+
+    /**
+     * @return how often a failed scenario is run again, from its prologue in a fresh copy of the story context,
+     * or 0 to not retry. A scenario that passes on a retry is reported as flaky.
+     */
+    int getScenarioRetries();
+
+    /**
+     * @return the file that keeps how often every scenario was flaky over the runs, see
+     * {@link nl.eernie.jmoribus.runner.FlakinessHistory}, or null to keep no history
+     */
+    File getFlakinessHistoryFile();
+
+    /**
+     * @return the flake rate from which a scenario in the flakiness history is quarantined: it then runs in a
+     * batch after all other scenarios. 0 to quarantine none.
+     */
+    double getQuarantineFlakeRate();
+
+    /**
+     * @return how steps are matched to the patterns of the step methods
+     */
+    StepMatching getStepMatching();
+
+    /**
+     * @return the number of step texts whose match is cached, 0 to match every step again
+     */
+    int getMatchCacheSize();
 }
@@ -4,10 +4,14 @@ import nl.eernie.jmoribus.context.ContextProvider;
 import nl.eernie.jmoribus.context.DefaultContextProvider;
 import nl.eernie.jmoribus.reporter.ConcurrentReporter;
 import nl.eernie.jmoribus.reporter.Reporter;
+import nl.eernie.jmoribus.webdriver.WebDriverPool;
 import org.openqa.selenium.WebDriver;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class DefaultConfiguration implements Configuration {
@@ -16,6 +20,29 @@ public class DefaultConfiguration implements Configuration {
     private ContextProvider contextProvider = new DefaultContextProvider();
     private List<Object> steps = new ArrayList<>();
     private WebDriver webDriver = null;
+    private int storyThreads = 1;
+    private int scenarioThreads = 1;
+    private ExecutorMode executorMode = ExecutorMode.FIXED_POOL;
+    private boolean skipStepsAfterFailure = false;
+    private int maxFailures = 0;
+    private long stepTimeout = 0;
+    private long scenarioTimeout = 0;
+    private long storyTimeout = 0;
+    private int shardIndex = 0;
+    private int shardCount = 1;
+    private ShardingMode shardingMode = ShardingMode.STORY;
+    private File durationHistoryFile;
+    private boolean balanceShardsByDuration = false;
+    private File resultJournalFile;
+    private boolean rerunFailures = false;
+    private File incrementalCacheDirectory;
+    private Map<String, Integer> categoryLimits = new HashMap<>();
+    private WebDriverPool webDriverPool;
+    private int scenarioRetries = 0;
+    private File flakinessHistoryFile;
+    private double quarantineFlakeRate = 0;
+    private StepMatching stepMatching = StepMatching.REGEX;
+    private int matchCacheSize = 10000;
 
     public ConcurrentReporter getConcurrentReporter() {
         return concurrentReporter;
@@ -48,4 +75,214 @@ public class DefaultConfiguration implements Configuration {
         this.webDriver = webDriver;
     }
 
+    @Override
+    public int getStoryThreads() {
+        return storyThreads;
+    }
+
+    public void setStoryThreads(int storyThreads) {
+        this.storyThreads = storyThreads;
+    }
+
+    @Override
+    public int getScenarioThreads() {
+        return scenarioThreads;
+    }
+
+    public void setScenarioThreads(int scenarioThreads) {
+        this.scenarioThreads = scenarioThreads;
+    }
+
+    @Override
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public void setExecutorMode(ExecutorMode executorMode) {
+        this.executorMode = executorMode;
+    }
+
+    @Override
+    public boolean isSkipStepsAfterFailure() {
+        return skipStepsAfterFailure;
+    }
+
+    public void setSkipStepsAfterFailure(boolean skipStepsAfterFailure) {
+        this.skipStepsAfterFailure = skipStepsAfterFailure;
+    }
+
+    @Override
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    public void setMaxFailures(int maxFailures) {
+        this.maxFailures = maxFailures;
+    }
+
+    @Override
+    public long getStepTimeout() {
+        return stepTimeout;
+    }
+
+    public void setStepTimeout(long stepTimeout) {
+        this.stepTimeout = stepTimeout;
+    }
+
+    @Override
+    public long getScenarioTimeout() {
+        return scenarioTimeout;
+    }
+
+    public void setScenarioTimeout(long scenarioTimeout) {
+        this.scenarioTimeout = scenarioTimeout;
+    }
+
+    @Override
+    public long getStoryTimeout() {
+        return storyTimeout;
+    }
+
+    public void setStoryTimeout(long storyTimeout) {
+        this.storyTimeout = storyTimeout;
+    }
+
+    @Override
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public void setShardIndex(int shardIndex) {
+        this.shardIndex = shardIndex;
+    }
+
+    @Override
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public ShardingMode getShardingMode() {
+        return shardingMode;
+    }
+
+    public void setShardingMode(ShardingMode shardingMode) {
+        this.shardingMode = shardingMode;
+    }
+
+    @Override
+    public File getDurationHistoryFile() {
+        return durationHistoryFile;
+    }
+
+    public void setDurationHistoryFile(File durationHistoryFile) {
+        this.durationHistoryFile = durationHistoryFile;
+    }
+
+    @Override
+    public boolean isBalanceShardsByDuration() {
+        return balanceShardsByDuration;
+    }
+
+    public void setBalanceShardsByDuration(boolean balanceShardsByDuration) {
+        this.balanceShardsByDuration = balanceShardsByDuration;
+    }
+
+    @Override
+    public File getResultJournalFile() {
+        return resultJournalFile;
+    }
+
+    public void setResultJournalFile(File resultJournalFile) {
+        this.resultJournalFile = resultJournalFile;
+    }
+
+    @Override
+    public boolean isRerunFailures() {
+        return rerunFailures;
+    }
+
+    public void setRerunFailures(boolean rerunFailures) {
+        this.rerunFailures = rerunFailures;
+    }
+
+    @Override
+    public File getIncrementalCacheDirectory() {
+        return incrementalCacheDirectory;
+    }
+
+    public void setIncrementalCacheDirectory(File incrementalCacheDirectory) {
+        this.incrementalCacheDirectory = incrementalCacheDirectory;
+    }
+
+    @Override
+    public Map<String, Integer> getCategoryLimits() {
+        return categoryLimits;
+    }
+
+    public void setCategoryLimit(String category, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Category " + category + " needs a limit of at least 1, got " + limit);
+        }
+        categoryLimits.put(category, limit);
+    }
+
+    @Override
+    public WebDriverPool getWebDriverPool() {
+        return webDriverPool;
+    }
+
+    public void setWebDriverPool(WebDriverPool webDriverPool) {
+        this.webDriverPool = webDriverPool;
+    }
+
+    @Override
+    public int getScenarioRetries() {
+        return scenarioRetries;
+    }
+
+    public void setScenarioRetries(int scenarioRetries) {
+        this.scenarioRetries = scenarioRetries;
+    }
+
+    @Override
+    public File getFlakinessHistoryFile() {
+        return flakinessHistoryFile;
+    }
+
+    public void setFlakinessHistoryFile(File flakinessHistoryFile) {
+        this.flakinessHistoryFile = flakinessHistoryFile;
+    }
+
+    @Override
+    public double getQuarantineFlakeRate() {
+        return quarantineFlakeRate;
+    }
+
+    public void setQuarantineFlakeRate(double quarantineFlakeRate) {
+        this.quarantineFlakeRate = quarantineFlakeRate;
+    }
+
+    @Override
+    public StepMatching getStepMatching() {
+        return stepMatching;
+    }
+
+    public void setStepMatching(StepMatching stepMatching) {
+        this.stepMatching = stepMatching;
+    }
+
+    @Override
+    public int getMatchCacheSize() {
+        return matchCacheSize;
+    }
+
+    public void setMatchCacheSize(int matchCacheSize) {
+        this.matchCacheSize = matchCacheSize;
+    }
+
 }
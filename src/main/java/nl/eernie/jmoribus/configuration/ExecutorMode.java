@@ -0,0 +1,19 @@
+package nl.eernie.jmoribus.configuration;
+
+/**
+ * Decides which threads run the stories and scenarios when they run concurrently.
+ */
+public enum ExecutorMode {
+
+    /**
+     * A fixed pool of platform threads, sized by the story and scenario thread settings.
+     */
+    FIXED_POOL,
+
+    /**
+     * Every story or scenario runs on its own virtual thread, the thread settings then only switch the level
+     * to concurrent and no longer cap it. Virtual threads need a Java 21 runtime, older runtimes fall back
+     * to a cached pool of platform threads.
+     */
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,19 @@
+package nl.eernie.jmoribus.configuration;
+
+/**
+ * Decides what is spread over the shards when a run is split with a shard count above 1, and what a
+ * {@link nl.eernie.jmoribus.distributed.Coordinator} hands out to its workers.
+ */
+public enum ShardingMode {
+
+    /**
+     * Every story runs completely on one shard.
+     */
+    STORY,
+
+    /**
+     * Every scenario, and every row of a scenario outline, runs on one shard. A story runs on every shard
+     * that has at least one of its scenarios, including its prologue and story hooks.
+     */
+    SCENARIO
+}
@@ -0,0 +1,19 @@
+package nl.eernie.jmoribus.configuration;
+
+/**
+ * Decides how the step of a story is matched to the patterns of the step methods.
+ */
+public enum StepMatching {
+
+    /**
+     * Every pattern is a regular expression, only the patterns that share the leading words of the step are tried.
+     */
+    REGEX,
+
+    /**
+     * The patterns of every step type are compiled into one automaton that finds the first matching pattern and
+     * its parameter values in a single pass, in time linear in the length of the step. Patterns with a
+     * {@code |} are matched as regular expressions.
+     */
+    AUTOMATON
+}
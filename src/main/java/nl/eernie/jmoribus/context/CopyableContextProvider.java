@@ -0,0 +1,21 @@
+package nl.eernie.jmoribus.context;
+
+import java.util.Map;
+
+/**
+ * A context provider whose variables can be copied to another thread. Running stories or scenarios in parallel,
+ * retrying scenarios and step timeouts need one, {@link DefaultContextProvider} is one. It is not part of
+ * {@link ContextProvider}, so existing providers keep compiling and run stories in sequence as before.
+ */
+public interface CopyableContextProvider extends ContextProvider {
+
+    /**
+     * @return a copy of all variables visible to the current thread
+     */
+    Map<String, String> getVariables();
+
+    /**
+     * Replaces all variables visible to the current thread with a copy of the given variables.
+     */
+    void setVariables(Map<String, String> variables);
+}
@@ -3,7 +3,7 @@ package nl.eernie.jmoribus.context;
 import java.util.HashMap;
 import java.util.Map;
 
-public class DefaultContextProvider implements ContextProvider {
+public class DefaultContextProvider implements CopyableContextProvider {
 
     ThreadLocal<java.util.Map<String, String>> tlVariablesMap = new ThreadLocal<Map<String, String>>() {
         @Override
@@ -26,4 +26,14 @@ public class DefaultContextProvider implements ContextProvider {
     public boolean isVariableSet(String variableName) {
         return tlVariablesMap.get().containsKey(variableName);
     }
+
+    @Override
+    public Map<String, String> getVariables() {
+        return new HashMap<>(tlVariablesMap.get());
+    }
+
+    @Override
+    public void setVariables(Map<String, String> variables) {
+        tlVariablesMap.set(new HashMap<>(variables));
+    }
 }
@@ -0,0 +1,435 @@
+package nl.eernie.jmoribus.distributed;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.configuration.Configuration;
+import nl.eernie.jmoribus.configuration.ShardingMode;
+import nl.eernie.jmoribus.model.Feature;
+import nl.eernie.jmoribus.model.Prologue;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.parser.ParseableStory;
+import nl.eernie.jmoribus.parser.StoryParser;
+import nl.eernie.jmoribus.reporter.ConcurrentReporter;
+import nl.eernie.jmoribus.reporter.ResultFile;
+import nl.eernie.jmoribus.reporter.ResultFileReporter;
+import nl.eernie.jmoribus.reporter.ScenarioResult;
+import nl.eernie.jmoribus.runner.DurationHistory;
+import nl.eernie.jmoribus.runner.ExecutionPlan;
+import nl.eernie.jmoribus.runner.FlakinessHistory;
+import nl.eernie.jmoribus.runner.PlannedContainer;
+import nl.eernie.jmoribus.runner.PlannedStory;
+import nl.eernie.jmoribus.runner.WorkerPools;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out the stories, or with {@link ShardingMode#SCENARIO} the scenarios, of a run to {@link Worker}s
+ * over TCP. Workers take the next piece of work as soon as they finished the previous one, so a slow worker
+ * simply takes less work. The reporter events of all workers are replayed on the reporters of the
+ * coordinator configuration, as if the stories ran in parallel in this JVM.
+ * <p>
+ * Work of a worker that disconnects before finishing it is handed out again; its events may then be
+ * reported twice. With the duration history of the configuration the longest work is handed out first.
+ * <p>
+ * The result journal and the flakiness history of the configuration are kept by the coordinator from the
+ * replayed events and written on {@link #close()}; the journal is collected in a file next to it until then, so
+ * workers sharing the file system still plan a rerun from the previous journal. Because the events of a worker
+ * are replayed one after the other, a journal needs workers that run one scenario at a time. Scenarios
+ * quarantined by the flakiness history are handed out last. Duration histories and incremental caches are
+ * kept by the workers.
+ */
+public class Coordinator implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Coordinator.class);
+    private static final long STOP_GRACE_MILLIS = 1000;
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final Map<String, byte[]> sources = new LinkedHashMap<>();
+    private final ExecutionPlan plan;
+    private final PlanIndex index;
+    private final String fingerprint;
+    private final ConcurrentReporter reporter;
+    private final Configuration config;
+    private final FlakinessHistory flakinessHistory;
+    private final Set<Scenario> retriedScenarios = Collections.newSetFromMap(new ConcurrentHashMap<Scenario, Boolean>());
+    private final Set<Scenario> flakyScenarios = Collections.newSetFromMap(new ConcurrentHashMap<Scenario, Boolean>());
+    private List<ScenarioResult> previousResults = Collections.emptyList();
+    private ResultFileReporter journalReporter;
+    private final LinkedBlockingDeque<Work> queue = new LinkedBlockingDeque<>();
+    private final CountDownLatch remainingWork;
+    private final ExecutorService connections = WorkerPools.newCachedPool("coordinator");
+    private final Set<Socket> sockets = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+    private ServerSocket serverSocket;
+
+    /**
+     * Reads and plans the stories, workers have to use the same configuration.
+     *
+     * @throws IllegalArgumentException when the configuration keeps a result journal of scenarios running in
+     *                                  parallel on a worker
+     */
+    public Coordinator(Configuration config, List<ParseableStory> stories) {
+        File journal = config.getResultJournalFile();
+        if (journal != null && config.getScenarioThreads() > 1) {
+            throw new IllegalArgumentException("The coordinator cannot keep a result journal of scenarios running in parallel on a worker");
+        }
+        List<ParseableStory> parseableStories = new ArrayList<>(stories.size());
+        for (ParseableStory story : stories) {
+            try {
+                byte[] bytes = IOUtils.toByteArray(story.getStream());
+                sources.put(story.getUniqueIdentifier(), bytes);
+                parseableStories.add(new ParseableStory(new ByteArrayInputStream(bytes), story.getUniqueIdentifier()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read story " + story.getUniqueIdentifier(), e);
+            }
+        }
+        this.plan = new JMoribus(config).compile(StoryParser.parseStories(parseableStories));
+        this.index = new PlanIndex(plan);
+        this.fingerprint = Protocol.fingerprint(plan);
+        this.reporter = config.getConcurrentReporter();
+        this.config = config;
+        File flakinessFile = config.getFlakinessHistoryFile();
+        this.flakinessHistory = flakinessFile == null ? null : FlakinessHistory.load(flakinessFile);
+        if (journal != null) {
+            if (config.isRerunFailures() && journal.exists()) {
+                previousResults = readJournal(journal);
+            }
+            journalReporter = new ResultFileReporter(runningJournal(journal));
+            reporter.addReporter(journalReporter);
+        }
+        queueWork(config.getShardingMode() == ShardingMode.SCENARIO);
+        this.remainingWork = new CountDownLatch(queue.size());
+    }
+
+    private static File runningJournal(File journal) {
+        return new File(journal.getPath() + ".running");
+    }
+
+    private void queueWork(boolean perScenario) {
+        DurationHistory durationHistory = plan.getDurationHistory();
+        List<PlannedStory> stories = plan.getStories();
+        if (durationHistory != null) {
+            stories = durationHistory.longestFirst(stories);
+        }
+        List<Work> quarantined = new ArrayList<>();
+        for (PlannedStory story : stories) {
+            int storyIndex = plan.getStories().indexOf(story);
+            if (!perScenario) {
+                queue.add(new Work(storyIndex, Protocol.ALL_SCENARIOS));
+                continue;
+            }
+            List<PlannedContainer> scenarios = durationHistory == null ? story.getScenarios() : durationHistory.longestFirst(story);
+            for (PlannedContainer scenario : scenarios) {
+                Work work = new Work(storyIndex, story.getScenarios().indexOf(scenario));
+                if (isQuarantined(story, scenario)) {
+                    quarantined.add(work);
+                } else {
+                    queue.add(work);
+                }
+            }
+        }
+        queue.addAll(quarantined);
+    }
+
+    private boolean isQuarantined(PlannedStory story, PlannedContainer scenario) {
+        double quarantineRate = config.getQuarantineFlakeRate();
+        return flakinessHistory != null && quarantineRate > 0 && flakinessHistory.isQuarantined(
+                story.getStory().getUniqueIdentifier(), ((Scenario) scenario.getStepContainer()).getTitle(), quarantineRate);
+    }
+
+    /**
+     * Starts accepting workers.
+     *
+     * @param port the port to listen on, 0 picks a free port
+     * @return the port workers connect to
+     */
+    public int start(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(port));
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptWorkers();
+            }
+        }, "jmoribus-coordinator-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptWorkers() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                try {
+                    connections.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            serve(socket);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // the coordinator is closing
+                    closeQuietly(socket);
+                }
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOGGER.warn("Unable to accept a worker", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until all work is done.
+     *
+     * @return false when the timeout passed first
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        return remainingWork.await(timeout, unit);
+    }
+
+    /**
+     * Stops accepting workers and, once no event is replayed anymore, writes the result journal and flakiness
+     * history. Workers that are done get a second to be told to stop, the others are disconnected.
+     *
+     * @throws IOException when a worker connection is still being served after {@link #CLOSE_TIMEOUT_SECONDS}
+     * seconds, the journal and flakiness history are not written then
+     */
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        connections.shutdown();
+        try {
+            if (!connections.awaitTermination(STOP_GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+                connections.shutdownNow();
+                // a blocking socket read ignores interrupts, closing the socket ends it
+                for (Socket socket : sockets) {
+                    closeQuietly(socket);
+                }
+                if (!connections.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new IOException("Worker connections are still being served after " + CLOSE_TIMEOUT_SECONDS + " seconds");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the worker connections to close");
+        }
+        if (journalReporter != null) {
+            reporter.removeReporter(journalReporter);
+            writeJournal();
+        }
+        if (flakinessHistory != null) {
+            flakinessHistory.save(config.getFlakinessHistoryFile());
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close the connection of worker {}", socket.getRemoteSocketAddress(), e);
+        }
+    }
+
+    /**
+     * Replaces the journal by the results of this run, merged with the previous results when rerunning failures.
+     */
+    private void writeJournal() throws IOException {
+        File running = journalReporter.getFile();
+        List<ScenarioResult> results = new ArrayList<>(previousResults);
+        if (running.exists()) {
+            results.addAll(ResultFile.read(running));
+        }
+        ResultFile.write(config.getResultJournalFile(), ResultFile.merge(results));
+        Files.deleteIfExists(running.toPath());
+    }
+
+    private static List<ScenarioResult> readJournal(File journal) {
+        try {
+            return ResultFile.read(journal);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read result journal " + journal, e);
+        }
+    }
+
+    private void serve(Socket socket) {
+        Work current = null;
+        try (Socket connection = socket) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            Protocol.writeSources(output, sources);
+            Protocol.writeString(output, fingerprint);
+            output.flush();
+            while (true) {
+                byte message = input.readByte();
+                if (message == Protocol.EVENT) {
+                    replay(input);
+                    continue;
+                }
+                if (current != null) {
+                    remainingWork.countDown();
+                }
+                current = nextWork();
+                if (current == null) {
+                    output.writeByte(Protocol.STOP);
+                    output.flush();
+                    return;
+                }
+                output.writeByte(Protocol.WORK);
+                output.writeInt(current.storyIndex);
+                output.writeInt(current.scenarioIndex);
+                output.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (current != null) {
+                LOGGER.warn("Worker {} stopped before finishing its work, handing it out again", socket.getRemoteSocketAddress(), e);
+                queue.addFirst(current);
+            } else {
+                LOGGER.warn("Worker {} disconnected before taking work", socket.getRemoteSocketAddress(), e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    /**
+     * @return the next work, or null when all work is done. Waits while other workers still run work that may
+     * have to be handed out again.
+     */
+    private Work nextWork() throws InterruptedException {
+        while (true) {
+            Work work = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (work != null || remainingWork.getCount() == 0) {
+                return work;
+            }
+        }
+    }
+
+    private void replay(DataInputStream input) throws IOException {
+        Event event = Event.values()[input.readByte()];
+        Object subject = index.objectNamed(Protocol.readString(input));
+        switch (event) {
+            case BEFORE_STORY:
+                reporter.beforeStory((Story) subject);
+                break;
+            case AFTER_STORY:
+                reporter.afterStory((Story) subject);
+                break;
+            case FEATURE:
+                reporter.feature((Feature) subject);
+                break;
+            case BEFORE_PROLOGUE:
+                reporter.beforePrologue((Prologue) subject);
+                break;
+            case AFTER_PROLOGUE:
+                reporter.afterPrologue((Prologue) subject);
+                break;
+            case BEFORE_SCENARIO:
+                reporter.beforeScenario((Scenario) subject);
+                break;
+            case AFTER_SCENARIO:
+                reporter.afterScenario((Scenario) subject);
+                recordFlakiness((Scenario) subject);
+                break;
+            case CACHED_SCENARIO:
+                reporter.cachedScenario((Scenario) subject);
+                break;
+            case RETRY_SCENARIO:
+                retriedScenarios.add((Scenario) subject);
+                reporter.retryScenario((Scenario) subject, input.readInt());
+                break;
+            case FLAKY_SCENARIO:
+                flakyScenarios.add((Scenario) subject);
+                reporter.flakyScenario((Scenario) subject, input.readInt());
+                break;
+            case BEFORE_REFERRING_SCENARIO:
+                reporter.beforeReferringScenario((StepContainer) subject, index.<Scenario>objectNamed(Protocol.readString(input)));
+                break;
+            case AFTER_REFERRING_SCENARIO:
+                reporter.afterReferringScenario((StepContainer) subject, index.<Scenario>objectNamed(Protocol.readString(input)));
+                break;
+            case BEFORE_STEP:
+                reporter.beforeStep((Step) subject);
+                break;
+            case SUCCESS_STEP:
+                reporter.successStep((Step) subject);
+                break;
+            case PENDING_STEP:
+                reporter.pendingStep((Step) subject);
+                break;
+            case SKIPPED_STEP:
+                reporter.skippedStep((Step) subject);
+                break;
+            case FAILED_STEP:
+                Throwable failure = Protocol.readThrowable(input);
+                reporter.failedStep((Step) subject, failure instanceof AssertionError ? (AssertionError) failure : new AssertionError(failure));
+                break;
+            case ERROR_STEP:
+                reporter.errorStep((Step) subject, Protocol.readThrowable(input));
+                break;
+            case ERROR_STEP_CAUSE:
+                reporter.errorStep((Step) subject, Protocol.readString(input));
+                break;
+            default:
+                throw new IllegalStateException("Unknown event " + event);
+        }
+    }
+
+    /**
+     * Counts the last attempt of a scenario in the flakiness history, as the runner of a single JVM does.
+     */
+    private void recordFlakiness(Scenario scenario) {
+        if (retriedScenarios.remove(scenario)) {
+            return;
+        }
+        boolean flaky = flakyScenarios.remove(scenario);
+        if (flakinessHistory != null) {
+            flakinessHistory.record(scenario.getStory().getUniqueIdentifier(), scenario.getTitle(), flaky);
+        }
+    }
+
+    private static final class Work {
+
+        private final int storyIndex;
+        private final int scenarioIndex;
+
+        private Work(int storyIndex, int scenarioIndex) {
+            this.storyIndex = storyIndex;
+            this.scenarioIndex = scenarioIndex;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package nl.eernie.jmoribus.distributed;
+
+/**
+ * The reporter callbacks a worker streams to its coordinator, sent as their ordinal.
+ */
+enum Event {
+    BEFORE_STORY,
+    AFTER_STORY,
+    FEATURE,
+    BEFORE_PROLOGUE,
+    AFTER_PROLOGUE,
+    BEFORE_SCENARIO,
+    AFTER_SCENARIO,
+    CACHED_SCENARIO,
+    RETRY_SCENARIO,
+    FLAKY_SCENARIO,
+    BEFORE_REFERRING_SCENARIO,
+    AFTER_REFERRING_SCENARIO,
+    BEFORE_STEP,
+    SUCCESS_STEP,
+    PENDING_STEP,
+    SKIPPED_STEP,
+    FAILED_STEP,
+    ERROR_STEP,
+    ERROR_STEP_CAUSE
+}
@@ -0,0 +1,90 @@
+package nl.eernie.jmoribus.distributed;
+
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.runner.ExecutionPlan;
+import nl.eernie.jmoribus.runner.PlannedContainer;
+import nl.eernie.jmoribus.runner.PlannedStory;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Names the stories, features, prologues, scenarios and steps of a plan, so a reporter event of a worker can
+ * be sent as names and replayed on the model of the coordinator. The coordinator and its workers plan the
+ * same sources with the same configuration, every object therefore gets the same name on both sides.
+ */
+final class PlanIndex {
+
+    private final Map<Object, String> names = new IdentityHashMap<>();
+    private final Map<String, Object> objects = new HashMap<>();
+
+    PlanIndex(ExecutionPlan plan) {
+        for (PlannedStory plannedStory : plan.getStories()) {
+            Story story = plannedStory.getStory();
+            String name = story.getUniqueIdentifier();
+            add(story, name);
+            if (story.getFeature() != null) {
+                add(story.getFeature(), name + "/F");
+            }
+            if (plannedStory.getPrologue() != null) {
+                addContainer(plannedStory.getPrologue().getStepContainer(), name + "/P");
+            }
+            List<PlannedContainer> scenarios = plannedStory.getScenarios();
+            for (int i = 0; i < scenarios.size(); i++) {
+                addContainer(scenarios.get(i).getStepContainer(), name + "/S" + i);
+            }
+        }
+    }
+
+    /**
+     * Names the container and its steps, and the scenarios it refers to by their position in their story.
+     */
+    private void addContainer(StepContainer container, String name) {
+        if (names.containsKey(container)) {
+            return;
+        }
+        add(container, name);
+        List<Step> steps = container.getSteps();
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            if (step instanceof Scenario) {
+                Scenario referred = (Scenario) step;
+                Story story = referred.getStory();
+                if (story != null) {
+                    addContainer(referred, story.getUniqueIdentifier() + "/R" + story.getScenarios().indexOf(referred));
+                }
+            } else {
+                add(step, name + "#" + i);
+            }
+        }
+    }
+
+    private void add(Object object, String name) {
+        if (!names.containsKey(object)) {
+            names.put(object, name);
+        }
+        objects.put(name, object);
+    }
+
+    String nameOf(Object object) {
+        String name = names.get(object);
+        if (name == null) {
+            throw new IllegalArgumentException("Not part of the plan: " + object);
+        }
+        return name;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T objectNamed(String name) {
+        Object object = objects.get(name);
+        if (object == null) {
+            throw new IllegalArgumentException("Nothing named " + name + " in the plan");
+        }
+        return (T) object;
+    }
+}
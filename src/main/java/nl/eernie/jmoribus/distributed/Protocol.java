@@ -0,0 +1,161 @@
+package nl.eernie.jmoribus.distributed;
+
+import nl.eernie.jmoribus.exception.RemoteStepException;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.parser.ParseableStory;
+import nl.eernie.jmoribus.runner.ExecutionPlan;
+import nl.eernie.jmoribus.runner.PlannedContainer;
+import nl.eernie.jmoribus.runner.PlannedStory;
+import nl.eernie.jmoribus.runner.Sharding;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The messages between a {@link Coordinator} and its {@link Worker}s.
+ * <p>
+ * After connecting the coordinator sends the sources of all stories and the {@link #fingerprint(ExecutionPlan)} of
+ * its plan; a worker that planned the sources differently disconnects. From then on the worker asks for work
+ * with {@link #NEXT} and streams its reporter events with {@link #EVENT}; the coordinator answers every
+ * {@link #NEXT} with {@link #WORK} and the indexes of a story and scenario in the plan, or with {@link #STOP}.
+ * A worker only asks for more work after all events of the previous work are sent.
+ */
+final class Protocol {
+
+    static final byte NEXT = 1;
+    static final byte EVENT = 2;
+
+    static final byte STOP = 0;
+    static final byte WORK = 1;
+
+    /**
+     * Scenario index of work that covers all scenarios of a story.
+     */
+    static final int ALL_SCENARIOS = -1;
+
+    private static final int MAX_CAUSES = 8;
+
+    private Protocol() {
+    }
+
+    static void writeSources(DataOutputStream output, Map<String, byte[]> sources) throws IOException {
+        output.writeInt(sources.size());
+        for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+            writeString(output, source.getKey());
+            output.writeInt(source.getValue().length);
+            output.write(source.getValue());
+        }
+    }
+
+    static List<ParseableStory> readSources(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<ParseableStory> stories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String uniqueIdentifier = readString(input);
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            stories.add(new ParseableStory(new ByteArrayInputStream(bytes), uniqueIdentifier));
+        }
+        return stories;
+    }
+
+    /**
+     * @return the number of stories and the key of every scenario of the plan in order; work is handed out by
+     * index, so a worker can only run it when its plan has the same fingerprint
+     */
+    static String fingerprint(ExecutionPlan plan) {
+        StringBuilder fingerprint = new StringBuilder().append(plan.getStories().size());
+        for (PlannedStory story : plan.getStories()) {
+            for (PlannedContainer scenario : story.getScenarios()) {
+                String title = ((Scenario) scenario.getStepContainer()).getTitle();
+                fingerprint.append('\n').append(Sharding.scenarioKey(story.getStory().getUniqueIdentifier(), title));
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Writes a string of any length, {@link DataOutputStream#writeUTF(String)} is limited to 64 kB.
+     */
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the class name, message and stack trace of the throwable and of its causes.
+     */
+    static void writeThrowable(DataOutputStream output, Throwable throwable) throws IOException {
+        List<Throwable> chain = new ArrayList<>();
+        for (Throwable current = throwable; current != null && chain.size() < MAX_CAUSES; current = current.getCause()) {
+            chain.add(current);
+        }
+        output.writeInt(chain.size());
+        for (Throwable current : chain) {
+            writeString(output, current.getClass().getName());
+            writeString(output, current.getMessage());
+            StackTraceElement[] stackTrace = current.getStackTrace();
+            output.writeInt(stackTrace.length);
+            for (StackTraceElement element : stackTrace) {
+                writeString(output, element.getClassName());
+                writeString(output, element.getMethodName());
+                writeString(output, element.getFileName());
+                output.writeInt(element.getLineNumber());
+            }
+        }
+    }
+
+    /**
+     * @return an {@link AssertionError} for a remote assertion error, otherwise a {@link RemoteStepException}
+     */
+    static Throwable readThrowable(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        String[] classNames = new String[count];
+        String[] messages = new String[count];
+        StackTraceElement[][] stackTraces = new StackTraceElement[count][];
+        for (int i = 0; i < count; i++) {
+            classNames[i] = readString(input);
+            messages[i] = readString(input);
+            stackTraces[i] = new StackTraceElement[input.readInt()];
+            for (int j = 0; j < stackTraces[i].length; j++) {
+                stackTraces[i][j] = new StackTraceElement(readString(input), readString(input), readString(input), input.readInt());
+            }
+        }
+        Throwable cause = null;
+        for (int i = count - 1; i >= 0; i--) {
+            Throwable current;
+            if (classNames[i].equals(AssertionError.class.getName())) {
+                current = messages[i] == null ? new AssertionError() : new AssertionError(messages[i]);
+                if (cause != null) {
+                    current.initCause(cause);
+                }
+            } else {
+                current = new RemoteStepException(classNames[i], messages[i], cause);
+            }
+            current.setStackTrace(stackTraces[i]);
+            cause = current;
+        }
+        return cause;
+    }
+}
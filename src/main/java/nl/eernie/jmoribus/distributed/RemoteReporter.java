@@ -0,0 +1,186 @@
+package nl.eernie.jmoribus.distributed;
+
+import nl.eernie.jmoribus.model.Feature;
+import nl.eernie.jmoribus.model.Prologue;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.Reporter;
+import nl.eernie.jmoribus.reporter.RetryReporter;
+import nl.eernie.jmoribus.reporter.CachedScenarioReporter;
+import nl.eernie.jmoribus.reporter.SkippedStepReporter;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Sends every reporter callback of a worker to the coordinator. Callbacks of scenarios running in parallel
+ * on the worker are written one after the other.
+ */
+final class RemoteReporter implements Reporter, SkippedStepReporter, CachedScenarioReporter, RetryReporter {
+
+    private final DataOutputStream output;
+    private final PlanIndex index;
+
+    RemoteReporter(DataOutputStream output, PlanIndex index) {
+        this.output = output;
+        this.index = index;
+    }
+
+    @Override
+    public void beforeStory(Story story) {
+        send(Event.BEFORE_STORY, story);
+    }
+
+    @Override
+    public void afterStory(Story story) {
+        send(Event.AFTER_STORY, story);
+    }
+
+    @Override
+    public void feature(Feature feature) {
+        send(Event.FEATURE, feature);
+    }
+
+    @Override
+    public void beforePrologue(Prologue prologue) {
+        send(Event.BEFORE_PROLOGUE, prologue);
+    }
+
+    @Override
+    public void afterPrologue(Prologue prologue) {
+        send(Event.AFTER_PROLOGUE, prologue);
+    }
+
+    @Override
+    public void beforeScenario(Scenario scenario) {
+        send(Event.BEFORE_SCENARIO, scenario);
+    }
+
+    @Override
+    public void afterScenario(Scenario scenario) {
+        send(Event.AFTER_SCENARIO, scenario);
+    }
+
+    @Override
+    public void cachedScenario(Scenario scenario) {
+        send(Event.CACHED_SCENARIO, scenario);
+    }
+
+    @Override
+    public void retryScenario(Scenario scenario, int attempt) {
+        send(Event.RETRY_SCENARIO, scenario, attempt);
+    }
+
+    @Override
+    public void flakyScenario(Scenario scenario, int attempts) {
+        send(Event.FLAKY_SCENARIO, scenario, attempts);
+    }
+
+    @Override
+    public void beforeReferringScenario(StepContainer stepContainer, Scenario scenario) {
+        send(Event.BEFORE_REFERRING_SCENARIO, stepContainer, scenario);
+    }
+
+    @Override
+    public void afterReferringScenario(StepContainer stepContainer, Scenario scenario) {
+        send(Event.AFTER_REFERRING_SCENARIO, stepContainer, scenario);
+    }
+
+    @Override
+    public void beforeStep(Step step) {
+        send(Event.BEFORE_STEP, step);
+    }
+
+    @Override
+    public void successStep(Step step) {
+        send(Event.SUCCESS_STEP, step);
+    }
+
+    @Override
+    public void pendingStep(Step step) {
+        send(Event.PENDING_STEP, step);
+    }
+
+    @Override
+    public void skippedStep(Step step) {
+        send(Event.SKIPPED_STEP, step);
+    }
+
+    @Override
+    public void failedStep(Step step, AssertionError e) {
+        send(Event.FAILED_STEP, step, e);
+    }
+
+    @Override
+    public void errorStep(Step step, Throwable e) {
+        send(Event.ERROR_STEP, step, e);
+    }
+
+    @Override
+    public void errorStep(Step step, String cause) {
+        synchronized (output) {
+            try {
+                writeEvent(Event.ERROR_STEP_CAUSE, step);
+                Protocol.writeString(output, cause);
+                output.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Lost the connection to the coordinator", e);
+            }
+        }
+    }
+
+    private void send(Event event, Object subject) {
+        synchronized (output) {
+            try {
+                writeEvent(event, subject);
+                output.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Lost the connection to the coordinator", e);
+            }
+        }
+    }
+
+    private void send(Event event, Scenario scenario, int attempts) {
+        synchronized (output) {
+            try {
+                writeEvent(event, scenario);
+                output.writeInt(attempts);
+                output.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Lost the connection to the coordinator", e);
+            }
+        }
+    }
+
+    private void send(Event event, StepContainer stepContainer, Scenario scenario) {
+        synchronized (output) {
+            try {
+                writeEvent(event, stepContainer);
+                Protocol.writeString(output, index.nameOf(scenario));
+                output.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Lost the connection to the coordinator", e);
+            }
+        }
+    }
+
+    private void send(Event event, Step step, Throwable throwable) {
+        synchronized (output) {
+            try {
+                writeEvent(event, step);
+                Protocol.writeThrowable(output, throwable);
+                output.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Lost the connection to the coordinator", e);
+            }
+        }
+    }
+
+    private void writeEvent(Event event, Object subject) throws IOException {
+        output.writeByte(Protocol.EVENT);
+        output.writeByte(event.ordinal());
+        Protocol.writeString(output, index.nameOf(subject));
+    }
+}
@@ -0,0 +1,103 @@
+package nl.eernie.jmoribus.distributed;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.configuration.Configuration;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.parser.StoryParser;
+import nl.eernie.jmoribus.runner.DurationHistory;
+import nl.eernie.jmoribus.runner.ExecutionPlan;
+import nl.eernie.jmoribus.runner.PlannedStory;
+import nl.eernie.jmoribus.runner.StoryRunner;
+import nl.eernie.jmoribus.runner.WorkerPools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the work a {@link Coordinator} hands out until the coordinator has no work left. The worker plans
+ * the stories of the coordinator with its own configuration, which has to be equal to the configuration of
+ * the coordinator, and sends every reporter event to the coordinator. A worker whose plan differs from the plan
+ * of the coordinator refuses to run any work. Work of one scenario runs the story
+ * hooks and the prologue of its story as well.
+ */
+public class Worker {
+
+    private final Configuration config;
+
+    public Worker(Configuration config) {
+        this.config = config;
+    }
+
+    public void run(String host, int port) throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            ExecutionPlan plan = new JMoribus(config).compile(StoryParser.parseStories(Protocol.readSources(input)));
+            if (!Protocol.readString(input).equals(Protocol.fingerprint(plan))) {
+                throw new IllegalStateException("The plan of this worker differs from the plan of the coordinator at "
+                        + host + ":" + port + ", both have to plan the stories with the same configuration");
+            }
+            RemoteReporter remoteReporter = new RemoteReporter(output, new PlanIndex(plan));
+            config.getConcurrentReporter().addReporter(remoteReporter);
+            ExecutorService scenarioExecutor = null;
+            if (config.getScenarioThreads() > 1) {
+                scenarioExecutor = WorkerPools.newPool("scenario", config.getScenarioThreads(), config.getExecutorMode());
+            }
+            DurationHistory durationHistory = plan.getDurationHistory();
+            try {
+                StoryRunner storyRunner = new StoryRunner(plan.getMethodMatcher(), config, scenarioExecutor, durationHistory);
+                while (true) {
+                    synchronized (output) {
+                        output.writeByte(Protocol.NEXT);
+                        output.flush();
+                    }
+                    if (input.readByte() == Protocol.STOP) {
+                        return;
+                    }
+                    PlannedStory story = plan.getStories().get(input.readInt());
+                    int scenarioIndex = input.readInt();
+                    if (scenarioIndex != Protocol.ALL_SCENARIOS) {
+                        story = story.withScenarios(Collections.singletonList(story.getScenarios().get(scenarioIndex)));
+                    }
+                    storyRunner.runStory(story);
+                }
+            } finally {
+                config.getConcurrentReporter().removeReporter(remoteReporter);
+                if (scenarioExecutor != null) {
+                    scenarioExecutor.shutdownNow();
+                }
+                if (durationHistory != null && config.getDurationHistoryFile() != null) {
+                    durationHistory.save(config.getDurationHistoryFile());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a worker with the default configuration.
+     *
+     * @param args the host and port of the coordinator, followed by the class names of the steps; every steps
+     *             class needs a public constructor without arguments
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: Worker <host> <port> <steps class>...");
+            System.exit(2);
+        }
+        List<Object> steps = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            steps.add(Class.forName(args[i]).getDeclaredConstructor().newInstance());
+        }
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.addSteps(steps);
+        new Worker(configuration).run(args[0], Integer.parseInt(args[1]));
+    }
+}
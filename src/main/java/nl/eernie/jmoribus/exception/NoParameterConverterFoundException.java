@@ -1,4 +1,11 @@
 package nl.eernie.jmoribus.exception;
 
 public class NoParameterConverterFoundException extends RuntimeException {
+
+    public NoParameterConverterFoundException() {
+    }
+
+    public NoParameterConverterFoundException(String message) {
+        super(message);
+    }
 }
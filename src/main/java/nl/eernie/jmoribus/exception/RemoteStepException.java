@@ -0,0 +1,18 @@
+package nl.eernie.jmoribus.exception;
+
+/**
+ * An exception thrown by a step on a remote worker, recreated with the class name and message of the original.
+ */
+public class RemoteStepException extends RuntimeException {
+
+    private final String remoteClassName;
+
+    public RemoteStepException(String remoteClassName, String message, Throwable cause) {
+        super(remoteClassName + (message == null ? "" : ": " + message), cause);
+        this.remoteClassName = remoteClassName;
+    }
+
+    public String getRemoteClassName() {
+        return remoteClassName;
+    }
+}
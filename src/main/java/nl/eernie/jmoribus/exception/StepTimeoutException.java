@@ -0,0 +1,7 @@
+package nl.eernie.jmoribus.exception;
+
+public class StepTimeoutException extends RuntimeException {
+    public StepTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -5,22 +5,26 @@ import java.lang.reflect.Method;
 
 public class BeforeAfterMethod {
 
-    private final Method method;
+    private final MethodInvoker invoker;
     private final Object methodObject;
     private final BeforeAfterType beforeAfterType;
 
     public BeforeAfterMethod(Method method, Object methodObject, BeforeAfterType beforeAfterType) {
-        this.method = method;
+        this.invoker = MethodInvoker.bind(method, methodObject);
         this.methodObject = methodObject;
         this.beforeAfterType = beforeAfterType;
     }
 
+    public Object getMethodObject() {
+        return methodObject;
+    }
+
     public BeforeAfterType getBeforeAfterType() {
         return beforeAfterType;
     }
 
     public void invoke() throws InvocationTargetException, IllegalAccessException {
-        method.invoke(methodObject);
+        invoker.invoke();
     }
 
 }
@@ -0,0 +1,151 @@
+package nl.eernie.jmoribus.matcher;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The converters used when no {@link nl.eernie.jmoribus.annotation.ParameterConverter} method converts to a
+ * type: for the primitive types and their wrappers, enums, {@link BigDecimal}, {@link BigInteger} and the
+ * {@code java.time} types that have a static {@code parse(CharSequence)} method, such as {@code LocalDate}. The
+ * converter of an enum or {@code java.time} type is created on first use and kept.
+ */
+final class BuiltInConverters {
+
+    private static final ConcurrentMap<Class<?>, ParameterConverter> CONVERTERS = new ConcurrentHashMap<>();
+
+    static {
+        add(new ParameterConverter(Integer.class) {
+            @Override
+            public Object convert(Object value) {
+                return Integer.valueOf(value.toString().trim());
+            }
+        }, int.class);
+        add(new ParameterConverter(Long.class) {
+            @Override
+            public Object convert(Object value) {
+                return Long.valueOf(value.toString().trim());
+            }
+        }, long.class);
+        add(new ParameterConverter(Short.class) {
+            @Override
+            public Object convert(Object value) {
+                return Short.valueOf(value.toString().trim());
+            }
+        }, short.class);
+        add(new ParameterConverter(Byte.class) {
+            @Override
+            public Object convert(Object value) {
+                return Byte.valueOf(value.toString().trim());
+            }
+        }, byte.class);
+        add(new ParameterConverter(Double.class) {
+            @Override
+            public Object convert(Object value) {
+                return Double.valueOf(value.toString().trim());
+            }
+        }, double.class);
+        add(new ParameterConverter(Float.class) {
+            @Override
+            public Object convert(Object value) {
+                return Float.valueOf(value.toString().trim());
+            }
+        }, float.class);
+        add(new ParameterConverter(Boolean.class) {
+            @Override
+            public Object convert(Object value) {
+                String text = value.toString().trim();
+                if (!text.equalsIgnoreCase("true") && !text.equalsIgnoreCase("false")) {
+                    throw new IllegalArgumentException("Value " + text + " is not true or false");
+                }
+                return Boolean.valueOf(text);
+            }
+        }, boolean.class);
+        add(new ParameterConverter(Character.class) {
+            @Override
+            public Object convert(Object value) {
+                String text = value.toString();
+                if (text.length() != 1) {
+                    throw new IllegalArgumentException("Value " + text + " is not a single character");
+                }
+                return text.charAt(0);
+            }
+        }, char.class);
+        add(new ParameterConverter(BigDecimal.class) {
+            @Override
+            public Object convert(Object value) {
+                return new BigDecimal(value.toString().trim());
+            }
+        });
+        add(new ParameterConverter(BigInteger.class) {
+            @Override
+            public Object convert(Object value) {
+                return new BigInteger(value.toString().trim());
+            }
+        });
+    }
+
+    private BuiltInConverters() {
+    }
+
+    private static void add(ParameterConverter converter, Class<?>... primitives) {
+        CONVERTERS.put(converter.getReturnType(), converter);
+        for (Class<?> primitive : primitives) {
+            CONVERTERS.put(primitive, converter);
+        }
+    }
+
+    /**
+     * @return the built-in converter to the type, or null when there is none
+     */
+    static ParameterConverter find(Class<?> type) {
+        ParameterConverter converter = CONVERTERS.get(type);
+        if (converter != null) {
+            return converter;
+        } else if (type.isEnum()) {
+            converter = enumConverter(type);
+        } else if (type.getName().startsWith("java.time.")) {
+            converter = parsingConverter(type);
+        }
+        if (converter == null) {
+            return null;
+        }
+        ParameterConverter previous = CONVERTERS.putIfAbsent(type, converter);
+        return previous == null ? converter : previous;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ParameterConverter enumConverter(final Class<?> type) {
+        final Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+        return new ParameterConverter(type) {
+            @Override
+            public Object convert(Object value) {
+                String name = value.toString().trim();
+                for (Enum constant : enumType.getEnumConstants()) {
+                    if (constant.name().equalsIgnoreCase(name)) {
+                        return constant;
+                    }
+                }
+                throw new IllegalArgumentException("No constant " + name + " in " + type.getName());
+            }
+        };
+    }
+
+    /**
+     * The java.time types are looked up by name, the sources are compiled for Java 7.
+     */
+    private static ParameterConverter parsingConverter(Class<?> type) {
+        try {
+            Method parse = type.getMethod("parse", CharSequence.class);
+            if (Modifier.isStatic(parse.getModifiers()) && parse.getReturnType() == type) {
+                return new ParameterConverter(parse, null, type);
+            }
+        } catch (NoSuchMethodException e) {
+            // not a type that parses text
+        }
+        return null;
+    }
+}
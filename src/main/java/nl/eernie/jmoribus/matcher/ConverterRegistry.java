@@ -0,0 +1,79 @@
+package nl.eernie.jmoribus.matcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The parameter converters by the type they convert to. A converter method returning exactly the parameter
+ * type comes first, then the first converter method returning a subtype of it, then the built-in converters.
+ * The converter method for a type is looked up once; the result, also when there is none, is cached.
+ */
+final class ConverterRegistry {
+
+    /**
+     * Cached for a type nothing converts to, a {@link ConcurrentMap} holds no null values.
+     */
+    private static final Object NO_CONVERTER = new Object();
+
+    private final Map<Class<?>, ParameterConverter> converters = new HashMap<>();
+    private final List<ParameterConverter> inOrder = new ArrayList<>();
+    private final ConcurrentMap<Class<?>, Object> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a converter method. When two methods return the same type the first one is used.
+     */
+    void add(ParameterConverter converter) {
+        if (!converters.containsKey(converter.getReturnType())) {
+            converters.put(converter.getReturnType(), converter);
+        }
+        inOrder.add(converter);
+        resolved.clear();
+    }
+
+    /**
+     * @return the converter methods in the order they were added
+     */
+    List<ParameterConverter> methods() {
+        return Collections.unmodifiableList(inOrder);
+    }
+
+    /**
+     * @return the converter to the type, or null when there is none
+     */
+    ParameterConverter find(Class<?> type) {
+        ParameterConverter converter = findMethod(type);
+        return converter != null ? converter : BuiltInConverters.find(type);
+    }
+
+    /**
+     * @return the converter method to the type, or null when only a built-in converter or nothing converts to it
+     */
+    ParameterConverter findMethod(Class<?> type) {
+        Object converter = resolved.get(type);
+        if (converter == null) {
+            converter = resolve(type);
+            resolved.putIfAbsent(type, converter == null ? NO_CONVERTER : converter);
+        }
+        return converter == NO_CONVERTER ? null : (ParameterConverter) converter;
+    }
+
+    private ParameterConverter resolve(Class<?> type) {
+        ParameterConverter converter = converters.get(type);
+        if (converter != null) {
+            return converter;
+        }
+        if (type != Object.class) {
+            for (ParameterConverter candidate : inOrder) {
+                if (type.isAssignableFrom(candidate.getReturnType())) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+}
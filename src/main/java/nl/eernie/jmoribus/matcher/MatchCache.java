@@ -0,0 +1,99 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.model.StepType;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The matches of the most recently used step texts per step type, so a step text that occurs again is not
+ * matched against the patterns again. Texts that match no step are remembered as well. When the cache is full
+ * the least recently used text is evicted.
+ */
+public final class MatchCache {
+
+    /**
+     * Stands for a text that matches no step.
+     */
+    static final StepMatch NO_MATCH = new StepMatch(null, Collections.<String>emptyList());
+
+    private final Map<Key, StepMatch> matches;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    MatchCache(final int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size of the match cache should be at least 1");
+        }
+        this.matches = new LinkedHashMap<Key, StepMatch>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, StepMatch> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * @return the match of the text, {@link #NO_MATCH} when it matches no step or null when it was not cached
+     */
+    StepMatch get(StepType stepType, String text) {
+        StepMatch match;
+        synchronized (matches) {
+            match = matches.get(new Key(stepType, text));
+        }
+        if (match == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return match;
+    }
+
+    void put(StepType stepType, String text, StepMatch match) {
+        synchronized (matches) {
+            matches.put(new Key(stepType, text), match == null ? NO_MATCH : match);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (matches) {
+            return matches.size();
+        }
+    }
+
+    private static final class Key {
+
+        private final StepType stepType;
+        private final String text;
+
+        private Key(StepType stepType, String text) {
+            this.stepType = stepType;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return stepType == key.stepType && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(stepType) + text.hashCode();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package nl.eernie.jmoribus.matcher;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calls a step method, parameter converter or hook through a {@link MethodHandle} bound to its object once, when
+ * the method is registered. Unlike {@link Method#invoke(Object, Object...)} the call needs no access check and
+ * the JIT can inline it. Like {@link Method#invoke(Object, Object...)} an argument that does not fit its parameter
+ * is rejected with an {@link IllegalArgumentException}, and only an exception thrown by the method itself is
+ * wrapped in an {@link InvocationTargetException}.
+ */
+public final class MethodInvoker {
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<>();
+    private static final Map<Class<?>, List<Class<?>>> WIDENED_FROM = new HashMap<>();
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+        WIDENED_FROM.put(short.class, Arrays.<Class<?>>asList(Byte.class));
+        WIDENED_FROM.put(int.class, Arrays.<Class<?>>asList(Byte.class, Short.class, Character.class));
+        WIDENED_FROM.put(long.class, Arrays.<Class<?>>asList(Byte.class, Short.class, Character.class, Integer.class));
+        WIDENED_FROM.put(float.class, Arrays.<Class<?>>asList(Byte.class, Short.class, Character.class, Integer.class, Long.class));
+        WIDENED_FROM.put(double.class, Arrays.<Class<?>>asList(Byte.class, Short.class, Character.class, Integer.class, Long.class, Float.class));
+    }
+
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final int parameterCount;
+    private final MethodHandle spreading;
+    private final MethodHandle direct;
+    private final IllegalAccessException accessError;
+
+    private MethodInvoker(Method method, MethodHandle spreading, MethodHandle direct, IllegalAccessException accessError) {
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.parameterCount = parameterTypes.length;
+        this.spreading = spreading;
+        this.direct = direct;
+        this.accessError = accessError;
+    }
+
+    /**
+     * @param target the object to call the method on, ignored for a static method
+     */
+    public static MethodInvoker bind(Method method, Object target) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(accessible(method, target));
+        } catch (IllegalAccessException e) {
+            // reported when the method is called, as Method.invoke would
+            return new MethodInvoker(method, null, null, e);
+        }
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(target);
+        }
+        int parameterCount = method.getParameterTypes().length;
+        MethodHandle spreading = handle.asSpreader(Object[].class, parameterCount).asType(MethodType.methodType(Object.class, Object[].class));
+        MethodHandle direct = parameterCount <= 1 ? handle.asType(MethodType.genericMethodType(parameterCount)) : null;
+        return new MethodInvoker(method, spreading, direct, null);
+    }
+
+    /**
+     * @return the method, or for a public method of a class that is not public the bridge javac adds to the public
+     * class of the target, as {@link Class#getMethods()} would return it
+     */
+    private static Method accessible(Method method, Object target) {
+        if (target == null || Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return method;
+        }
+        try {
+            return target.getClass().getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            return method;
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public Object invoke(Object[] arguments) throws InvocationTargetException, IllegalAccessException {
+        checkAccess();
+        checkArgumentCount(arguments.length);
+        for (int i = 0; i < arguments.length; i++) {
+            checkArgument(i, arguments[i]);
+        }
+        try {
+            return (Object) spreading.invokeExact(arguments);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * Calls a method without parameters, such as a hook.
+     */
+    public Object invoke() throws InvocationTargetException, IllegalAccessException {
+        checkAccess();
+        checkArgumentCount(0);
+        try {
+            return (Object) direct.invokeExact();
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * Calls a method with one parameter, such as a parameter converter, without an array for the argument.
+     */
+    public Object invoke(Object argument) throws InvocationTargetException, IllegalAccessException {
+        checkAccess();
+        checkArgumentCount(1);
+        checkArgument(0, argument);
+        try {
+            return (Object) direct.invokeExact(argument);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private void checkAccess() throws IllegalAccessException {
+        if (accessError != null) {
+            throw accessError;
+        }
+    }
+
+    private void checkArgumentCount(int argumentCount) {
+        if (argumentCount != parameterCount) {
+            throw new IllegalArgumentException("wrong number of arguments for " + method);
+        }
+    }
+
+    /**
+     * Checks the argument as {@link Method#invoke(Object, Object...)} does: a primitive parameter takes its wrapper
+     * or a wrapper it widens from, any other parameter null or an instance of its type.
+     */
+    private void checkArgument(int index, Object argument) {
+        Class<?> parameterType = parameterTypes[index];
+        if (!parameterType.isPrimitive()) {
+            if (argument != null && !parameterType.isInstance(argument)) {
+                throw new IllegalArgumentException("argument " + (index + 1) + " of " + method + " is a " + argument.getClass().getName()
+                        + ", not a " + parameterType.getName());
+            }
+        } else if (argument == null) {
+            throw new IllegalArgumentException("argument " + (index + 1) + " of " + method + " is null, not a " + parameterType.getName());
+        } else if (WRAPPERS.get(parameterType) != argument.getClass()
+                && !(WIDENED_FROM.containsKey(parameterType) && WIDENED_FROM.get(parameterType).contains(argument.getClass()))) {
+            throw new IllegalArgumentException("argument " + (index + 1) + " of " + method + " is a " + argument.getClass().getName()
+                    + ", not a " + parameterType.getName());
+        }
+    }
+}
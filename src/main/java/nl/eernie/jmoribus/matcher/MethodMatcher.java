@@ -9,46 +9,167 @@ import nl.eernie.jmoribus.annotation.Given;
 import nl.eernie.jmoribus.annotation.OutputVariables;
 import nl.eernie.jmoribus.annotation.RequiredVariables;
 import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.annotation.Timeout;
 import nl.eernie.jmoribus.annotation.When;
+import nl.eernie.jmoribus.configuration.StepMatching;
 import nl.eernie.jmoribus.exception.NoParameterConverterFoundException;
 import nl.eernie.jmoribus.model.Step;
 import nl.eernie.jmoribus.model.StepType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class MethodMatcher {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodMatcher.class);
+
     private final List<Object> objects;
 
     private List<PossibleStep> possibleSteps = new ArrayList<>();
 
-    private List<ParameterConverter> parameterConverters = new ArrayList<>();
+    private ConverterRegistry parameterConverters = new ConverterRegistry();
 
     private Map<BeforeAfterType, List<BeforeAfterMethod>> beforeAfterMethods = new HashMap<>();
 
     private StepParser parser = new StepParser();
 
+    private StepIndex stepIndex;
+
+    private Map<StepType, StepAutomaton> automatons;
+
+    private MatchCache matchCache;
+
     public MethodMatcher(List<Object> objects) {
+        this(objects, StepMatching.REGEX);
+    }
+
+    public MethodMatcher(List<Object> objects, StepMatching stepMatching) {
+        this(objects, stepMatching, 0);
+    }
+
+    /**
+     * @param matchCacheSize the number of step texts whose match is cached, 0 to match every step again
+     */
+    public MethodMatcher(List<Object> objects, StepMatching stepMatching, int matchCacheSize) {
         this.objects = objects;
         findUsableMethods();
         setRegexMatchers();
-
+        if (stepMatching == StepMatching.AUTOMATON) {
+            createAutomatons();
+        } else {
+            stepIndex = new StepIndex(possibleSteps, parser);
+        }
+        if (matchCacheSize > 0) {
+            matchCache = new MatchCache(matchCacheSize);
+        }
     }
 
+    /**
+     * Registers the public methods of the class of every object and of its superclasses, one class at a time:
+     * from the registry of the class when it has one, otherwise by reflection.
+     */
     private void findUsableMethods() {
         for (Object object : objects) {
-            for (Method method : object.getClass().getMethods()) {
-                createPossibleStep(method, object);
-                createParameterConverter(method, object);
-                createBeforeAfterMethods(method, object);
+            for (Class<?> type = object.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+                StepRegistry registry = loadRegistry(type, object);
+                if (registry != null) {
+                    possibleSteps.addAll(registry.getPossibleSteps());
+                    for (ParameterConverter parameterConverter : registry.getParameterConverters()) {
+                        parameterConverters.add(parameterConverter);
+                    }
+                    for (BeforeAfterMethod beforeAfterMethod : registry.getBeforeAfterMethods()) {
+                        addBeforeAfterMethod(beforeAfterMethod);
+                    }
+                    continue;
+                }
+                for (Method method : declaredMethods(type, object.getClass())) {
+                    createPossibleStep(method, object);
+                    createParameterConverter(method, object);
+                    createBeforeAfterMethods(method, object);
+                }
             }
         }
     }
 
+    /**
+     * @return the public methods the type declares and the class of the object does not override, in
+     * {@link MethodOrder}
+     */
+    private static List<Method> declaredMethods(Class<?> type, Class<?> objectClass) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : type.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers()) && !method.isBridge() && !isOverridden(method, objectClass)) {
+                methods.add(method);
+            }
+        }
+        Collections.sort(methods, MethodOrder.INSTANCE);
+        return methods;
+    }
+
+    /**
+     * @return true when the class has another public method with the name and parameter types of the method. The
+     * bridge javac adds to a public class for a public method it inherits from a class that is not public is no
+     * override, unlike the bridge of an override with a covariant return type or generic parameters.
+     */
+    static boolean isOverridden(Method method, Class<?> type) {
+        Method found;
+        try {
+            found = type.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+        if (found.equals(method)) {
+            return false;
+        }
+        Class<?> declaringClass = found.getDeclaringClass();
+        if (found.isBridge() && !declaresBridgedMethod(declaringClass, found) && declaringClass != method.getDeclaringClass()) {
+            return isOverridden(method, declaringClass.getSuperclass());
+        }
+        return true;
+    }
+
+    /**
+     * @return true when the class declares a method the bridge calls: one that is no bridge, with its name and
+     * parameters that can be passed to the parameters of the bridge
+     */
+    private static boolean declaresBridgedMethod(Class<?> type, Method bridge) {
+        Class<?>[] bridgeParameters = bridge.getParameterTypes();
+        for (Method declared : type.getDeclaredMethods()) {
+            if (declared.isBridge() || !declared.getName().equals(bridge.getName()) || declared.getParameterTypes().length != bridgeParameters.length) {
+                continue;
+            }
+            boolean assignable = true;
+            for (int i = 0; i < bridgeParameters.length && assignable; i++) {
+                assignable = bridgeParameters[i].isAssignableFrom(declared.getParameterTypes()[i]);
+            }
+            if (assignable) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the registry written when the type was compiled, or null to look for its methods by reflection
+     */
+    private StepRegistry loadRegistry(Class<?> type, Object object) {
+        try {
+            return StepRegistry.load(type, object);
+        } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Ignoring the step registry of {}, it does not match the class: {}", type.getName(), e.toString());
+            return null;
+        }
+    }
+
     private void createBeforeAfterMethods(Method method, Object object) {
         if (method.isAnnotationPresent(BeforeStory.class)) {
             addBeforeAfterMethod(new BeforeAfterMethod(method, object, BeforeAfterType.BEFORE_STORY));
@@ -74,8 +195,29 @@ public class MethodMatcher {
 
     private void setRegexMatchers() {
         for (PossibleStep possibleStep : possibleSteps) {
-            RegexStepMatcher regexStepMatcher = parser.parseStep(possibleStep.getStep());
-            possibleStep.setRegexStepMatcher(regexStepMatcher);
+            if (possibleStep.getRegexStepMatcher() == null) {
+                RegexStepMatcher regexStepMatcher = parser.parseStep(possibleStep.getStep());
+                possibleStep.setRegexStepMatcher(regexStepMatcher);
+            }
+        }
+    }
+
+    private void createAutomatons() {
+        Map<StepType, List<PossibleStep>> possibleStepsByType = new EnumMap<>(StepType.class);
+        for (PossibleStep possibleStep : possibleSteps) {
+            if (!possibleStepsByType.containsKey(possibleStep.getStepType())) {
+                possibleStepsByType.put(possibleStep.getStepType(), new ArrayList<PossibleStep>());
+            }
+            possibleStepsByType.get(possibleStep.getStepType()).add(possibleStep);
+        }
+        automatons = new EnumMap<>(StepType.class);
+        for (Map.Entry<StepType, List<PossibleStep>> entry : possibleStepsByType.entrySet()) {
+            StepAutomaton automaton = new StepAutomaton(entry.getValue());
+            if (automaton.getFallbackCount() > 0) {
+                LOGGER.info("{} of the {} {} steps are matched as regular expressions after the step automaton",
+                        automaton.getFallbackCount(), entry.getValue().size(), entry.getKey());
+            }
+            automatons.put(entry.getKey(), automaton);
         }
     }
 
@@ -106,46 +248,100 @@ public class MethodMatcher {
             outputVariables = outputVariablesAnnotation.value();
         }
 
+        long timeout = 0;
+        if (method.isAnnotationPresent(Timeout.class)) {
+            timeout = method.getAnnotation(Timeout.class).value();
+        }
+
         if (method.isAnnotationPresent(Given.class)) {
             Given annotation = method.getAnnotation(Given.class);
-            possibleSteps.addAll(createPossibleSteps(annotation.value(), method, StepType.GIVEN, object, categories, requiredVariables, outputVariables));
+            possibleSteps.addAll(createPossibleSteps(annotation.value(), method, StepType.GIVEN, object, categories, requiredVariables, outputVariables, timeout));
         }
         if (method.isAnnotationPresent(When.class)) {
             When annotation = method.getAnnotation(When.class);
-            possibleSteps.addAll(createPossibleSteps(annotation.value(), method, StepType.WHEN, object, categories, requiredVariables, outputVariables));
+            possibleSteps.addAll(createPossibleSteps(annotation.value(), method, StepType.WHEN, object, categories, requiredVariables, outputVariables, timeout));
         }
         if (method.isAnnotationPresent(Then.class)) {
             Then annotation = method.getAnnotation(Then.class);
-            possibleSteps.addAll(createPossibleSteps(annotation.value(), method, StepType.THEN, object, categories, requiredVariables, outputVariables));
+            possibleSteps.addAll(createPossibleSteps(annotation.value(), method, StepType.THEN, object, categories, requiredVariables, outputVariables, timeout));
         }
     }
 
-    private List<PossibleStep> createPossibleSteps(String[] values, Method method, StepType stepType, Object object, String[] categories, String[] requiredVariables, String[] outputVariables) {
+    private List<PossibleStep> createPossibleSteps(String[] values, Method method, StepType stepType, Object object, String[] categories, String[] requiredVariables, String[] outputVariables, long timeout) {
         ArrayList<PossibleStep> possibleSteps = new ArrayList<>();
         for (String value : values) {
-            possibleSteps.add(new PossibleStep(value, method, stepType, object, categories, requiredVariables, outputVariables));
+            possibleSteps.add(new PossibleStep(value, method, stepType, object, categories, requiredVariables, outputVariables, timeout));
         }
         return possibleSteps;
     }
 
+    /**
+     * @return the first possible step of the step type whose pattern matches the step, or null when none does
+     */
     public PossibleStep findMatchedStep(Step step) {
-        for (PossibleStep possibleStep : possibleSteps) {
-            if (possibleStep.getStepType().equals(step.getStepType())) {
-                if (possibleStep.getRegexStepMatcher().matches(step.getCombinedStepLines())) {
-                    return possibleStep;
-                }
-            }
+        if (automatons != null || matchCache != null) {
+            StepMatch match = matchStep(step);
+            return match == null ? null : match.getPossibleStep();
         }
-        return null;
+        return stepIndex.findMatchedStep(step.getStepType(), step.getCombinedStepLines());
     }
 
+    /**
+     * @return the first possible step of the step type whose pattern matches the step with the values of its
+     * parameters, or null when none does
+     */
+    public StepMatch matchStep(Step step) {
+        String text = step.getCombinedStepLines();
+        if (matchCache == null || text == null) {
+            return match(step, text);
+        }
+        StepMatch match = matchCache.get(step.getStepType(), text);
+        if (match == null) {
+            match = match(step, text);
+            matchCache.put(step.getStepType(), text, match);
+        }
+        return match == MatchCache.NO_MATCH ? null : match;
+    }
+
+    private StepMatch match(Step step, String text) {
+        if (automatons != null) {
+            StepAutomaton automaton = automatons.get(step.getStepType());
+            return automaton == null ? null : automaton.match(text);
+        }
+        return stepIndex.matchStep(step.getStepType(), text);
+    }
+
+    /**
+     * @return the cache of step matches, or null when matches are not cached
+     */
+    public MatchCache getMatchCache() {
+        return matchCache;
+    }
+
+    /**
+     * @return the converter method returning the type or a subtype of it, otherwise the built-in converter to the type
+     */
     public ParameterConverter findConverterFor(Class<?> parameterType) {
-        for (ParameterConverter parameterConverter : parameterConverters) {
-            if (parameterConverter.getReturnType().equals(parameterType)) {
-                return parameterConverter;
-            }
+        ParameterConverter parameterConverter = parameterConverters.find(parameterType);
+        if (parameterConverter != null) {
+            return parameterConverter;
         }
-        throw new NoParameterConverterFoundException();
+        throw new NoParameterConverterFoundException("No parameter converter found for " + parameterType.getName());
+    }
+
+    /**
+     * @return the converter method returning the type or a subtype of it, or null when there is none; built-in
+     * converters are left out
+     */
+    public ParameterConverter findConverterMethodFor(Class<?> parameterType) {
+        return parameterConverters.findMethod(parameterType);
+    }
+
+    /**
+     * @return the converter methods of the step objects, built-in converters are left out
+     */
+    public List<ParameterConverter> getParameterConverters() {
+        return parameterConverters.methods();
     }
 
     public List<BeforeAfterMethod> findBeforeAfters(BeforeAfterType beforeAfterType) {
@@ -0,0 +1,46 @@
+package nl.eernie.jmoribus.matcher;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+
+/**
+ * The order the steps, parameter converters and hooks of a step class are registered in, the same whether they
+ * come from a {@link StepRegistry} or from reflection: the methods of a class before those of its superclasses,
+ * then by name and parameter types. The patterns of one method keep the order of its annotation.
+ */
+final class MethodOrder implements Comparator<Method> {
+
+    static final MethodOrder INSTANCE = new MethodOrder();
+
+    private MethodOrder() {
+    }
+
+    @Override
+    public int compare(Method first, Method second) {
+        int depth = depth(second.getDeclaringClass()) - depth(first.getDeclaringClass());
+        if (depth != 0) {
+            return depth;
+        }
+        int name = first.getName().compareTo(second.getName());
+        if (name != 0) {
+            return name;
+        }
+        Class<?>[] firstParameters = first.getParameterTypes();
+        Class<?>[] secondParameters = second.getParameterTypes();
+        for (int i = 0; i < Math.min(firstParameters.length, secondParameters.length); i++) {
+            int parameter = firstParameters[i].getName().compareTo(secondParameters[i].getName());
+            if (parameter != 0) {
+                return parameter;
+            }
+        }
+        return firstParameters.length - secondParameters.length;
+    }
+
+    private static int depth(Class<?> type) {
+        int depth = 0;
+        for (Class<?> superclass = type.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+            depth++;
+        }
+        return depth;
+    }
+}
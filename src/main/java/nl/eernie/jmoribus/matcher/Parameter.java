@@ -4,11 +4,13 @@ class Parameter {
     private final int start;
     private final int end;
     private final String whitespaceIfAny;
+    private final ParameterType type;
 
-    public Parameter(int start, int end, String whitespaceIfAny) {
+    public Parameter(int start, int end, String whitespaceIfAny, ParameterType type) {
         this.start = start;
         this.end = end;
         this.whitespaceIfAny = whitespaceIfAny;
+        this.type = type;
     }
 
 
@@ -23,4 +25,11 @@ class Parameter {
     public String getWhitespaceIfAny() {
         return whitespaceIfAny;
     }
+
+    /**
+     * @return the type of a typed placeholder, or null for a plain one
+     */
+    public ParameterType getType() {
+        return type;
+    }
 }
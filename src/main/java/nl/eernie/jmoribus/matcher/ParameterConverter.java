@@ -5,21 +5,44 @@ import java.lang.reflect.Method;
 
 public class ParameterConverter {
 
-    private final Method method;
+    private final MethodInvoker invoker;
     private final Object methodObject;
     private final Class<?> returnType;
 
     public ParameterConverter(Method method, Object methodObject, Class<?> returnType) {
-        this.method = method;
+        this.invoker = MethodInvoker.bind(method, methodObject);
         this.methodObject = methodObject;
         this.returnType = returnType;
     }
 
+    /**
+     * For a built-in converter, which overrides {@link #convert(Object)} instead of calling a method.
+     */
+    ParameterConverter(Class<?> returnType) {
+        this.invoker = null;
+        this.methodObject = null;
+        this.returnType = returnType;
+    }
+
+    /**
+     * @return the object the converter method is called on, null for a built-in converter
+     */
+    public Object getMethodObject() {
+        return methodObject;
+    }
+
     public Class<?> getReturnType() {
         return returnType;
     }
 
+    public Object convert(Object value) throws InvocationTargetException, IllegalAccessException {
+        return invoker.invoke(value);
+    }
+
     public Object convert(Object... args) throws InvocationTargetException, IllegalAccessException {
-        return method.invoke(methodObject, args);
+        if (invoker == null && args.length == 1) {
+            return convert(args[0]);
+        }
+        return invoker.invoke(args);
     }
 }
@@ -0,0 +1,150 @@
+package nl.eernie.jmoribus.matcher;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * The type of a typed placeholder such as {@code $count:int}. Its value is captured with a bounded, possessive
+ * character class instead of {@code (.*)}. A parameter converter method to the parameter type converts the value
+ * when there is one, otherwise the placeholder type converts it.
+ */
+public enum ParameterType {
+
+    /**
+     * An optionally signed whole number, for an int, long, short, byte or {@link BigInteger} parameter.
+     */
+    INT("int", "([+-]?+[0-9]{1,19}+)") {
+        @Override
+        boolean supports(Class<?> type) {
+            return type == int.class || type == Integer.class || type == long.class || type == Long.class
+                    || type == short.class || type == Short.class || type == byte.class || type == Byte.class
+                    || type == BigInteger.class;
+        }
+    },
+
+    /**
+     * Letters, digits and connecting punctuation such as an underscore, for a String or enum parameter.
+     */
+    WORD("word", "([\\p{L}\\p{N}\\p{Pc}]{1,256}+)") {
+        @Override
+        boolean supports(Class<?> type) {
+            return type.isEnum();
+        }
+    },
+
+    /**
+     * An ISO date like 2015-03-31, for a {@link Date} or {@code java.time.LocalDate} parameter.
+     */
+    DATE("date", "([0-9]{4}+-[0-9]{2}+-[0-9]{2}+)") {
+        @Override
+        boolean supports(Class<?> type) {
+            return type == Date.class || type.getName().equals("java.time.LocalDate");
+        }
+
+        @Override
+        Object convertValue(String value, Class<?> type) {
+            if (type != Date.class) {
+                return super.convertValue(value, type);
+            }
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+            format.setLenient(false);
+            try {
+                return format.parse(value);
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("Invalid date " + value, e);
+            }
+        }
+
+        @Override
+        public boolean isMutable(Class<?> type) {
+            return type == Date.class;
+        }
+    },
+
+    /**
+     * An optionally signed number with an optional fraction, for a {@link BigDecimal}, double or float parameter.
+     */
+    DECIMAL("decimal", "([+-]?+[0-9]{1,64}+(?:\\.[0-9]{1,64}+)?+)") {
+        @Override
+        boolean supports(Class<?> type) {
+            return type == BigDecimal.class || type == double.class || type == Double.class || type == float.class
+                    || type == Float.class;
+        }
+    };
+
+    private final String name;
+    private final String regex;
+
+    ParameterType(String name, String regex) {
+        this.name = name;
+        this.regex = regex;
+    }
+
+    String getRegex() {
+        return regex;
+    }
+
+    /**
+     * @return the placeholder type with the name used after the colon, or null when there is none
+     */
+    static ParameterType forName(String name) {
+        for (ParameterType parameterType : values()) {
+            if (parameterType.name.equals(name)) {
+                return parameterType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true when a captured value can be converted to the type without a parameter converter
+     */
+    public boolean canConvertTo(Class<?> type) {
+        return type == String.class || type == Object.class || supports(type);
+    }
+
+    /**
+     * @return the captured value converted to the type of the step method parameter
+     * @throws IllegalArgumentException when the value does not fit in the type
+     */
+    public Object convert(String value, Class<?> type) {
+        if (type == String.class || type == Object.class) {
+            return value;
+        }
+        if (!supports(type)) {
+            throw new IllegalArgumentException("A " + name + " placeholder can not be converted to " + type.getName());
+        }
+        try {
+            return convertValue(value, type);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Value " + value + " does not fit in a " + type.getName(), e);
+        }
+    }
+
+    /**
+     * @return true when the value converted to the type can be changed by a step, so every run needs its own
+     */
+    public boolean isMutable(Class<?> type) {
+        return false;
+    }
+
+    abstract boolean supports(Class<?> type);
+
+    /**
+     * Converts with the {@link BuiltInConverters built-in converter} to the type, which parameters without a
+     * typed placeholder use as well.
+     */
+    Object convertValue(String value, Class<?> type) {
+        try {
+            return BuiltInConverters.find(type).convert(value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to convert " + value + " to " + type.getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("Value " + value + " is no valid " + type.getName(), e.getCause());
+        }
+    }
+}
@@ -13,9 +13,15 @@ public class PossibleStep {
     private final String[] categories;
     private final String[] requiredVariables;
     private final String[] outputVariables;
+    private final long timeout;
+    private final MethodInvoker invoker;
     private RegexStepMatcher regexStepMatcher;
 
     public PossibleStep(String step, Method method, StepType stepType, Object object, String[] categories, String[] requiredVariables, String[] outputVariables) {
+        this(step, method, stepType, object, categories, requiredVariables, outputVariables, 0);
+    }
+
+    public PossibleStep(String step, Method method, StepType stepType, Object object, String[] categories, String[] requiredVariables, String[] outputVariables, long timeout) {
         this.step = step;
         this.method = method;
         this.stepType = stepType;
@@ -23,6 +29,8 @@ public class PossibleStep {
         this.categories = categories;
         this.requiredVariables = requiredVariables;
         this.outputVariables = outputVariables;
+        this.timeout = timeout;
+        this.invoker = method == null ? null : MethodInvoker.bind(method, object);
     }
 
     public String getStep() {
@@ -33,6 +41,13 @@ public class PossibleStep {
         return method;
     }
 
+    /**
+     * @return the step method bound to its object
+     */
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+
     public Object getMethodObject() {
         return methodObject;
     }
@@ -60,4 +75,11 @@ public class PossibleStep {
     public String[] getOutputVariables() {
         return outputVariables;
     }
+
+    /**
+     * @return the timeout in milliseconds of the {@link nl.eernie.jmoribus.annotation.Timeout} annotation, 0 when absent
+     */
+    public long getTimeout() {
+        return timeout;
+    }
 }
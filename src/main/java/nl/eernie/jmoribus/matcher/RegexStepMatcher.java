@@ -3,40 +3,79 @@ package nl.eernie.jmoribus.matcher;
 import nl.eernie.jmoribus.model.Step;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 
+/**
+ * Matches step texts against the pattern of a possible step. It holds no state of a match, so it can be shared
+ * by threads; every match uses a new {@link Matcher}.
+ */
 public class RegexStepMatcher {
 
     private final Pattern regexPattern;
-    private Matcher matcher;
+
+    private final List<ParameterType> parameterTypes;
 
 
     public RegexStepMatcher(Pattern regexPattern) {
+        this(regexPattern, Collections.<ParameterType>emptyList());
+    }
+
+    /**
+     * @param parameterTypes the type of every parameter in order, null for a plain placeholder
+     */
+    public RegexStepMatcher(Pattern regexPattern, List<ParameterType> parameterTypes) {
         this.regexPattern = regexPattern;
+        this.parameterTypes = parameterTypes;
+    }
 
+    Pattern getPattern() {
+        return regexPattern;
     }
 
     public boolean matches(String stepWithoutStartingWord) {
-        matcher(stepWithoutStartingWord);
-        return matcher.matches();
+        return regexPattern.matcher(stepWithoutStartingWord).matches();
     }
 
-    private void matcher(String patternToMatch) {
-        matcher = regexPattern.matcher(patternToMatch);
+    /**
+     * Matches the text once and reads the parameter values from that match.
+     *
+     * @return the values of the parameters when the whole text matches, or null when it does not
+     */
+    public List<String> match(String stepWithoutStartingWord) {
+        Matcher matcher = regexPattern.matcher(stepWithoutStartingWord);
+        if (!matcher.matches()) {
+            return null;
+        }
+        if (matcher.groupCount() == 0) {
+            return Collections.emptyList();
+        }
+        List<String> parameters = new ArrayList<>(matcher.groupCount());
+        for (int i = 1; i <= matcher.groupCount(); i++) {
+            parameters.add(matcher.group(i));
+        }
+        return parameters;
     }
 
+    /**
+     * @return the values of the parameters in the step, or an empty list when the step does not match
+     */
     public List<String> getParameterValues(Step step) {
-        Matcher matcher = regexPattern.matcher(step.getCombinedStepLines());
-        matcher.find();
-        List<String> parameters = new ArrayList<>();
-        if (matcher.groupCount() > 0) {
-            for (int i = 1; i <= matcher.groupCount(); i++) {
-                parameters.add(matcher.group(i));
-            }
-        }
-        return parameters;
+        List<String> parameters = match(step.getCombinedStepLines());
+        return parameters == null ? new ArrayList<String>() : parameters;
+    }
+
+    /**
+     * @return the type of the typed placeholder at the index of the parameter values, or null for a plain one
+     */
+    public ParameterType getParameterType(int index) {
+        return index < parameterTypes.size() ? parameterTypes.get(index) : null;
+    }
+
+    List<ParameterType> getParameterTypes() {
+        return parameterTypes;
     }
 }
@@ -0,0 +1,282 @@
+package nl.eernie.jmoribus.matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All patterns of one step type compiled into a single Thompson automaton, run as a Pike VM: the text is read
+ * once, while every pattern that can still match it is followed at the same time. Each position of the program
+ * is followed at most once per character, so matching the compiled patterns takes time linear in the length of
+ * the text. Threads are kept in order of priority, the patterns in the order of the possible steps and within a
+ * pattern greedy before lazy, so the match and its parameter values are the ones the regular expressions would
+ * find one after the other.
+ * <p>
+ * The automaton understands the plain regular expressions {@link StepParser} creates: literal and escaped
+ * characters, {@code \s+} and {@code (.*)}. Patterns with anything else, such as an unescaped {@code |} or the
+ * possessive character class of a typed placeholder like {@code $count:int}, are kept as regular expressions and
+ * tried after the automaton for the possible steps before its match. Those fallbacks are not linear: the time of
+ * a match includes running every fallback pattern before the matched step. {@link #getFallbackCount()} tells how
+ * many patterns fell back.
+ */
+final class StepAutomaton {
+
+    private static final int CHAR = 0;
+    private static final int ANY = 1;
+    private static final int SPACE = 2;
+    private static final int SPLIT = 3;
+    private static final int JUMP = 4;
+    private static final int SAVE = 5;
+    private static final int MATCH = 6;
+
+    private final List<PossibleStep> possibleSteps;
+    private final int[] starts;
+    private final int[] fallbacks;
+    private final int[] groups;
+    private final int[] operations;
+    private final int[] arguments;
+    private final int[] alternatives;
+    private final int slots;
+
+    StepAutomaton(List<PossibleStep> possibleSteps) {
+        this.possibleSteps = possibleSteps;
+        Program program = new Program();
+        List<Integer> compiledStarts = new ArrayList<>();
+        List<Integer> notCompiled = new ArrayList<>();
+        this.groups = new int[possibleSteps.size()];
+        int maxGroups = 0;
+        for (int i = 0; i < possibleSteps.size(); i++) {
+            String regex = possibleSteps.get(i).getRegexStepMatcher().getPattern().pattern();
+            int start = program.size();
+            groups[i] = program.compile(regex, i);
+            if (groups[i] < 0) {
+                program.truncate(start);
+                notCompiled.add(i);
+            } else {
+                compiledStarts.add(start);
+                maxGroups = Math.max(maxGroups, groups[i]);
+            }
+        }
+        this.starts = toArray(compiledStarts);
+        this.fallbacks = toArray(notCompiled);
+        this.operations = program.operations.toArray();
+        this.arguments = program.arguments.toArray();
+        this.alternatives = program.alternatives.toArray();
+        this.slots = maxGroups * 2;
+    }
+
+    /**
+     * @return the number of patterns the automaton does not understand, which are matched as regular expressions
+     */
+    int getFallbackCount() {
+        return fallbacks.length;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * @return the first possible step matching the whole text with its parameter values, or null when none does
+     */
+    StepMatch match(String text) {
+        Threads current = new Threads(operations.length);
+        Threads next = new Threads(operations.length);
+        int[] noCaptures = new int[slots];
+        for (int start : starts) {
+            addThread(current, start, 0, noCaptures);
+        }
+        for (int position = 0; position < text.length() && current.size > 0; position++) {
+            char character = text.charAt(position);
+            next.clear();
+            for (int i = 0; i < current.size; i++) {
+                int pc = current.dense[i];
+                int operation = operations[pc];
+                if (operation == ANY || operation == CHAR && arguments[pc] == character || operation == SPACE && isSpace(character)) {
+                    addThread(next, pc + 1, position + 1, current.captures[i]);
+                }
+            }
+            Threads swap = current;
+            current = next;
+            next = swap;
+        }
+        int matched = Integer.MAX_VALUE;
+        int[] captures = null;
+        for (int i = 0; i < current.size; i++) {
+            int pc = current.dense[i];
+            if (operations[pc] == MATCH) {
+                matched = arguments[pc];
+                captures = current.captures[i];
+                break;
+            }
+        }
+        for (int fallback : fallbacks) {
+            if (fallback > matched) {
+                break;
+            }
+            List<String> values = possibleSteps.get(fallback).getRegexStepMatcher().match(text);
+            if (values != null) {
+                return new StepMatch(possibleSteps.get(fallback), values);
+            }
+        }
+        if (captures == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(groups[matched]);
+        for (int group = 0; group < groups[matched]; group++) {
+            values.add(text.substring(captures[group * 2], captures[group * 2 + 1]));
+        }
+        return new StepMatch(possibleSteps.get(matched), values);
+    }
+
+    /**
+     * Adds the thread at the program position, following the jumps, splits and saves that do not read a character.
+     * A position that is in the list already was reached by a thread of higher priority.
+     */
+    private void addThread(Threads threads, int pc, int position, int[] captures) {
+        if (threads.contains(pc)) {
+            return;
+        }
+        threads.add(pc, captures);
+        switch (operations[pc]) {
+            case JUMP:
+                addThread(threads, arguments[pc], position, captures);
+                break;
+            case SPLIT:
+                addThread(threads, arguments[pc], position, captures);
+                addThread(threads, alternatives[pc], position, captures);
+                break;
+            case SAVE:
+                int[] saved = Arrays.copyOf(captures, captures.length);
+                saved[arguments[pc]] = position;
+                addThread(threads, pc + 1, position, saved);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static boolean isSpace(char character) {
+        return character == ' ' || character == '\t' || character == '\n' || character == '\u000B' || character == '\f' || character == '\r';
+    }
+
+    /**
+     * The threads at one position of the text in order of priority, as a sparse set of program positions that
+     * is cleared without touching its arrays. A match creates its own two sets and swaps them per character, so
+     * nothing is kept between matches or per thread.
+     */
+    private static final class Threads {
+
+        private final int[] sparse;
+        private final int[] dense;
+        private final int[][] captures;
+        private int size;
+
+        private Threads(int programSize) {
+            sparse = new int[programSize];
+            dense = new int[programSize];
+            captures = new int[programSize][];
+        }
+
+        private boolean contains(int pc) {
+            int index = sparse[pc];
+            return index < size && dense[index] == pc;
+        }
+
+        private void add(int pc, int[] threadCaptures) {
+            sparse[pc] = size;
+            dense[size] = pc;
+            captures[size] = threadCaptures;
+            size++;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+    }
+
+    private static final class Program {
+
+        private final IntList operations = new IntList();
+        private final IntList arguments = new IntList();
+        private final IntList alternatives = new IntList();
+
+        private int size() {
+            return operations.size;
+        }
+
+        private void truncate(int size) {
+            operations.size = size;
+            arguments.size = size;
+            alternatives.size = size;
+        }
+
+        private int emit(int operation, int argument, int alternative) {
+            operations.add(operation);
+            arguments.add(argument);
+            alternatives.add(alternative);
+            return operations.size - 1;
+        }
+
+        /**
+         * @return the number of capturing groups, or -1 when the regular expression has other constructs
+         */
+        private int compile(String regex, int patternIndex) {
+            int groups = 0;
+            int i = 0;
+            while (i < regex.length()) {
+                char character = regex.charAt(i);
+                if (regex.startsWith("(.*)", i)) {
+                    emit(SAVE, groups * 2, 0);
+                    int split = emit(SPLIT, 0, 0);
+                    emit(ANY, 0, 0);
+                    emit(JUMP, split, 0);
+                    arguments.set(split, split + 1);
+                    alternatives.set(split, size());
+                    emit(SAVE, groups * 2 + 1, 0);
+                    groups++;
+                    i += 4;
+                } else if (regex.startsWith("\\s+", i)) {
+                    int space = emit(SPACE, 0, 0);
+                    emit(SPLIT, space, size() + 1);
+                    i += 3;
+                } else if (character == '\\' && i + 1 < regex.length() && "[]{}?^.*()+\\".indexOf(regex.charAt(i + 1)) >= 0) {
+                    emit(CHAR, regex.charAt(i + 1), 0);
+                    i += 2;
+                } else if ("[]{}?^.*()+\\|$".indexOf(character) >= 0) {
+                    return -1;
+                } else {
+                    emit(CHAR, character, 0);
+                    i++;
+                }
+            }
+            emit(MATCH, patternIndex, 0);
+            return groups;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[64];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void set(int index, int value) {
+            values[index] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
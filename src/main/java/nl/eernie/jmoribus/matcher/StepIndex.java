@@ -0,0 +1,123 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.model.StepType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the first possible step matching a step text without trying every pattern. The patterns of every step
+ * type are kept in a trie over the words their text starts with, see {@link StepParser#parseLiteralPrefix(String)}.
+ * Only the patterns on the path of the words of the step text can match it, they are tried in the order of
+ * the possible steps so the first match is the same as with a scan over all of them.
+ */
+final class StepIndex {
+
+    private final Map<StepType, Node> roots = new EnumMap<>(StepType.class);
+
+    StepIndex(List<PossibleStep> possibleSteps, StepParser parser) {
+        for (int i = 0; i < possibleSteps.size(); i++) {
+            PossibleStep possibleStep = possibleSteps.get(i);
+            Node node = roots.get(possibleStep.getStepType());
+            if (node == null) {
+                node = new Node();
+                roots.put(possibleStep.getStepType(), node);
+            }
+            for (String word : parser.parseLiteralPrefix(possibleStep.getStep())) {
+                node = node.child(word);
+            }
+            node.candidates.add(new Candidate(i, possibleStep));
+        }
+    }
+
+    PossibleStep findMatchedStep(StepType stepType, String text) {
+        StepMatch match = matchStep(stepType, text);
+        return match == null ? null : match.getPossibleStep();
+    }
+
+    /**
+     * @return the first candidate matching the text with its parameter values, or null when none does
+     */
+    StepMatch matchStep(StepType stepType, String text) {
+        Node node = roots.get(stepType);
+        if (node == null) {
+            return null;
+        }
+        List<Candidate> candidates = node.candidates;
+        boolean merged = false;
+        int position = 0;
+        while (position < text.length() && !Character.isWhitespace(text.charAt(position)) && node.children != null) {
+            int end = position;
+            while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+            node = node.children.get(text.substring(position, end));
+            if (node == null) {
+                break;
+            }
+            if (!node.candidates.isEmpty()) {
+                if (candidates.isEmpty()) {
+                    candidates = node.candidates;
+                } else {
+                    if (!merged) {
+                        candidates = new ArrayList<>(candidates);
+                        merged = true;
+                    }
+                    candidates.addAll(node.candidates);
+                }
+            }
+            position = end;
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+        if (merged) {
+            Collections.sort(candidates);
+        }
+        for (Candidate candidate : candidates) {
+            List<String> parameterValues = candidate.possibleStep.getRegexStepMatcher().match(text);
+            if (parameterValues != null) {
+                return new StepMatch(candidate.possibleStep, parameterValues);
+            }
+        }
+        return null;
+    }
+
+    private static final class Node {
+
+        private final List<Candidate> candidates = new ArrayList<>(1);
+        private Map<String, Node> children;
+
+        private Node child(String word) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            Node child = children.get(word);
+            if (child == null) {
+                child = new Node();
+                children.put(word, child);
+            }
+            return child;
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+
+        private final int order;
+        private final PossibleStep possibleStep;
+
+        private Candidate(int order, PossibleStep possibleStep) {
+            this.order = order;
+            this.possibleStep = possibleStep;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Integer.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package nl.eernie.jmoribus.matcher;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The possible step matching a step, with the values of its parameters in the step text.
+ */
+public final class StepMatch {
+
+    private final PossibleStep possibleStep;
+    private final List<String> parameterValues;
+
+    StepMatch(PossibleStep possibleStep, List<String> parameterValues) {
+        this.possibleStep = possibleStep;
+        this.parameterValues = Collections.unmodifiableList(parameterValues);
+    }
+
+    public PossibleStep getPossibleStep() {
+        return possibleStep;
+    }
+
+    public List<String> getParameterValues() {
+        return parameterValues;
+    }
+}
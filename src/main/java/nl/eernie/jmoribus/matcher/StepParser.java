@@ -1,6 +1,7 @@
 package nl.eernie.jmoribus.matcher;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -17,6 +18,10 @@ class StepParser {
      * The default character class to match the parameter names.
      */
     private static final String DEFAULT_CHARACTER_CLASS = "[\\p{L}\\p{N}\\p{Pc}]";
+    /**
+     * The types a parameter name can be followed by, like {@code $count:int}.
+     */
+    private static final String TYPE_NAMES = "int|word|date|decimal";
 
     private final String prefix;
     private final String characterClass;
@@ -38,7 +43,29 @@ class StepParser {
         String escapingPunctuation = escapingPunctuation(stepPattern);
         List<Parameter> parameters = findParameters(escapingPunctuation);
         Pattern regexPattern = buildPattern(escapingPunctuation, parameters);
-        return new RegexStepMatcher(regexPattern);
+        List<ParameterType> parameterTypes = new ArrayList<>(parameters.size());
+        for (Parameter parameter : parameters) {
+            parameterTypes.add(parameter.getType());
+        }
+        return new RegexStepMatcher(regexPattern, parameterTypes);
+    }
+
+    /**
+     * @return the words every step text matching the pattern starts with: the text before the first parameter,
+     * split on whitespace. A word directly followed by a parameter is left out, the parameter may extend it.
+     */
+    public List<String> parseLiteralPrefix(String stepPattern) {
+        List<Parameter> parameters = findParameters(stepPattern);
+        String literal = parameters.isEmpty() ? stepPattern : stepPattern.substring(0, parameters.get(0).getStart());
+        if (literal.isEmpty() || Character.isWhitespace(literal.charAt(0)) || literal.indexOf('|') >= 0) {
+            // an alternation is not escaped, it makes the words optional
+            return new ArrayList<>();
+        }
+        List<String> words = new ArrayList<>(Arrays.asList(literal.split("\\s+")));
+        if (!parameters.isEmpty() && !Character.isWhitespace(literal.charAt(literal.length() - 1))) {
+            words.remove(words.size() - 1);
+        }
+        return words;
     }
 
     private Pattern buildPattern(String stepPattern, List<Parameter> parameters) {
@@ -53,13 +80,14 @@ class StepParser {
         while (findingAllParameterNames.find()) {
             parameters.add(new Parameter(findingAllParameterNames
                 .start(), findingAllParameterNames.end(),
-                findingAllParameterNames.group(2)));
+                findingAllParameterNames.group(3),
+                ParameterType.forName(findingAllParameterNames.group(2))));
         }
         return parameters;
     }
 
     private Pattern findingAllParameterNames() {
-        return Pattern.compile("(\\" + prefix + characterClass + "*)(\\W|\\Z)",
+        return Pattern.compile("(\\" + prefix + characterClass + "*)(?::(" + TYPE_NAMES + "))?(\\W|\\Z)",
             Pattern.DOTALL);
     }
 
@@ -73,9 +101,9 @@ class StepParser {
 
     private String parameterCapturingRegex(String stepPattern, List<Parameter> parameters) {
         String regex = stepPattern;
-        String capture = "(.*)";
         for (int i = parameters.size(); i > 0; i--) {
             Parameter parameter = parameters.get(i - 1);
+            String capture = parameter.getType() == null ? "(.*)" : parameter.getType().getRegex();
             String start = regex.substring(0, parameter.getStart());
             String end = regex.substring(parameter.getEnd());
             String whitespaceIfAny = parameter.getWhitespaceIfAny();
@@ -0,0 +1,314 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.annotation.AfterScenario;
+import nl.eernie.jmoribus.annotation.AfterStory;
+import nl.eernie.jmoribus.annotation.BeforeScenario;
+import nl.eernie.jmoribus.annotation.BeforeStory;
+import nl.eernie.jmoribus.annotation.Category;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.OutputVariables;
+import nl.eernie.jmoribus.annotation.RequiredVariables;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.annotation.Timeout;
+import nl.eernie.jmoribus.annotation.When;
+import nl.eernie.jmoribus.model.StepType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * The step methods, parameter converters and hooks declared by one class, as written by {@link StepRegistryProcessor}
+ * when the class was compiled. Every step comes with the regular expression of its pattern, so the patterns do not
+ * have to be parsed at startup. A step class and each of its superclasses have their own registry. A registry
+ * whose entries differ from the annotations of the class, because it was left behind by an earlier compilation,
+ * is not used.
+ * <p>
+ * The registry is a properties file named after the binary name of the class. Lists are written as a count
+ * followed by an entry per index, for example {@code step.0.method} up to {@code step.(steps - 1).method}.
+ */
+final class StepRegistry {
+
+    static final String LOCATION = "META-INF/jmoribus/steps/";
+
+    static final String STEPS = "steps";
+    static final String STEP = "step.";
+    static final String CONVERTERS = "converters";
+    static final String CONVERTER = "converter.";
+    static final String HOOKS = "hooks";
+    static final String HOOK = "hook.";
+
+    static final String TYPE = ".type";
+    static final String METHOD = ".method";
+    static final String PARAMETERS = ".parameters";
+    static final String PATTERN = ".pattern";
+    static final String REGEX = ".regex";
+    static final String PLACEHOLDERS = ".placeholders";
+    static final String CATEGORIES = ".categories";
+    static final String REQUIRED_VARIABLES = ".requiredVariables";
+    static final String OUTPUT_VARIABLES = ".outputVariables";
+    static final String TIMEOUT = ".timeout";
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+
+    static {
+        for (Class<?> primitive : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class}) {
+            PRIMITIVES.put(primitive.getName(), primitive);
+        }
+    }
+
+    private final Properties properties;
+    private final Class<?> stepClass;
+
+    private final List<PossibleStep> possibleSteps = new ArrayList<>();
+    private final List<ParameterConverter> parameterConverters = new ArrayList<>();
+    private final List<BeforeAfterMethod> beforeAfterMethods = new ArrayList<>();
+    private final Map<String, Method> methods = new HashMap<>();
+
+    private StepRegistry(Properties properties, Class<?> stepClass) {
+        this.properties = properties;
+        this.stepClass = stepClass;
+    }
+
+    /**
+     * @param stepClass the class of the step object or one of its superclasses
+     * @return the registry of the methods the class declares, bound to the step object and without the methods
+     * the class of the step object overrides, or null when the class has no registry
+     * @throws ReflectiveOperationException when the registry does not fit the class, it is older than the class
+     */
+    static StepRegistry load(Class<?> stepClass, Object stepObject) throws IOException, ReflectiveOperationException {
+        ClassLoader classLoader = stepClass.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        InputStream inputStream = classLoader.getResourceAsStream(LOCATION + stepClass.getName());
+        if (inputStream == null) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try {
+            properties.load(inputStream);
+        } finally {
+            inputStream.close();
+        }
+        return load(stepClass, stepObject, properties);
+    }
+
+    /**
+     * @throws IllegalStateException when the registry does not list the annotations the class has now
+     */
+    static StepRegistry load(Class<?> stepClass, Object stepObject, Properties properties) throws ReflectiveOperationException {
+        StepRegistry registry = new StepRegistry(properties, stepClass);
+        registry.verify();
+        registry.bind(stepObject);
+        return registry;
+    }
+
+    /**
+     * Compares the entries of the registry with the annotations of the methods the class declares. A registry
+     * can be older than the class, when the class was compiled again without the annotation processor; the
+     * annotations of the class win then.
+     */
+    private void verify() {
+        List<String> registered = new ArrayList<>();
+        for (int i = 0; i < count(STEPS); i++) {
+            String key = STEP + i;
+            registered.add(describeStep(get(key + METHOD), get(key + PARAMETERS), get(key + TYPE), get(key + PATTERN),
+                    list(key + CATEGORIES), list(key + REQUIRED_VARIABLES), list(key + OUTPUT_VARIABLES), get(key + TIMEOUT)));
+        }
+        for (int i = 0; i < count(CONVERTERS); i++) {
+            registered.add(describe(get(CONVERTER + i + METHOD), get(CONVERTER + i + PARAMETERS), "converter"));
+        }
+        for (int i = 0; i < count(HOOKS); i++) {
+            registered.add(describe(get(HOOK + i + METHOD), get(HOOK + i + PARAMETERS), get(HOOK + i + TYPE)));
+        }
+
+        List<String> annotated = new ArrayList<>();
+        for (Method method : stepClass.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers()) && !method.isBridge() && !method.isSynthetic()) {
+                describe(method, annotated);
+            }
+        }
+        Collections.sort(registered);
+        Collections.sort(annotated);
+        if (!registered.equals(annotated)) {
+            throw new IllegalStateException("Step registry of " + stepClass.getName() + " is older than the class");
+        }
+    }
+
+    private static void describe(Method method, List<String> descriptions) {
+        String name = method.getName();
+        String parameters = parameterNames(method);
+        String[] categories = method.isAnnotationPresent(Category.class) ? method.getAnnotation(Category.class).value() : null;
+        String[] requiredVariables = method.isAnnotationPresent(RequiredVariables.class) ? method.getAnnotation(RequiredVariables.class).value() : null;
+        String[] outputVariables = method.isAnnotationPresent(OutputVariables.class) ? method.getAnnotation(OutputVariables.class).value() : null;
+        String timeout = String.valueOf(method.isAnnotationPresent(Timeout.class) ? method.getAnnotation(Timeout.class).value() : 0);
+        Map<StepType, String[]> patterns = new EnumMap<>(StepType.class);
+        patterns.put(StepType.GIVEN, method.isAnnotationPresent(Given.class) ? method.getAnnotation(Given.class).value() : null);
+        patterns.put(StepType.WHEN, method.isAnnotationPresent(When.class) ? method.getAnnotation(When.class).value() : null);
+        patterns.put(StepType.THEN, method.isAnnotationPresent(Then.class) ? method.getAnnotation(Then.class).value() : null);
+        for (Map.Entry<StepType, String[]> entry : patterns.entrySet()) {
+            if (entry.getValue() != null) {
+                for (String pattern : entry.getValue()) {
+                    descriptions.add(describeStep(name, parameters, entry.getKey().name(), pattern, categories, requiredVariables, outputVariables, timeout));
+                }
+            }
+        }
+        if (method.isAnnotationPresent(nl.eernie.jmoribus.annotation.ParameterConverter.class)) {
+            descriptions.add(describe(name, parameters, "converter"));
+        }
+        addHook(method, BeforeStory.class, BeforeAfterType.BEFORE_STORY, descriptions);
+        addHook(method, BeforeScenario.class, BeforeAfterType.BEFORE_SCENARIO, descriptions);
+        addHook(method, AfterScenario.class, BeforeAfterType.AFTER_SCENARIO, descriptions);
+        addHook(method, AfterStory.class, BeforeAfterType.AFTER_STORY, descriptions);
+    }
+
+    private static void addHook(Method method, Class<? extends Annotation> annotation, BeforeAfterType beforeAfterType, List<String> descriptions) {
+        if (method.isAnnotationPresent(annotation)) {
+            descriptions.add(describe(method.getName(), parameterNames(method), beforeAfterType.name()));
+        }
+    }
+
+    private static String describeStep(String method, String parameters, String type, String pattern, String[] categories,
+                                       String[] requiredVariables, String[] outputVariables, String timeout) {
+        return describe(method, parameters, type) + " " + pattern + " " + Arrays.toString(categories) + " "
+                + Arrays.toString(requiredVariables) + " " + Arrays.toString(outputVariables) + " " + timeout;
+    }
+
+    private static String describe(String method, String parameters, String type) {
+        return method + "(" + parameters + ") " + type;
+    }
+
+    /**
+     * @return the parameter types as the processor writes them, the names {@link Class#forName(String)} knows
+     */
+    private static String parameterNames(Method method) {
+        StringBuilder parameters = new StringBuilder();
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (parameters.length() > 0) {
+                parameters.append(',');
+            }
+            parameters.append(parameterType.getName());
+        }
+        return parameters.toString();
+    }
+
+    private void bind(Object stepObject) throws ReflectiveOperationException {
+        for (String key : keysInOrder(STEPS, STEP, stepObject)) {
+            PossibleStep possibleStep = new PossibleStep(get(key + PATTERN), method(key), StepType.valueOf(get(key + TYPE)), stepObject,
+                    list(key + CATEGORIES), list(key + REQUIRED_VARIABLES), list(key + OUTPUT_VARIABLES), Long.parseLong(get(key + TIMEOUT)));
+            possibleStep.setRegexStepMatcher(new RegexStepMatcher(Pattern.compile(get(key + REGEX), Pattern.DOTALL), placeholders(key)));
+            possibleSteps.add(possibleStep);
+        }
+        for (String key : keysInOrder(CONVERTERS, CONVERTER, stepObject)) {
+            Method method = method(key);
+            parameterConverters.add(new ParameterConverter(method, stepObject, method.getReturnType()));
+        }
+        for (String key : keysInOrder(HOOKS, HOOK, stepObject)) {
+            beforeAfterMethods.add(new BeforeAfterMethod(method(key), stepObject, BeforeAfterType.valueOf(get(key + TYPE))));
+        }
+    }
+
+    /**
+     * @return the keys of the list whose method is not overridden by the class of the step object, sorted by the
+     * {@link MethodOrder} of their methods; the registry is written in the order of the source
+     */
+    private List<String> keysInOrder(String countKey, String prefix, Object stepObject) throws ReflectiveOperationException {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count(countKey); i++) {
+            if (!MethodMatcher.isOverridden(method(prefix + i), stepObject.getClass())) {
+                keys.add(prefix + i);
+            }
+        }
+        Collections.sort(keys, new Comparator<String>() {
+            @Override
+            public int compare(String first, String second) {
+                return MethodOrder.INSTANCE.compare(methods.get(first), methods.get(second));
+            }
+        });
+        return keys;
+    }
+
+    List<PossibleStep> getPossibleSteps() {
+        return possibleSteps;
+    }
+
+    List<ParameterConverter> getParameterConverters() {
+        return parameterConverters;
+    }
+
+    List<BeforeAfterMethod> getBeforeAfterMethods() {
+        return beforeAfterMethods;
+    }
+
+    private Method method(String key) throws ReflectiveOperationException {
+        Method method = methods.get(key);
+        if (method == null) {
+            method = findMethod(key);
+            methods.put(key, method);
+        }
+        return method;
+    }
+
+    private Method findMethod(String key) throws ReflectiveOperationException {
+        String[] parameterNames = split(get(key + PARAMETERS));
+        Class<?>[] parameterTypes = new Class<?>[parameterNames.length];
+        for (int i = 0; i < parameterNames.length; i++) {
+            Class<?> primitive = PRIMITIVES.get(parameterNames[i]);
+            parameterTypes[i] = primitive != null ? primitive : Class.forName(parameterNames[i], false, stepClass.getClassLoader());
+        }
+        Method method = stepClass.getDeclaredMethod(get(key + METHOD), parameterTypes);
+        if (!Modifier.isPublic(method.getModifiers())) {
+            throw new NoSuchMethodException(method + " is not public");
+        }
+        return method;
+    }
+
+    private List<ParameterType> placeholders(String key) {
+        String[] names = split(get(key + PLACEHOLDERS));
+        List<ParameterType> placeholders = new ArrayList<>(names.length);
+        for (String name : names) {
+            placeholders.add(name.isEmpty() ? null : ParameterType.valueOf(name));
+        }
+        return placeholders;
+    }
+
+    private String[] list(String key) {
+        if (!properties.containsKey(key)) {
+            return null;
+        }
+        String[] values = new String[Integer.parseInt(get(key))];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(key + "." + i);
+        }
+        return values;
+    }
+
+    private int count(String key) {
+        return Integer.parseInt(properties.getProperty(key, "0"));
+    }
+
+    private String get(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Step registry of " + stepClass.getName() + " has no " + key);
+        }
+        return value;
+    }
+
+    private static String[] split(String value) {
+        return value.isEmpty() ? new String[0] : value.split(",", -1);
+    }
+}
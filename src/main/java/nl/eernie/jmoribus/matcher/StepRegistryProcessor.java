@@ -0,0 +1,234 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.annotation.AfterScenario;
+import nl.eernie.jmoribus.annotation.AfterStory;
+import nl.eernie.jmoribus.annotation.BeforeScenario;
+import nl.eernie.jmoribus.annotation.BeforeStory;
+import nl.eernie.jmoribus.annotation.Category;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.OutputVariables;
+import nl.eernie.jmoribus.annotation.ParameterConverter;
+import nl.eernie.jmoribus.annotation.RequiredVariables;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.annotation.Timeout;
+import nl.eernie.jmoribus.annotation.When;
+import nl.eernie.jmoribus.model.StepType;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Writes a {@link StepRegistry} for every class that declares step methods, parameter converters or hooks, so
+ * {@link MethodMatcher} does not have to look for them at startup. The registry of a class only lists the
+ * methods it declares; inherited methods are in the registry of their own class. The processor is registered as a service:
+ * it runs whenever JMoribus is on the class path of the compiler.
+ */
+@SupportedAnnotationTypes({
+        "nl.eernie.jmoribus.annotation.Given",
+        "nl.eernie.jmoribus.annotation.When",
+        "nl.eernie.jmoribus.annotation.Then",
+        "nl.eernie.jmoribus.annotation.ParameterConverter",
+        "nl.eernie.jmoribus.annotation.BeforeStory",
+        "nl.eernie.jmoribus.annotation.BeforeScenario",
+        "nl.eernie.jmoribus.annotation.AfterScenario",
+        "nl.eernie.jmoribus.annotation.AfterStory"})
+public class StepRegistryProcessor extends AbstractProcessor {
+
+    private final StepParser parser = new StepParser();
+    private final Set<String> written = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        Set<TypeElement> stepClasses = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnvironment.getElementsAnnotatedWith(annotation)) {
+                Element enclosing = element.getEnclosingElement();
+                if (element.getKind() == ElementKind.METHOD && enclosing.getKind() == ElementKind.CLASS) {
+                    stepClasses.add((TypeElement) enclosing);
+                }
+            }
+        }
+        for (TypeElement stepClass : stepClasses) {
+            String binaryName = processingEnv.getElementUtils().getBinaryName(stepClass).toString();
+            if (written.add(binaryName)) {
+                writeRegistry(stepClass, binaryName);
+            }
+        }
+        return false;
+    }
+
+    private void writeRegistry(TypeElement stepClass, String binaryName) {
+        Properties registry = new Properties();
+        int steps = 0;
+        int converters = 0;
+        int hooks = 0;
+        for (ExecutableElement method : publicMethods(stepClass)) {
+            steps = addSteps(registry, steps, method, StepType.GIVEN, method.getAnnotation(Given.class) == null ? null : method.getAnnotation(Given.class).value());
+            steps = addSteps(registry, steps, method, StepType.WHEN, method.getAnnotation(When.class) == null ? null : method.getAnnotation(When.class).value());
+            steps = addSteps(registry, steps, method, StepType.THEN, method.getAnnotation(Then.class) == null ? null : method.getAnnotation(Then.class).value());
+            if (method.getAnnotation(ParameterConverter.class) != null) {
+                putMethod(registry, StepRegistry.CONVERTER + converters++, method);
+            }
+            hooks = addHook(registry, hooks, method, BeforeAfterType.BEFORE_STORY, method.getAnnotation(BeforeStory.class) != null);
+            hooks = addHook(registry, hooks, method, BeforeAfterType.BEFORE_SCENARIO, method.getAnnotation(BeforeScenario.class) != null);
+            hooks = addHook(registry, hooks, method, BeforeAfterType.AFTER_SCENARIO, method.getAnnotation(AfterScenario.class) != null);
+            hooks = addHook(registry, hooks, method, BeforeAfterType.AFTER_STORY, method.getAnnotation(AfterStory.class) != null);
+        }
+        registry.setProperty(StepRegistry.STEPS, String.valueOf(steps));
+        registry.setProperty(StepRegistry.CONVERTERS, String.valueOf(converters));
+        registry.setProperty(StepRegistry.HOOKS, String.valueOf(hooks));
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", StepRegistry.LOCATION + binaryName, stepClass);
+            try (OutputStream outputStream = resource.openOutputStream()) {
+                registry.store(outputStream, "Steps of " + binaryName);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write the step registry: " + e.getMessage(), stepClass);
+        }
+    }
+
+    /**
+     * @return the public methods the class declares, in the order they are declared
+     */
+    private static List<ExecutableElement> publicMethods(TypeElement stepClass) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(stepClass.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PUBLIC)) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    private int addSteps(Properties registry, int steps, ExecutableElement method, StepType stepType, String[] patterns) {
+        if (patterns == null) {
+            return steps;
+        }
+        int index = steps;
+        for (String pattern : patterns) {
+            String key = StepRegistry.STEP + index;
+            RegexStepMatcher regexStepMatcher;
+            try {
+                regexStepMatcher = parser.parseStep(pattern);
+            } catch (PatternSyntaxException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Invalid step pattern " + pattern + ": " + e.getDescription(), method);
+                continue;
+            }
+            putMethod(registry, key, method);
+            registry.setProperty(key + StepRegistry.TYPE, stepType.name());
+            registry.setProperty(key + StepRegistry.PATTERN, pattern);
+            registry.setProperty(key + StepRegistry.REGEX, regexStepMatcher.getPattern().pattern());
+            registry.setProperty(key + StepRegistry.PLACEHOLDERS, placeholders(regexStepMatcher.getParameterTypes()));
+            putList(registry, key + StepRegistry.CATEGORIES, method.getAnnotation(Category.class) == null ? null : method.getAnnotation(Category.class).value());
+            putList(registry, key + StepRegistry.REQUIRED_VARIABLES, method.getAnnotation(RequiredVariables.class) == null ? null : method.getAnnotation(RequiredVariables.class).value());
+            putList(registry, key + StepRegistry.OUTPUT_VARIABLES, method.getAnnotation(OutputVariables.class) == null ? null : method.getAnnotation(OutputVariables.class).value());
+            registry.setProperty(key + StepRegistry.TIMEOUT, String.valueOf(method.getAnnotation(Timeout.class) == null ? 0 : method.getAnnotation(Timeout.class).value()));
+            index++;
+        }
+        return index;
+    }
+
+    private int addHook(Properties registry, int hooks, ExecutableElement method, BeforeAfterType beforeAfterType, boolean present) {
+        if (!present) {
+            return hooks;
+        }
+        String key = StepRegistry.HOOK + hooks;
+        putMethod(registry, key, method);
+        registry.setProperty(key + StepRegistry.TYPE, beforeAfterType.name());
+        return hooks + 1;
+    }
+
+    private void putMethod(Properties registry, String key, ExecutableElement method) {
+        StringBuilder parameters = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            if (parameters.length() > 0) {
+                parameters.append(',');
+            }
+            parameters.append(className(processingEnv.getTypeUtils().erasure(parameter.asType())));
+        }
+        registry.setProperty(key + StepRegistry.METHOD, method.getSimpleName().toString());
+        registry.setProperty(key + StepRegistry.PARAMETERS, parameters.toString());
+    }
+
+    private static void putList(Properties registry, String key, String[] values) {
+        if (values == null) {
+            return;
+        }
+        registry.setProperty(key, String.valueOf(values.length));
+        for (int i = 0; i < values.length; i++) {
+            registry.setProperty(key + "." + i, values[i]);
+        }
+    }
+
+    private static String placeholders(List<ParameterType> parameterTypes) {
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            if (i > 0) {
+                placeholders.append(',');
+            }
+            if (parameterTypes.get(i) != null) {
+                placeholders.append(parameterTypes.get(i).name());
+            }
+        }
+        return placeholders.toString();
+    }
+
+    /**
+     * @return the name {@link Class#forName(String)} knows the type by, or the name of a primitive type
+     */
+    private String className(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase(Locale.ENGLISH);
+        } else if (type.getKind() == TypeKind.ARRAY) {
+            return "[" + descriptor(((ArrayType) type).getComponentType());
+        }
+        return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+    }
+
+    private String descriptor(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Z";
+            case LONG:
+                return "J";
+            case ARRAY:
+                return className(type);
+            default:
+                if (type.getKind().isPrimitive()) {
+                    return type.getKind().name().substring(0, 1);
+                }
+                return "L" + className(type) + ";";
+        }
+    }
+}
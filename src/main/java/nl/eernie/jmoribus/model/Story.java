@@ -10,6 +10,7 @@ public class Story {
     private Prologue prologue;
     private List<Scenario> scenarios = new ArrayList<>();
     private String uniqueIdentifier;
+    private String sourceDigest;
 
 
     public String getTitle() {
@@ -47,4 +48,15 @@ public class Story {
     public void setUniqueIdentifier(String uniqueIdentifier) {
         this.uniqueIdentifier = uniqueIdentifier;
     }
+
+    /**
+     * @return the SHA-256 of the bytes the story was parsed from in hexadecimal, or null when the story was not parsed
+     */
+    public String getSourceDigest() {
+        return sourceDigest;
+    }
+
+    public void setSourceDigest(String sourceDigest) {
+        this.sourceDigest = sourceDigest;
+    }
 }
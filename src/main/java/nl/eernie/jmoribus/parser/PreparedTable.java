@@ -0,0 +1,38 @@
+package nl.eernie.jmoribus.parser;
+
+import nl.eernie.jmoribus.model.Table;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A table with the {@link TableBinder} of its parameter type already resolved, so parsing it only binds the
+ * rows. Created by {@link ReflectionParser#prepare}.
+ */
+public final class PreparedTable {
+
+    private final Table table;
+    private final TableBinder binder;
+    private final boolean list;
+
+    PreparedTable(Table table, TableBinder binder, boolean list) {
+        this.table = table;
+        this.binder = binder;
+        this.list = list;
+    }
+
+    /**
+     * @return a list with an object for every row, or the object of the first row
+     */
+    public Object parse() throws InvocationTargetException, IllegalAccessException {
+        if (!list) {
+            return binder.bind(table.getRows().get(0));
+        }
+        List<Object> objects = new ArrayList<>(table.getRows().size());
+        for (List<String> row : table.getRows()) {
+            objects.add(binder.bind(row));
+        }
+        return objects;
+    }
+}
@@ -1,14 +1,11 @@
 package nl.eernie.jmoribus.parser;
 
 import nl.eernie.jmoribus.matcher.MethodMatcher;
-import nl.eernie.jmoribus.matcher.ParameterConverter;
 import nl.eernie.jmoribus.model.Table;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.List;
 
 public final class ReflectionParser {
@@ -17,50 +14,43 @@ public final class ReflectionParser {
     }
 
     public static Object parse(Table table, Type type, MethodMatcher methodMatcher) {
+        PreparedTable preparedTable = prepare(table, type, methodMatcher);
+        if (preparedTable == null) {
+            return null;
+        }
+        try {
+            return preparedTable.parse();
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Resolves how the rows of the table become objects of the type, a class or a list of a class, without
+     * creating them yet.
+     *
+     * @return the prepared table, or null when the table cannot be parsed to the type
+     */
+    public static PreparedTable prepare(Table table, Type type, MethodMatcher methodMatcher) {
 
         try {
             if (type instanceof ParameterizedType) {
                 Type rawClass = rawClass(type);
                 if (List.class.isAssignableFrom((Class<?>) rawClass)) {
                     Class<?> argumentType = (Class<?>) argumentType(type);
-                    List<Object> list = new ArrayList<>();
-                    for (List<String> row : table.getRows()) {
-                        list.add(parse(table.getHeader(), row, argumentType, methodMatcher));
-                    }
-                    return list;
+                    return new PreparedTable(table, TableBinder.forTable(argumentType, table.getHeader(), methodMatcher), true);
                 }
             } else if (type instanceof Class<?>) {
-                return parse(table.getHeader(), table.getRows().get(0), (Class<?>) type, methodMatcher);
+                return new PreparedTable(table, TableBinder.forTable((Class<?>) type, table.getHeader(), methodMatcher), false);
             }
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+        } catch (InstantiationException | IllegalAccessException e) {
             e.printStackTrace();
             return null;
         }
         return null;
     }
 
-    private static Object parse(List<String> header, List<String> row, Class<?> argumentType, MethodMatcher methodMatcher) throws IllegalAccessException, InstantiationException, InvocationTargetException {
-        Object object = argumentType.newInstance();
-        for (int i = 0; i < header.size(); i++) {
-            for (Method method : argumentType.getMethods()) {
-                String cleaned = header.get(i).replace("_", "");
-                if (method.getName().equalsIgnoreCase("set" + header.get(i)) || method.getName().equalsIgnoreCase(cleaned)) {
-                    Class<?> parameter = method.getParameterTypes()[0];
-                    if (parameter.equals(String.class)) {
-                        method.invoke(object, row.get(i));
-                        break;
-                    } else {
-                        ParameterConverter parameterConverter = methodMatcher.findConverterFor(parameter);
-                        Object value = parameterConverter.convert(row.get(i));
-                        method.invoke(object, value);
-                        break;
-                    }
-                }
-            }
-        }
-        return object;
-    }
-
     private static Type rawClass(Type type) {
         return ((ParameterizedType) type).getRawType();
     }
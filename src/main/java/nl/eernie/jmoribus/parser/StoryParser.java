@@ -11,6 +11,10 @@ import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CommonTokenStream;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -24,13 +28,21 @@ public final class StoryParser {
     }
 
     public static List<Story> parseStories(List<ParseableStory> parseableStories) {
+        return parseStories(parseableStories, true);
+    }
+
+    /**
+     * @param failOnUnknownScenario when false a referral to an unknown scenario stays in the story as an empty
+     *                              scenario without a story, so a dry run can report all of them at once
+     */
+    public static List<Story> parseStories(List<ParseableStory> parseableStories, boolean failOnUnknownScenario) {
         Map<String, Scenario> knownScenarios = new HashMap<>();
         List<Story> stories = new ArrayList<>();
         Set<ReferringScenario> referringScenarios = new HashSet<>();
         for (ParseableStory parseableStory : parseableStories) {
             stories.add(parseStory(parseableStory, knownScenarios, referringScenarios));
         }
-        replaceReferringScenarios(referringScenarios, knownScenarios);
+        replaceReferringScenarios(referringScenarios, knownScenarios, failOnUnknownScenario);
         return stories;
     }
 
@@ -38,15 +50,19 @@ public final class StoryParser {
         Map<String, Scenario> knownScenarios = new HashMap<>();
         Set<ReferringScenario> referringScenarios = new HashSet<>();
         Story story = parseStory(parseableStory, knownScenarios, referringScenarios);
-        replaceReferringScenarios(referringScenarios, knownScenarios);
+        replaceReferringScenarios(referringScenarios, knownScenarios, true);
         return story;
     }
 
     private static Story parseStory(ParseableStory parseableStory, Map<String, Scenario> knownScenarios, Set<ReferringScenario> referringScenarios) {
 
         GherkinsLexer lexer;
+        DigestInputStream source;
         try {
-            lexer = new GherkinsLexer(new ANTLRInputStream(parseableStory.getStream()));
+            source = new DigestInputStream(parseableStory.getStream(), MessageDigest.getInstance("SHA-256"));
+            lexer = new GherkinsLexer(new ANTLRInputStream(source));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         } catch (IOException e) {
             throw new UnableToParseStoryException("Story " + parseableStory.getUniqueIdentifier() + " is not parsable", e);
         }
@@ -61,18 +77,19 @@ public final class StoryParser {
 
         Story story = listener.getStory();
         story.setUniqueIdentifier(parseableStory.getUniqueIdentifier());
+        story.setSourceDigest(String.format("%064x", new BigInteger(1, source.getMessageDigest().digest())));
 
         return story;
     }
 
-    private static void replaceReferringScenarios(Set<ReferringScenario> referringScenarios, Map<String, Scenario> knownScenarios) {
+    private static void replaceReferringScenarios(Set<ReferringScenario> referringScenarios, Map<String, Scenario> knownScenarios, boolean failOnUnknownScenario) {
         for (ReferringScenario referringScenario : referringScenarios) {
             if (knownScenarios.containsKey(referringScenario.getTitle())) {
                 Scenario scenario = knownScenarios.get(referringScenario.getTitle());
                 StepContainer stepContainer = referringScenario.getStepContainer();
                 List<Step> steps = stepContainer.getSteps();
                 steps.set(steps.indexOf(referringScenario), scenario);
-            } else {
+            } else if (failOnUnknownScenario) {
                 throw new IllegalArgumentException("Unknown scenario with title " + referringScenario.getTitle());
             }
         }
@@ -0,0 +1,269 @@
+package nl.eernie.jmoribus.parser;
+
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+import nl.eernie.jmoribus.matcher.ParameterConverter;
+
+import java.beans.ConstructorProperties;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates the objects of one class from the rows of tables with one header. Which setter or constructor
+ * parameter every column goes to, and its converter, is decided once; binding a row then only converts the cells
+ * and calls method handles.
+ * <p>
+ * A class with a public constructor without parameters is filled through its setters. A record, or a class
+ * with a {@link ConstructorProperties} constructor, is created through that constructor, with the default value
+ * for a parameter without a column.
+ */
+final class TableBinder {
+
+    private static final Map<MethodMatcher, ConcurrentMap<Key, TableBinder>> BINDERS = new WeakHashMap<>();
+
+    private final MethodHandle constructor;
+    private final int[] columns;
+    private final MethodHandle[] setters;
+    private final ParameterConverter[] converters;
+    private final Object[] defaults;
+
+    private TableBinder(MethodHandle constructor, int[] columns, MethodHandle[] setters, ParameterConverter[] converters, Object[] defaults) {
+        this.constructor = constructor;
+        this.columns = columns;
+        this.setters = setters;
+        this.converters = converters;
+        this.defaults = defaults;
+    }
+
+    /**
+     * @return the binder of the class and header for the converters of the method matcher, created on first use
+     */
+    static TableBinder forTable(Class<?> type, List<String> header, MethodMatcher methodMatcher) throws IllegalAccessException, InstantiationException {
+        ConcurrentMap<Key, TableBinder> binders;
+        synchronized (BINDERS) {
+            binders = BINDERS.get(methodMatcher);
+            if (binders == null) {
+                binders = new ConcurrentHashMap<>();
+                BINDERS.put(methodMatcher, binders);
+            }
+        }
+        Key key = new Key(type, header);
+        TableBinder binder = binders.get(key);
+        if (binder == null) {
+            binder = create(type, header, methodMatcher);
+            binders.putIfAbsent(key, binder);
+        }
+        return binder;
+    }
+
+    Object bind(List<String> row) throws InvocationTargetException, IllegalAccessException {
+        if (setters == null) {
+            Object[] arguments = defaults.clone();
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] >= 0) {
+                    arguments[i] = convert(i, row.get(columns[i]));
+                }
+            }
+            try {
+                return (Object) constructor.invokeExact(arguments);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+        Object object;
+        try {
+            object = (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            Object value = convert(i, row.get(columns[i]));
+            try {
+                setters[i].invokeExact(object, value);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+        return object;
+    }
+
+    private Object convert(int index, String value) throws InvocationTargetException, IllegalAccessException {
+        return converters[index] == null ? value : converters[index].convert(value);
+    }
+
+    private static TableBinder create(Class<?> type, List<String> header, MethodMatcher methodMatcher) throws IllegalAccessException, InstantiationException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        String[] recordComponents = RecordSupport.componentNames(type);
+        if (recordComponents != null) {
+            return forConstructor(lookup, RecordSupport.canonicalConstructor(type), recordComponents, header, methodMatcher);
+        }
+        try {
+            Constructor<?> noArguments = type.getConstructor();
+            return forSetters(lookup, lookup.unreflectConstructor(noArguments).asType(MethodType.methodType(Object.class)), type, header, methodMatcher);
+        } catch (NoSuchMethodException e) {
+            for (Constructor<?> constructor : type.getConstructors()) {
+                ConstructorProperties properties = constructor.getAnnotation(ConstructorProperties.class);
+                if (properties != null) {
+                    return forConstructor(lookup, constructor, properties.value(), header, methodMatcher);
+                }
+            }
+            throw new InstantiationException(type.getName() + " has no public constructor without parameters, is no record and has no @ConstructorProperties constructor");
+        }
+    }
+
+    private static TableBinder forSetters(MethodHandles.Lookup lookup, MethodHandle constructor, Class<?> type, List<String> header, MethodMatcher methodMatcher) throws IllegalAccessException {
+        int bound = 0;
+        int[] columns = new int[header.size()];
+        MethodHandle[] setters = new MethodHandle[header.size()];
+        ParameterConverter[] converters = new ParameterConverter[header.size()];
+        for (int column = 0; column < header.size(); column++) {
+            Method setter = findSetter(type, header.get(column));
+            if (setter != null) {
+                columns[bound] = column;
+                setters[bound] = lookup.unreflect(setter).asType(MethodType.methodType(void.class, Object.class, Object.class));
+                converters[bound] = converterFor(setter.getParameterTypes()[0], methodMatcher);
+                bound++;
+            }
+        }
+        return new TableBinder(constructor, Arrays.copyOf(columns, bound), Arrays.copyOf(setters, bound),
+                Arrays.copyOf(converters, bound), null);
+    }
+
+    private static TableBinder forConstructor(MethodHandles.Lookup lookup, Constructor<?> constructor, String[] names, List<String> header, MethodMatcher methodMatcher) throws IllegalAccessException {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        int[] columns = new int[parameterTypes.length];
+        ParameterConverter[] converters = new ParameterConverter[parameterTypes.length];
+        Object[] defaults = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            columns[i] = findColumn(header, names[i]);
+            if (columns[i] >= 0) {
+                converters[i] = converterFor(parameterTypes[i], methodMatcher);
+            }
+            if (parameterTypes[i].isPrimitive()) {
+                defaults[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+            }
+        }
+        MethodHandle handle = lookup.unreflectConstructor(constructor)
+                .asSpreader(Object[].class, parameterTypes.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return new TableBinder(handle, columns, null, converters, defaults);
+    }
+
+    /**
+     * @return the first public method with one parameter named after the column, as set plus the column name or
+     * as the column name without underscores
+     */
+    private static Method findSetter(Class<?> type, String column) {
+        String cleaned = column.replace("_", "");
+        for (Method method : type.getMethods()) {
+            if ((method.getName().equalsIgnoreCase("set" + column) || method.getName().equalsIgnoreCase(cleaned))
+                    && method.getParameterTypes().length == 1 && !Modifier.isStatic(method.getModifiers())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static int findColumn(List<String> header, String name) {
+        for (int column = 0; column < header.size(); column++) {
+            if (name.equalsIgnoreCase(header.get(column)) || name.equalsIgnoreCase(header.get(column).replace("_", ""))) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    private static ParameterConverter converterFor(Class<?> type, MethodMatcher methodMatcher) {
+        return type.equals(String.class) ? null : methodMatcher.findConverterFor(type);
+    }
+
+    private static final class Key {
+
+        private final Class<?> type;
+        private final List<String> header;
+
+        private Key(Class<?> type, List<String> header) {
+            this.type = type;
+            this.header = new ArrayList<>(header);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return type.equals(key.type) && header.equals(key.header);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + header.hashCode();
+        }
+    }
+
+    /**
+     * Records are looked up reflectively, the sources are compiled for Java 7.
+     */
+    private static final class RecordSupport {
+
+        private RecordSupport() {
+        }
+
+        /**
+         * @return the names of the record components in order, or null when the class is no record
+         */
+        static String[] componentNames(Class<?> type) {
+            Object[] components = components(type);
+            if (components == null) {
+                return null;
+            }
+            String[] names = new String[components.length];
+            try {
+                for (int i = 0; i < components.length; i++) {
+                    names[i] = (String) components[i].getClass().getMethod("getName").invoke(components[i]);
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to read the components of record " + type.getName(), e);
+            }
+            return names;
+        }
+
+        static Constructor<?> canonicalConstructor(Class<?> type) throws InstantiationException {
+            Object[] components = components(type);
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            try {
+                for (int i = 0; i < components.length; i++) {
+                    parameterTypes[i] = (Class<?>) components[i].getClass().getMethod("getType").invoke(components[i]);
+                }
+                return type.getConstructor(parameterTypes);
+            } catch (ReflectiveOperationException e) {
+                InstantiationException exception = new InstantiationException("Record " + type.getName() + " has no public canonical constructor");
+                exception.initCause(e);
+                throw exception;
+            }
+        }
+
+        private static Object[] components(Class<?> type) {
+            try {
+                return (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+            } catch (NoSuchMethodException e) {
+                return null;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to read the components of record " + type.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package nl.eernie.jmoribus.reporter;
+
+import nl.eernie.jmoribus.model.Scenario;
+
+/**
+ * Optional callback of a {@link Reporter}, called instead of running a scenario that passed before and whose
+ * inputs did not change since. A reporter that implements this interface as well receives it; it is not part of
+ * {@link Reporter}, so existing reporters keep compiling.
+ */
+public interface CachedScenarioReporter {
+
+    void cachedScenario(Scenario scenario);
+}
@@ -11,7 +11,7 @@ import org.slf4j.MDC;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ConcurrentReporter implements Reporter {
+public class ConcurrentReporter implements Reporter, SkippedStepReporter, CachedScenarioReporter, RetryReporter {
 
     private static final String STORY = "story";
     private static final String SCENARIO = "scenario";
@@ -23,6 +23,10 @@ public class ConcurrentReporter implements Reporter {
         reporters.add(reporter);
     }
 
+    public void removeReporter(Reporter reporter) {
+        reporters.remove(reporter);
+    }
+
     @Override
     public void beforeStory(Story story) {
         MDC.put(STORY, story.getUniqueIdentifier());
@@ -62,6 +66,15 @@ public class ConcurrentReporter implements Reporter {
         }
     }
 
+    @Override
+    public void skippedStep(Step step) {
+        for (Reporter reporter : reporters) {
+            if (reporter instanceof SkippedStepReporter) {
+                ((SkippedStepReporter) reporter).skippedStep(step);
+            }
+        }
+    }
+
     @Override
     public void afterScenario(Scenario scenario) {
         for (Reporter reporter : reporters) {
@@ -71,6 +84,33 @@ public class ConcurrentReporter implements Reporter {
         MDC.remove(SCENARIO);
     }
 
+    @Override
+    public void cachedScenario(Scenario scenario) {
+        for (Reporter reporter : reporters) {
+            if (reporter instanceof CachedScenarioReporter) {
+                ((CachedScenarioReporter) reporter).cachedScenario(scenario);
+            }
+        }
+    }
+
+    @Override
+    public void retryScenario(Scenario scenario, int attempt) {
+        for (Reporter reporter : reporters) {
+            if (reporter instanceof RetryReporter) {
+                ((RetryReporter) reporter).retryScenario(scenario, attempt);
+            }
+        }
+    }
+
+    @Override
+    public void flakyScenario(Scenario scenario, int attempts) {
+        for (Reporter reporter : reporters) {
+            if (reporter instanceof RetryReporter) {
+                ((RetryReporter) reporter).flakyScenario(scenario, attempts);
+            }
+        }
+    }
+
     @Override
     public void afterStory(Story story) {
         for (Reporter reporter : reporters) {
@@ -9,7 +9,7 @@ import nl.eernie.jmoribus.model.Story;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class DefaultReporter implements Reporter {
+public class DefaultReporter implements Reporter, SkippedStepReporter, CachedScenarioReporter, RetryReporter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultReporter.class);
 
@@ -38,11 +38,31 @@ public class DefaultReporter implements Reporter {
         LOGGER.info("Pending Step: {}", step.getCombinedStepLines());
     }
 
+    @Override
+    public void skippedStep(Step step) {
+        LOGGER.info("Skipped Step: {}", step.getCombinedStepLines());
+    }
+
     @Override
     public void afterScenario(Scenario scenario) {
         LOGGER.info("After Scenario: {}", scenario.getTitle());
     }
 
+    @Override
+    public void cachedScenario(Scenario scenario) {
+        LOGGER.info("Cached pass: {}", scenario.getTitle());
+    }
+
+    @Override
+    public void retryScenario(Scenario scenario, int attempt) {
+        LOGGER.info("Retrying Scenario: {} failed attempt {}", scenario.getTitle(), attempt);
+    }
+
+    @Override
+    public void flakyScenario(Scenario scenario, int attempts) {
+        LOGGER.info("Flaky Scenario: {} passed after {} attempts", scenario.getTitle(), attempts);
+    }
+
     @Override
     public void afterStory(Story story) {
         LOGGER.info("After Story: {}", story.getTitle());
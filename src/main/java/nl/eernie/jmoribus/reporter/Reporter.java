@@ -7,6 +7,10 @@ import nl.eernie.jmoribus.model.Step;
 import nl.eernie.jmoribus.model.StepContainer;
 import nl.eernie.jmoribus.model.Story;
 
+/**
+ * Receives the progress of a run. A reporter that implements {@link SkippedStepReporter},
+ * {@link CachedScenarioReporter} or {@link RetryReporter} as well also receives their callbacks.
+ */
 public interface Reporter {
 
     void beforeStory(Story story);
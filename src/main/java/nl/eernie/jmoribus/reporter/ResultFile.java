@@ -0,0 +1,162 @@
+package nl.eernie.jmoribus.reporter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes scenario results as UTF-8 text with one scenario per line: the status, the duration in
+ * milliseconds, the story identifier and the scenario title, separated by tabs. Tabs, line breaks and
+ * backslashes in the identifier and title are escaped with a backslash.
+ * <p>
+ * Every shard of a run writes its own file, {@link #merge(List)} combines them into the result of the run.
+ */
+public final class ResultFile {
+
+    private static final Comparator<ScenarioResult> BY_STORY_AND_SCENARIO = new Comparator<ScenarioResult>() {
+        @Override
+        public int compare(ScenarioResult first, ScenarioResult second) {
+            int compared = first.getStoryIdentifier().compareTo(second.getStoryIdentifier());
+            return compared != 0 ? compared : first.getScenarioTitle().compareTo(second.getScenarioTitle());
+        }
+    };
+
+    private ResultFile() {
+    }
+
+    public static void append(File file, ScenarioResult result) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writeLine(writer, result);
+        }
+    }
+
+    public static void write(File file, Collection<ScenarioResult> results) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (ScenarioResult result : results) {
+                writeLine(writer, result);
+            }
+        }
+    }
+
+    /**
+     * @return the results in the file, an empty list when the file does not exist
+     */
+    public static List<ScenarioResult> read(File file) throws IOException {
+        List<ScenarioResult> results = new ArrayList<>();
+        if (!file.exists()) {
+            return results;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 4) {
+                    throw new IOException("Malformed result in " + file + ": " + line);
+                }
+                ScenarioResult.Status status = ScenarioResult.Status.valueOf(fields[0]);
+                results.add(new ScenarioResult(unescape(fields[2]), unescape(fields[3]), status, Long.parseLong(fields[1])));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Combines the results of several files, sorted by story and scenario. When a scenario occurs more than
+     * once, the result read last wins, so the file of a rerun goes after the file of the original run.
+     */
+    public static List<ScenarioResult> merge(List<File> files) throws IOException {
+        List<ScenarioResult> results = new ArrayList<>();
+        for (File file : files) {
+            results.addAll(read(file));
+        }
+        return merge(results);
+    }
+
+    /**
+     * @see #merge(List)
+     */
+    public static List<ScenarioResult> merge(Collection<ScenarioResult> unmerged) {
+        Map<String, ScenarioResult> merged = new LinkedHashMap<>();
+        for (ScenarioResult result : unmerged) {
+            merged.put(result.getStoryIdentifier() + '\n' + result.getScenarioTitle(), result);
+        }
+        List<ScenarioResult> results = new ArrayList<>(merged.values());
+        Collections.sort(results, BY_STORY_AND_SCENARIO);
+        return results;
+    }
+
+    private static void writeLine(BufferedWriter writer, ScenarioResult result) throws IOException {
+        writer.write(result.getStatus().name());
+        writer.write('\t');
+        writer.write(Long.toString(result.getDurationMillis()));
+        writer.write('\t');
+        writer.write(escape(result.getStoryIdentifier()));
+        writer.write('\t');
+        writer.write(escape(result.getScenarioTitle()));
+        writer.write('\n');
+    }
+
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String unescape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                switch (escaped) {
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    default:
+                        builder.append(escaped);
+                }
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,177 @@
+package nl.eernie.jmoribus.reporter;
+
+import nl.eernie.jmoribus.model.Feature;
+import nl.eernie.jmoribus.model.Prologue;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.Story;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends the result of every scenario to a {@link ResultFile} as soon as the scenario is done, so a run
+ * that is killed still leaves the results up to that moment. The file is emptied when the reporter is
+ * created. Scenarios may run in parallel, the result of a scenario is collected on the thread running it.
+ * <p>
+ * A scenario fails when one of its steps, including the steps of its prologue and referred scenarios when
+ * they run within the scenario, fails or errors; it is pending when one of them is pending. Steps are only
+ * skipped after a failure, so a scenario with a skipped step fails as well, also when the failed step was
+ * part of a prologue that ran before the scenario.
+ * <p>
+ * Only the last attempt of a retried scenario is written; it is flaky when it passed after a failed attempt.
+ */
+public class ResultFileReporter implements Reporter, SkippedStepReporter, CachedScenarioReporter, RetryReporter {
+
+    private final File file;
+    private final ThreadLocal<RunningScenario> runningScenario = new ThreadLocal<>();
+
+    public ResultFileReporter(File file) {
+        this.file = file;
+        try {
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                Files.createDirectories(directory.toPath());
+            }
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to prepare result file " + file, e);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void beforeScenario(Scenario scenario) {
+        runningScenario.set(new RunningScenario(scenario, System.nanoTime()));
+    }
+
+    @Override
+    public void successStep(Step step) {
+    }
+
+    @Override
+    public void pendingStep(Step step) {
+        RunningScenario scenario = runningScenario.get();
+        if (scenario != null && scenario.status == ScenarioResult.Status.PASSED) {
+            scenario.status = ScenarioResult.Status.PENDING;
+        }
+    }
+
+    @Override
+    public void failedStep(Step step, AssertionError e) {
+        fail();
+    }
+
+    @Override
+    public void errorStep(Step step, Throwable e) {
+        fail();
+    }
+
+    @Override
+    public void errorStep(Step step, String cause) {
+        fail();
+    }
+
+    @Override
+    public void skippedStep(Step step) {
+        fail();
+    }
+
+    private void fail() {
+        RunningScenario scenario = runningScenario.get();
+        if (scenario != null) {
+            scenario.status = ScenarioResult.Status.FAILED;
+        }
+    }
+
+    @Override
+    public void retryScenario(Scenario scenario, int attempt) {
+        RunningScenario running = runningScenario.get();
+        if (running != null) {
+            running.retried = true;
+        }
+    }
+
+    @Override
+    public void flakyScenario(Scenario scenario, int attempts) {
+        RunningScenario running = runningScenario.get();
+        if (running != null && running.status == ScenarioResult.Status.PASSED) {
+            running.status = ScenarioResult.Status.FLAKY;
+        }
+    }
+
+    @Override
+    public void afterScenario(Scenario scenario) {
+        RunningScenario running = runningScenario.get();
+        runningScenario.remove();
+        if (running == null || running.scenario != scenario || running.retried) {
+            return;
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - running.start);
+        append(new ScenarioResult(scenario.getStory().getUniqueIdentifier(), scenario.getTitle(), running.status, durationMillis));
+    }
+
+    @Override
+    public void cachedScenario(Scenario scenario) {
+        append(new ScenarioResult(scenario.getStory().getUniqueIdentifier(), scenario.getTitle(), ScenarioResult.Status.PASSED, 0));
+    }
+
+    private synchronized void append(ScenarioResult result) {
+        try {
+            ResultFile.append(file, result);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write result file " + file, e);
+        }
+    }
+
+    @Override
+    public void beforeStory(Story story) {
+    }
+
+    @Override
+    public void beforeStep(Step step) {
+    }
+
+    @Override
+    public void afterStory(Story story) {
+    }
+
+    @Override
+    public void feature(Feature feature) {
+    }
+
+    @Override
+    public void beforePrologue(Prologue prologue) {
+    }
+
+    @Override
+    public void afterPrologue(Prologue prologue) {
+    }
+
+    @Override
+    public void beforeReferringScenario(StepContainer stepContainer, Scenario scenario) {
+    }
+
+    @Override
+    public void afterReferringScenario(StepContainer stepContainer, Scenario scenario) {
+    }
+
+    private static final class RunningScenario {
+
+        private final Scenario scenario;
+        private final long start;
+        private ScenarioResult.Status status = ScenarioResult.Status.PASSED;
+        private boolean retried;
+
+        private RunningScenario(Scenario scenario, long start) {
+            this.scenario = scenario;
+            this.start = start;
+        }
+    }
+}
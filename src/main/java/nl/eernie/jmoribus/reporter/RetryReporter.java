@@ -0,0 +1,28 @@
+package nl.eernie.jmoribus.reporter;
+
+import nl.eernie.jmoribus.model.Scenario;
+
+/**
+ * Optional callbacks of a {@link Reporter} for scenarios that are run again after a failed attempt. A reporter
+ * that implements this interface as well receives them; they are not part of {@link Reporter}, so existing
+ * reporters keep compiling.
+ */
+public interface RetryReporter {
+
+    /**
+     * Reported before {@link Reporter#afterScenario(Scenario)} when the attempt failed and the scenario is run
+     * again from its prologue. The callbacks of the next attempt follow, starting with
+     * {@link Reporter#beforeScenario(Scenario)}.
+     *
+     * @param attempt the number of the attempt that failed, starting at 1
+     */
+    void retryScenario(Scenario scenario, int attempt);
+
+    /**
+     * Reported before {@link Reporter#afterScenario(Scenario)} when the scenario passed after earlier attempts
+     * failed, instead of it counting as a plain pass.
+     *
+     * @param attempts the number of attempts it took, including the passing one
+     */
+    void flakyScenario(Scenario scenario, int attempts);
+}
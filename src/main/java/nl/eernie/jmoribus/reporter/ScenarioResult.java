@@ -0,0 +1,39 @@
+package nl.eernie.jmoribus.reporter;
+
+/**
+ * The outcome of one run of a scenario, as kept in a {@link ResultFile}.
+ */
+public final class ScenarioResult {
+
+    public enum Status {
+        PASSED, FLAKY, PENDING, FAILED
+    }
+
+    private final String storyIdentifier;
+    private final String scenarioTitle;
+    private final Status status;
+    private final long durationMillis;
+
+    public ScenarioResult(String storyIdentifier, String scenarioTitle, Status status, long durationMillis) {
+        this.storyIdentifier = storyIdentifier;
+        this.scenarioTitle = scenarioTitle;
+        this.status = status;
+        this.durationMillis = durationMillis;
+    }
+
+    public String getStoryIdentifier() {
+        return storyIdentifier;
+    }
+
+    public String getScenarioTitle() {
+        return scenarioTitle;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+}
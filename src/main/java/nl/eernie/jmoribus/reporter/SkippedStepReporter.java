@@ -0,0 +1,13 @@
+package nl.eernie.jmoribus.reporter;
+
+import nl.eernie.jmoribus.model.Step;
+
+/**
+ * Optional callback of a {@link Reporter}, called for every step that is not run because an earlier step of its
+ * scenario failed or timed out. A reporter that implements this interface as well receives it; it is not part of
+ * {@link Reporter}, so existing reporters keep compiling.
+ */
+public interface SkippedStepReporter {
+
+    void skippedStep(Step step);
+}
@@ -0,0 +1,119 @@
+package nl.eernie.jmoribus.runner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caps how many scenarios using a step category run at the same time. A scenario is admitted with all of its
+ * limited categories at once or not at all, so scenarios waiting for different categories never block each
+ * other. The categories of a scenario are those of its planned steps, including referred scenarios and the
+ * prologue that runs with it.
+ */
+final class CategoryLimits {
+
+    private final Map<String, Integer> limits;
+    private final Map<String, Integer> running = new HashMap<>();
+    private final Map<PlannedContainer, Set<String>> categories = new IdentityHashMap<>();
+
+    CategoryLimits(Map<String, Integer> limits) {
+        this.limits = new HashMap<>(limits);
+    }
+
+    /**
+     * @return the limited categories used by the containers, the empty set when none of them is limited
+     */
+    synchronized Set<String> categoriesOf(PlannedContainer... containers) {
+        Set<String> used = new HashSet<>();
+        for (PlannedContainer container : containers) {
+            if (container != null) {
+                used.addAll(categoriesOf(container, Collections.newSetFromMap(new IdentityHashMap<PlannedContainer, Boolean>())));
+            }
+        }
+        return used;
+    }
+
+    private Set<String> categoriesOf(PlannedContainer container, Set<PlannedContainer> visiting) {
+        Set<String> used = categories.get(container);
+        if (used != null) {
+            return used;
+        }
+        used = new HashSet<>();
+        if (!visiting.add(container)) {
+            return used;
+        }
+        for (PlannedStep step : container.getSteps()) {
+            if (step.isReferring()) {
+                used.addAll(categoriesOf(step.getReferring(), visiting));
+            } else if (step.getInvocation() != null && step.getInvocation().getPossibleStep().getCategories() != null) {
+                for (String category : step.getInvocation().getPossibleStep().getCategories()) {
+                    if (limits.containsKey(category)) {
+                        used.add(category);
+                    }
+                }
+            }
+        }
+        visiting.remove(container);
+        categories.put(container, used);
+        return used;
+    }
+
+    /**
+     * Admits the categories when all of them have capacity left.
+     *
+     * @return false when one of them is at its limit, nothing is admitted then
+     */
+    synchronized boolean tryAcquire(Set<String> used) {
+        for (String category : used) {
+            Integer count = running.get(category);
+            if (count != null && count >= limits.get(category)) {
+                return false;
+            }
+        }
+        for (String category : used) {
+            Integer count = running.get(category);
+            running.put(category, count == null ? 1 : count + 1);
+        }
+        return true;
+    }
+
+    synchronized void acquire(Set<String> used) throws InterruptedException {
+        while (!tryAcquire(used)) {
+            wait();
+        }
+    }
+
+    synchronized void release(Set<String> used) {
+        if (used.isEmpty()) {
+            return;
+        }
+        for (String category : used) {
+            running.put(category, running.get(category) - 1);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Takes the first waiting scenario whose categories, together with those of the prologue it replays, have
+     * capacity left. Waits for running scenarios to release their categories while none of them has.
+     *
+     * @return the admitted scenario, removed from the waiting scenarios
+     */
+    synchronized PlannedContainer admitNext(List<PlannedContainer> waiting, PlannedContainer prologue) throws InterruptedException {
+        while (true) {
+            for (Iterator<PlannedContainer> iterator = waiting.iterator(); iterator.hasNext(); ) {
+                PlannedContainer scenario = iterator.next();
+                if (tryAcquire(categoriesOf(scenario, prologue))) {
+                    iterator.remove();
+                    return scenario;
+                }
+            }
+            wait();
+        }
+    }
+}
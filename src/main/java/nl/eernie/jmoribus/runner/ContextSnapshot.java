@@ -0,0 +1,95 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.context.ContextProvider;
+import nl.eernie.jmoribus.context.CopyableContextProvider;
+import org.slf4j.MDC;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Captures the thread bound state of the submitting thread, the context variables and the logging MDC,
+ * so a worker thread can start from the same state as a sequential run would.
+ */
+public final class ContextSnapshot {
+
+    private final CopyableContextProvider contextProvider;
+    private final Map<String, String> variables;
+    private final Map<String, String> mdc;
+
+    private ContextSnapshot(CopyableContextProvider contextProvider, Map<String, String> variables, Map<String, String> mdc) {
+        this.contextProvider = contextProvider;
+        this.variables = variables;
+        this.mdc = mdc;
+    }
+
+    /**
+     * @throws IllegalStateException when the variables of the context provider cannot be copied
+     */
+    public static ContextSnapshot capture(ContextProvider contextProvider) {
+        CopyableContextProvider copyable = copyable(contextProvider);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return new ContextSnapshot(copyable, copyable.getVariables(), mdc);
+    }
+
+    /**
+     * @return the context provider, when its variables can be copied
+     * @throws IllegalStateException when they cannot
+     */
+    static CopyableContextProvider copyable(ContextProvider contextProvider) {
+        if (!(contextProvider instanceof CopyableContextProvider)) {
+            throw new IllegalStateException("Parallel stories or scenarios, scenario retries and step timeouts need a context provider that implements "
+                    + CopyableContextProvider.class.getSimpleName() + ", " + contextProvider.getClass().getName() + " does not");
+        }
+        return (CopyableContextProvider) contextProvider;
+    }
+
+    /**
+     * Wraps the runnable so it runs with a private copy of the captured state. The worker thread is
+     * cleared afterwards, pooled threads therefore never leak variables into the next task.
+     */
+    public Runnable wrap(final Runnable runnable) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                install();
+                try {
+                    runnable.run();
+                } finally {
+                    clear();
+                }
+            }
+        };
+    }
+
+    /**
+     * @see #wrap(Runnable)
+     */
+    public <T> Callable<T> wrap(final Callable<T> callable) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                install();
+                try {
+                    return callable.call();
+                } finally {
+                    clear();
+                }
+            }
+        };
+    }
+
+    private void install() {
+        contextProvider.setVariables(new HashMap<>(variables));
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+    }
+
+    private void clear() {
+        contextProvider.setVariables(Collections.<String, String>emptyMap());
+        MDC.clear();
+    }
+}
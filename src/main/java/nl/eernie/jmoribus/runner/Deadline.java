@@ -0,0 +1,59 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.exception.StepTimeoutException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The moment a step, scenario or story has to be finished, measured with {@link System#nanoTime()}.
+ */
+final class Deadline {
+
+    static final Deadline NONE = new Deadline(null, 0, 0);
+
+    private final String scope;
+    private final long timeoutMillis;
+    private final long end;
+
+    private Deadline(String scope, long timeoutMillis, long end) {
+        this.scope = scope;
+        this.timeoutMillis = timeoutMillis;
+        this.end = end;
+    }
+
+    /**
+     * @return a deadline the given number of milliseconds from now, {@link #NONE} when the timeout is 0 or less
+     */
+    static Deadline after(String scope, long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return NONE;
+        }
+        return new Deadline(scope, timeoutMillis, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    boolean isNone() {
+        return scope == null;
+    }
+
+    Deadline earliest(Deadline other) {
+        if (isNone()) {
+            return other;
+        }
+        if (other.isNone()) {
+            return this;
+        }
+        return end - other.end <= 0 ? this : other;
+    }
+
+    long remainingNanos() {
+        return Math.max(0, end - System.nanoTime());
+    }
+
+    boolean isExpired() {
+        return !isNone() && remainingNanos() == 0;
+    }
+
+    StepTimeoutException exceeded() {
+        return new StepTimeoutException(scope + " exceeded its timeout of " + timeoutMillis + " ms");
+    }
+}
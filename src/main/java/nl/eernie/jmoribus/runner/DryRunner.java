@@ -0,0 +1,102 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.configuration.Configuration;
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+import nl.eernie.jmoribus.model.Prologue;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.Reporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Validates stories without invoking any hook or step method. Every story is planned on a worker and the
+ * outcome of binding each step is reported in the usual order:
+ * <ul>
+ * <li>pending when no step method matches</li>
+ * <li>error when the parameter count does not fit the method, a converter is missing or a referred scenario
+ * does not exist</li>
+ * <li>success when the step is bound and would be invoked</li>
+ * </ul>
+ */
+public class DryRunner {
+
+    private final MethodMatcher methodMatcher;
+    private final Configuration config;
+    private final Reporter reporter;
+
+    public DryRunner(MethodMatcher methodMatcher, Configuration config) {
+        this.methodMatcher = methodMatcher;
+        this.config = config;
+        this.reporter = config.getConcurrentReporter();
+    }
+
+    public void run(List<Story> stories) {
+        ExecutorService executor = WorkerPools.newPool("dry-run", Runtime.getRuntime().availableProcessors(), config.getExecutorMode());
+        try {
+            List<Future<?>> futures = new ArrayList<>(stories.size());
+            for (final Story story : stories) {
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        validateStory(new ExecutionPlanner(methodMatcher, config).planStory(story));
+                    }
+                }));
+            }
+            WorkerPools.awaitAll(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void validateStory(PlannedStory plannedStory) {
+        Story story = plannedStory.getStory();
+        reporter.beforeStory(story);
+        if (plannedStory.getPrologue() != null) {
+            Prologue prologue = (Prologue) plannedStory.getPrologue().getStepContainer();
+            reporter.beforePrologue(prologue);
+            validateContainer(plannedStory.getPrologue());
+            reporter.afterPrologue(prologue);
+        }
+        for (PlannedContainer plannedScenario : plannedStory.getScenarios()) {
+            Scenario scenario = (Scenario) plannedScenario.getStepContainer();
+            reporter.beforeScenario(scenario);
+            validateContainer(plannedScenario);
+            reporter.afterScenario(scenario);
+        }
+        reporter.afterStory(story);
+    }
+
+    private void validateContainer(PlannedContainer plannedContainer) {
+        StepContainer stepContainer = plannedContainer.getStepContainer();
+        for (PlannedStep plannedStep : plannedContainer.getSteps()) {
+            Step step = plannedStep.getStep();
+            if (plannedStep.isReferring()) {
+                Scenario referringScenario = (Scenario) step;
+                if (referringScenario.getStory() == null) {
+                    reporter.beforeStep(step);
+                    reporter.errorStep(step, "Unknown scenario with title " + referringScenario.getTitle());
+                } else {
+                    reporter.beforeReferringScenario(stepContainer, referringScenario);
+                    validateContainer(plannedStep.getReferring());
+                    reporter.afterReferringScenario(stepContainer, referringScenario);
+                }
+                continue;
+            }
+            reporter.beforeStep(step);
+            StepInvocation invocation = plannedStep.getInvocation();
+            if (invocation == null) {
+                reporter.pendingStep(step);
+            } else if (invocation.getBindingError() != null) {
+                reporter.errorStep(step, invocation.getBindingError());
+            } else {
+                reporter.successStep(step);
+            }
+        }
+    }
+}
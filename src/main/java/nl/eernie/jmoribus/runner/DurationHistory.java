@@ -0,0 +1,221 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.model.Scenario;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The durations in milliseconds of the stories and scenarios of earlier runs, stored as a properties file.
+ * A story is keyed by its unique identifier, a scenario by {@link Sharding#scenarioKey(String, String)}.
+ * Durations are recorded while running and replace the earlier duration of the same story or scenario,
+ * entries of stories that did not run are kept.
+ * <p>
+ * A story or scenario without history is estimated from its number of steps, at the average duration per
+ * step of the planned scenarios that do have history, or 100 ms per step when there are none.
+ */
+public final class DurationHistory {
+
+    private static final long DEFAULT_STEP_MILLIS = 100;
+
+    private final ConcurrentMap<String, Long> durations = new ConcurrentHashMap<>();
+
+    /**
+     * @return the history in the file, an empty history when the file does not exist
+     */
+    public static DurationHistory load(File file) {
+        DurationHistory history = new DurationHistory();
+        if (file.exists()) {
+            Properties properties = new Properties();
+            try (InputStream input = Files.newInputStream(file.toPath())) {
+                properties.load(input);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read duration history " + file, e);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                history.durations.put(key, Long.valueOf(properties.getProperty(key)));
+            }
+        }
+        return history;
+    }
+
+    public void save(File file) {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Long> duration : durations.entrySet()) {
+            properties.setProperty(duration.getKey(), duration.getValue().toString());
+        }
+        try {
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                Files.createDirectories(directory.toPath());
+            }
+            try (OutputStream output = Files.newOutputStream(file.toPath())) {
+                properties.store(output, "JMoribus durations in milliseconds");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write duration history " + file, e);
+        }
+    }
+
+    /**
+     * Adds the durations of the other history, for example the history of another shard, replacing the
+     * durations this history has for the same stories and scenarios.
+     */
+    public void merge(DurationHistory other) {
+        durations.putAll(other.durations);
+    }
+
+    public Long getStoryMillis(String storyIdentifier) {
+        return durations.get(storyIdentifier);
+    }
+
+    public Long getScenarioMillis(String storyIdentifier, String scenarioTitle) {
+        return durations.get(Sharding.scenarioKey(storyIdentifier, scenarioTitle));
+    }
+
+    void recordStory(String storyIdentifier, long millis) {
+        durations.put(storyIdentifier, millis);
+    }
+
+    void recordScenario(String storyIdentifier, String scenarioTitle, long millis) {
+        durations.put(Sharding.scenarioKey(storyIdentifier, scenarioTitle), millis);
+    }
+
+    /**
+     * @return the stories ordered by expected duration, longest first
+     */
+    public List<PlannedStory> longestFirst(List<PlannedStory> stories) {
+        return estimate(stories).longestFirst(stories);
+    }
+
+    /**
+     * @return the scenarios of the story ordered by expected duration, longest first
+     */
+    public List<PlannedContainer> longestFirst(PlannedStory story) {
+        return estimate(Collections.singletonList(story)).longestFirst(story);
+    }
+
+    /**
+     * @return an estimate for the stories and scenarios of the plan, calibrated on the planned scenarios
+     * that have history
+     */
+    Estimate estimate(List<PlannedStory> stories) {
+        long knownMillis = 0;
+        long knownSteps = 0;
+        for (PlannedStory story : stories) {
+            for (PlannedContainer scenario : story.getScenarios()) {
+                Long millis = getScenarioMillis(story.getStory().getUniqueIdentifier(), titleOf(scenario));
+                if (millis != null) {
+                    knownMillis += millis;
+                    knownSteps += countSteps(scenario);
+                }
+            }
+        }
+        long stepMillis = knownSteps > 0 ? Math.max(1, knownMillis / knownSteps) : DEFAULT_STEP_MILLIS;
+        return new Estimate(stepMillis);
+    }
+
+    private static String titleOf(PlannedContainer scenario) {
+        return ((Scenario) scenario.getStepContainer()).getTitle();
+    }
+
+    private static int countSteps(PlannedContainer container) {
+        return countSteps(container, Collections.newSetFromMap(new IdentityHashMap<PlannedContainer, Boolean>()));
+    }
+
+    /**
+     * Counts the steps including those of referred scenarios, a scenario that refers to itself is counted once.
+     */
+    private static int countSteps(PlannedContainer container, Set<PlannedContainer> counting) {
+        if (!counting.add(container)) {
+            return 0;
+        }
+        int steps = 0;
+        for (PlannedStep step : container.getSteps()) {
+            steps += step.isReferring() ? countSteps(step.getReferring(), counting) : 1;
+        }
+        counting.remove(container);
+        return steps;
+    }
+
+    /**
+     * Expected durations of planned stories and scenarios.
+     */
+    final class Estimate {
+
+        private final long stepMillis;
+
+        private Estimate(long stepMillis) {
+            this.stepMillis = stepMillis;
+        }
+
+        long storyMillis(PlannedStory story) {
+            Long recorded = getStoryMillis(story.getStory().getUniqueIdentifier());
+            if (recorded != null) {
+                return recorded;
+            }
+            long millis = story.getPrologue() == null ? 0 : countSteps(story.getPrologue()) * stepMillis;
+            for (PlannedContainer scenario : story.getScenarios()) {
+                millis += scenarioMillis(story, scenario);
+            }
+            return millis;
+        }
+
+        long scenarioMillis(PlannedStory story, PlannedContainer scenario) {
+            Long recorded = getScenarioMillis(story.getStory().getUniqueIdentifier(), titleOf(scenario));
+            if (recorded != null) {
+                return recorded;
+            }
+            return countSteps(scenario) * stepMillis;
+        }
+
+        /**
+         * @return the stories ordered longest first, stories with the same duration keep their order
+         */
+        List<PlannedStory> longestFirst(List<PlannedStory> stories) {
+            final Map<PlannedStory, Long> millis = new IdentityHashMap<>();
+            for (PlannedStory story : stories) {
+                millis.put(story, storyMillis(story));
+            }
+            List<PlannedStory> ordered = new ArrayList<>(stories);
+            Collections.sort(ordered, new Comparator<PlannedStory>() {
+                @Override
+                public int compare(PlannedStory first, PlannedStory second) {
+                    return Long.compare(millis.get(second), millis.get(first));
+                }
+            });
+            return ordered;
+        }
+
+        /**
+         * @return the scenarios of the story ordered longest first, scenarios with the same duration keep their order
+         */
+        List<PlannedContainer> longestFirst(final PlannedStory story) {
+            final Map<PlannedContainer, Long> millis = new IdentityHashMap<>();
+            for (PlannedContainer scenario : story.getScenarios()) {
+                millis.put(scenario, scenarioMillis(story, scenario));
+            }
+            List<PlannedContainer> ordered = new ArrayList<>(story.getScenarios());
+            Collections.sort(ordered, new Comparator<PlannedContainer>() {
+                @Override
+                public int compare(PlannedContainer first, PlannedContainer second) {
+                    return Long.compare(millis.get(second), millis.get(first));
+                }
+            });
+            return ordered;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of matching and binding every step of a list of stories. Running a plan does not match
+ * steps or look up converters again, so the same plan can be run repeatedly.
+ */
+public final class ExecutionPlan {
+
+    private final MethodMatcher methodMatcher;
+    private final List<PlannedStory> stories;
+    private final DurationHistory durationHistory;
+
+    ExecutionPlan(MethodMatcher methodMatcher, List<PlannedStory> stories, DurationHistory durationHistory) {
+        this.methodMatcher = methodMatcher;
+        this.stories = Collections.unmodifiableList(stories);
+        this.durationHistory = durationHistory;
+    }
+
+    public MethodMatcher getMethodMatcher() {
+        return methodMatcher;
+    }
+
+    public List<PlannedStory> getStories() {
+        return stories;
+    }
+
+    /**
+     * @return the history read while planning, or null when no duration history file is configured
+     */
+    public DurationHistory getDurationHistory() {
+        return durationHistory;
+    }
+}
@@ -0,0 +1,225 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.configuration.Configuration;
+import nl.eernie.jmoribus.configuration.ShardingMode;
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+import nl.eernie.jmoribus.matcher.StepMatch;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.ResultFile;
+import nl.eernie.jmoribus.reporter.ScenarioResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles stories into an {@link ExecutionPlan}. Every step is matched and bound exactly once, scenarios
+ * that are referred to from several places share one planned container. A scenario with an examples table
+ * is planned as one scenario per row, so the rows run like any other scenario, in parallel when the
+ * scenarios of a story do.
+ */
+public class ExecutionPlanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionPlanner.class);
+
+    private final Configuration config;
+    private final MethodMatcher methodMatcher;
+    private final StepRunner stepRunner;
+    private final Map<StepContainer, PlannedContainer> plannedContainers = new IdentityHashMap<>();
+    private Map<String, Integer> balancedShards;
+
+    public ExecutionPlanner(MethodMatcher methodMatcher, Configuration config) {
+        this.config = config;
+        this.methodMatcher = methodMatcher;
+        this.stepRunner = new StepRunner(methodMatcher, config);
+    }
+
+    /**
+     * Plans the stories of the shard configured by {@link Configuration#getShardIndex()}, all stories when
+     * there is only one shard. With {@link Configuration#isBalanceShardsByDuration()} the stories or
+     * scenarios are spread over the shards by their expected duration instead of by hash. With
+     * {@link Configuration#isRerunFailures()} only the scenarios that did not pass according to the result
+     * journal are planned, with the prologue of their story.
+     */
+    public ExecutionPlan plan(List<Story> stories) {
+        int shardCount = config.getShardCount();
+        if (config.getShardIndex() < 0 || config.getShardIndex() >= Math.max(shardCount, 1)) {
+            throw new IllegalArgumentException("Shard index " + config.getShardIndex() + " is not within the " + shardCount + " shards");
+        }
+        DurationHistory durationHistory = null;
+        if (config.getDurationHistoryFile() != null) {
+            durationHistory = DurationHistory.load(config.getDurationHistoryFile());
+        }
+        boolean balanced = shardCount > 1 && durationHistory != null && config.isBalanceShardsByDuration();
+        boolean shardStories = shardCount > 1 && config.getShardingMode() == ShardingMode.STORY;
+        boolean shardScenarios = shardCount > 1 && config.getShardingMode() == ShardingMode.SCENARIO;
+        Set<String> rerunScenarios = findScenariosToRerun();
+        List<PlannedStory> plannedStories = new ArrayList<>(stories.size());
+        for (Story story : stories) {
+            if (shardStories && !balanced && !isInShard(story.getUniqueIdentifier())) {
+                continue;
+            }
+            PlannedStory plannedStory = planStory(story);
+            if (rerunScenarios != null) {
+                plannedStory = selectScenarios(plannedStory, rerunScenarios);
+                if (plannedStory.getScenarios().isEmpty()) {
+                    continue;
+                }
+            }
+            plannedStories.add(plannedStory);
+        }
+        balancedShards = null;
+        if (balanced) {
+            balancedShards = Sharding.balance(expectedMillis(plannedStories, durationHistory.estimate(plannedStories), shardStories), shardCount);
+        }
+        if (shardScenarios || balanced) {
+            plannedStories = selectShard(plannedStories, shardStories);
+        }
+        return new ExecutionPlan(methodMatcher, plannedStories, durationHistory);
+    }
+
+    /**
+     * @return the keys of the failed and pending scenarios in the result journal, or null to run all scenarios
+     */
+    private Set<String> findScenariosToRerun() {
+        if (!config.isRerunFailures()) {
+            return null;
+        }
+        File journal = config.getResultJournalFile();
+        if (journal == null || !journal.exists()) {
+            LOGGER.warn("No result journal found at {}, running all scenarios", journal);
+            return null;
+        }
+        Set<String> scenarios = new HashSet<>();
+        try {
+            for (ScenarioResult result : ResultFile.read(journal)) {
+                if (result.getStatus() == ScenarioResult.Status.FAILED || result.getStatus() == ScenarioResult.Status.PENDING) {
+                    scenarios.add(Sharding.scenarioKey(result.getStoryIdentifier(), result.getScenarioTitle()));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read result journal " + journal, e);
+        }
+        return scenarios;
+    }
+
+    private PlannedStory selectScenarios(PlannedStory plannedStory, Set<String> scenarioKeys) {
+        String storyIdentifier = plannedStory.getStory().getUniqueIdentifier();
+        List<PlannedContainer> scenarios = new ArrayList<>();
+        for (PlannedContainer scenario : plannedStory.getScenarios()) {
+            String title = ((Scenario) scenario.getStepContainer()).getTitle();
+            if (scenarioKeys.contains(Sharding.scenarioKey(storyIdentifier, title))) {
+                scenarios.add(scenario);
+            }
+        }
+        return plannedStory.withScenarios(scenarios);
+    }
+
+    private Map<String, Long> expectedMillis(List<PlannedStory> plannedStories, DurationHistory.Estimate estimate, boolean shardStories) {
+        Map<String, Long> expectedMillis = new HashMap<>();
+        for (PlannedStory plannedStory : plannedStories) {
+            String storyIdentifier = plannedStory.getStory().getUniqueIdentifier();
+            if (shardStories) {
+                expectedMillis.put(storyIdentifier, estimate.storyMillis(plannedStory));
+                continue;
+            }
+            for (PlannedContainer scenario : plannedStory.getScenarios()) {
+                String key = Sharding.scenarioKey(storyIdentifier, ((Scenario) scenario.getStepContainer()).getTitle());
+                expectedMillis.put(key, estimate.scenarioMillis(plannedStory, scenario));
+            }
+        }
+        return expectedMillis;
+    }
+
+    private List<PlannedStory> selectShard(List<PlannedStory> plannedStories, boolean shardStories) {
+        List<PlannedStory> selected = new ArrayList<>(plannedStories.size());
+        for (PlannedStory plannedStory : plannedStories) {
+            if (shardStories) {
+                if (isInShard(plannedStory.getStory().getUniqueIdentifier())) {
+                    selected.add(plannedStory);
+                }
+                continue;
+            }
+            PlannedStory shardOfStory = selectScenariosOfShard(plannedStory);
+            if (!shardOfStory.getScenarios().isEmpty()) {
+                selected.add(shardOfStory);
+            }
+        }
+        return selected;
+    }
+
+    private PlannedStory selectScenariosOfShard(PlannedStory plannedStory) {
+        String storyIdentifier = plannedStory.getStory().getUniqueIdentifier();
+        List<PlannedContainer> scenarios = new ArrayList<>();
+        for (PlannedContainer scenario : plannedStory.getScenarios()) {
+            String title = ((Scenario) scenario.getStepContainer()).getTitle();
+            if (isInShard(Sharding.scenarioKey(storyIdentifier, title))) {
+                scenarios.add(scenario);
+            }
+        }
+        return plannedStory.withScenarios(scenarios);
+    }
+
+    private boolean isInShard(String key) {
+        if (balancedShards != null) {
+            return balancedShards.get(key) == config.getShardIndex();
+        }
+        return Sharding.shardOf(key, config.getShardCount()) == config.getShardIndex();
+    }
+
+    public PlannedStory planStory(Story story) {
+        PlannedContainer prologue = null;
+        if (story.getPrologue() != null) {
+            prologue = planContainer(story.getPrologue());
+        }
+        List<PlannedContainer> scenarios = new ArrayList<>(story.getScenarios().size());
+        for (Scenario scenario : story.getScenarios()) {
+            if (ScenarioOutline.isOutline(scenario)) {
+                ScenarioOutline outline = ScenarioOutline.compile(scenario);
+                for (int row = 0; row < outline.getIterationCount(); row++) {
+                    scenarios.add(planContainer(outline.createIteration(row)));
+                }
+            } else {
+                scenarios.add(planContainer(scenario));
+            }
+        }
+        return new PlannedStory(story, prologue, scenarios);
+    }
+
+    private PlannedContainer planContainer(StepContainer stepContainer) {
+        PlannedContainer plannedContainer = plannedContainers.get(stepContainer);
+        if (plannedContainer != null) {
+            return plannedContainer;
+        }
+        List<Step> steps = stepContainer.getSteps();
+        List<PlannedStep> plannedSteps = new ArrayList<>(steps.size());
+        plannedContainer = new PlannedContainer(stepContainer, plannedSteps);
+        plannedContainers.put(stepContainer, plannedContainer);
+        for (Step step : steps) {
+            plannedSteps.add(planStep(step));
+        }
+        return plannedContainer;
+    }
+
+    private PlannedStep planStep(Step step) {
+        if (step instanceof Scenario) {
+            return new PlannedStep(step, null, planContainer((Scenario) step));
+        }
+        StepMatch match = methodMatcher.matchStep(step);
+        if (match == null) {
+            return new PlannedStep(step, null, null);
+        }
+        return new PlannedStep(step, stepRunner.bind(match.getPossibleStep(), step, match.getParameterValues()), null);
+    }
+}
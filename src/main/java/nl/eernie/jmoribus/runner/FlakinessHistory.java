@@ -0,0 +1,140 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.model.Scenario;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * How often the scenarios of earlier runs only passed after a retry, stored as a properties file with the
+ * number of runs and the number of flaky runs of every scenario, keyed by {@link Sharding#scenarioKey(String, String)}.
+ * Entries of scenarios that did not run are kept.
+ * <p>
+ * A scenario is quarantined when its flake rate reached the configured rate over at least {@value #MIN_RUNS}
+ * runs. Quarantined scenarios run in a batch after all other scenarios.
+ */
+public final class FlakinessHistory {
+
+    static final int MIN_RUNS = 5;
+
+    private final ConcurrentMap<String, Runs> runs = new ConcurrentHashMap<>();
+
+    /**
+     * @return the history in the file, an empty history when the file does not exist
+     */
+    public static FlakinessHistory load(File file) {
+        FlakinessHistory history = new FlakinessHistory();
+        if (file.exists()) {
+            Properties properties = new Properties();
+            try (InputStream input = Files.newInputStream(file.toPath())) {
+                properties.load(input);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read flakiness history " + file, e);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                String[] counts = properties.getProperty(key).split(",");
+                history.runs.put(key, new Runs(Integer.parseInt(counts[0].trim()), Integer.parseInt(counts[1].trim())));
+            }
+        }
+        return history;
+    }
+
+    public void save(File file) {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Runs> entry : runs.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().runs + "," + entry.getValue().flaky);
+        }
+        try {
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                Files.createDirectories(directory.toPath());
+            }
+            try (OutputStream output = Files.newOutputStream(file.toPath())) {
+                properties.store(output, "JMoribus runs and flaky runs per scenario");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write flakiness history " + file, e);
+        }
+    }
+
+    /**
+     * @return the share of the runs of the scenario that only passed after a retry, 0 without history
+     */
+    public double getFlakeRate(String storyIdentifier, String scenarioTitle) {
+        Runs scenarioRuns = runs.get(Sharding.scenarioKey(storyIdentifier, scenarioTitle));
+        return scenarioRuns == null ? 0 : scenarioRuns.flaky / (double) scenarioRuns.runs;
+    }
+
+    public boolean isQuarantined(String storyIdentifier, String scenarioTitle, double quarantineRate) {
+        Runs scenarioRuns = runs.get(Sharding.scenarioKey(storyIdentifier, scenarioTitle));
+        return scenarioRuns != null && scenarioRuns.runs >= MIN_RUNS && getFlakeRate(storyIdentifier, scenarioTitle) >= quarantineRate;
+    }
+
+    /**
+     * Counts a run of the scenario, flaky when it only passed after a retry.
+     */
+    public void record(String storyIdentifier, String scenarioTitle, boolean flaky) {
+        String key = Sharding.scenarioKey(storyIdentifier, scenarioTitle);
+        while (true) {
+            Runs previous = runs.get(key);
+            Runs next = previous == null ? new Runs(1, flaky ? 1 : 0) : new Runs(previous.runs + 1, previous.flaky + (flaky ? 1 : 0));
+            if (previous == null ? runs.putIfAbsent(key, next) == null : runs.replace(key, previous, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the stories with their scenarios that are not quarantined, stories without any left are dropped
+     */
+    public List<PlannedStory> withoutQuarantined(List<PlannedStory> stories, double quarantineRate) {
+        return select(stories, quarantineRate, false);
+    }
+
+    /**
+     * @return the stories with only their quarantined scenarios, stories without any are dropped
+     */
+    public List<PlannedStory> quarantined(List<PlannedStory> stories, double quarantineRate) {
+        return select(stories, quarantineRate, true);
+    }
+
+    private List<PlannedStory> select(List<PlannedStory> stories, double quarantineRate, boolean quarantined) {
+        List<PlannedStory> selected = new ArrayList<>(stories.size());
+        for (PlannedStory story : stories) {
+            String storyIdentifier = story.getStory().getUniqueIdentifier();
+            List<PlannedContainer> scenarios = new ArrayList<>();
+            for (PlannedContainer scenario : story.getScenarios()) {
+                String title = ((Scenario) scenario.getStepContainer()).getTitle();
+                if (isQuarantined(storyIdentifier, title, quarantineRate) == quarantined) {
+                    scenarios.add(scenario);
+                }
+            }
+            if (scenarios.size() == story.getScenarios().size() && (!quarantined || !scenarios.isEmpty())) {
+                selected.add(story);
+            } else if (!scenarios.isEmpty()) {
+                selected.add(story.withScenarios(scenarios));
+            }
+        }
+        return selected;
+    }
+
+    private static final class Runs {
+
+        private final int runs;
+        private final int flaky;
+
+        private Runs(int runs, int flaky) {
+            this.runs = runs;
+            this.flaky = flaky;
+        }
+    }
+}
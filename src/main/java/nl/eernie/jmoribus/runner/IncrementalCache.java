@@ -0,0 +1,224 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.matcher.BeforeAfterMethod;
+import nl.eernie.jmoribus.matcher.BeforeAfterType;
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+import nl.eernie.jmoribus.matcher.ParameterConverter;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.StepLine;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.model.Table;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers the fingerprint of every story that passed, in one file per story in the cache directory.
+ * The fingerprint covers the source of the story, the planned scenarios, the text of the scenarios it refers
+ * to and the bytecode of the classes whose step methods it invokes, so any change to one of them runs the
+ * story again. The bytecode of the classes with hooks or parameter converters is covered as well: every story
+ * runs the hooks, and a converter can be reached through any step or table, so a change to one of those
+ * classes runs all stories again. A story built without parsing is fingerprinted by the text of its steps instead of its source.
+ */
+final class IncrementalCache {
+
+    private static final String NO_FINGERPRINT = "";
+
+    private final File directory;
+    private final MethodMatcher methodMatcher;
+    private final ConcurrentMap<Class<?>, String> classDigests = new ConcurrentHashMap<>();
+
+    IncrementalCache(File directory, MethodMatcher methodMatcher) {
+        this.directory = directory;
+        this.methodMatcher = methodMatcher;
+    }
+
+    boolean isPassed(PlannedStory story) {
+        File file = fileOf(story.getStory());
+        if (!file.exists()) {
+            return false;
+        }
+        try {
+            String fingerprint = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            return fingerprint.equals(fingerprint(story));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read incremental cache " + file, e);
+        }
+    }
+
+    void record(PlannedStory story, boolean passed) {
+        File file = fileOf(story.getStory());
+        try {
+            String fingerprint = passed ? fingerprint(story) : NO_FINGERPRINT;
+            if (fingerprint.equals(NO_FINGERPRINT)) {
+                Files.deleteIfExists(file.toPath());
+            } else {
+                Files.createDirectories(directory.toPath());
+                Files.write(file.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write incremental cache " + file, e);
+        }
+    }
+
+    private File fileOf(Story story) {
+        MessageDigest digest = sha256();
+        digest.update(story.getUniqueIdentifier().getBytes(StandardCharsets.UTF_8));
+        return new File(directory, hex(digest.digest()) + ".fingerprint");
+    }
+
+    /**
+     * @return the fingerprint of the story, or {@link #NO_FINGERPRINT} when the bytecode of a step class cannot be read
+     */
+    String fingerprint(PlannedStory plannedStory) {
+        Story story = plannedStory.getStory();
+        MessageDigest digest = sha256();
+        update(digest, story.getUniqueIdentifier());
+        if (story.getSourceDigest() != null) {
+            update(digest, story.getSourceDigest());
+        } else {
+            if (story.getPrologue() != null) {
+                update(digest, story.getPrologue());
+            }
+            for (Scenario scenario : story.getScenarios()) {
+                update(digest, scenario);
+            }
+        }
+
+        SortedSet<String> classDigests = new TreeSet<>();
+        collectHooksAndConverters(classDigests);
+        Set<PlannedContainer> visited = Collections.newSetFromMap(new IdentityHashMap<PlannedContainer, Boolean>());
+        if (plannedStory.getPrologue() != null) {
+            collect(digest, plannedStory.getPrologue(), classDigests, visited);
+        }
+        for (PlannedContainer scenario : plannedStory.getScenarios()) {
+            update(digest, ((Scenario) scenario.getStepContainer()).getTitle());
+            collect(digest, scenario, classDigests, visited);
+        }
+        if (classDigests.contains(NO_FINGERPRINT)) {
+            return NO_FINGERPRINT;
+        }
+        for (String classDigest : classDigests) {
+            update(digest, classDigest);
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Adds the text of referred scenarios to the digest and collects the digests of the invoked step classes.
+     */
+    private void collect(MessageDigest digest, PlannedContainer container, Set<String> classDigests, Set<PlannedContainer> visited) {
+        if (!visited.add(container)) {
+            return;
+        }
+        for (PlannedStep step : container.getSteps()) {
+            if (step.isReferring()) {
+                update(digest, step.getReferring().getStepContainer());
+                collect(digest, step.getReferring(), classDigests, visited);
+            } else if (step.getInvocation() != null) {
+                collect(step.getInvocation().getPossibleStep().getMethodObject(), classDigests);
+            }
+        }
+    }
+
+    private void collectHooksAndConverters(Set<String> classDigests) {
+        for (BeforeAfterType beforeAfterType : BeforeAfterType.values()) {
+            List<BeforeAfterMethod> hooks = methodMatcher.findBeforeAfters(beforeAfterType);
+            if (hooks != null) {
+                for (BeforeAfterMethod hook : hooks) {
+                    collect(hook.getMethodObject(), classDigests);
+                }
+            }
+        }
+        for (ParameterConverter converter : methodMatcher.getParameterConverters()) {
+            collect(converter.getMethodObject(), classDigests);
+        }
+    }
+
+    /**
+     * Collects the digests of the class of the object and its superclasses.
+     */
+    private void collect(Object methodObject, Set<String> classDigests) {
+        for (Class<?> type = methodObject.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            classDigests.add(classDigest(type));
+        }
+    }
+
+    private String classDigest(Class<?> type) {
+        String classDigest = classDigests.get(type);
+        if (classDigest == null) {
+            classDigest = readClassDigest(type);
+            classDigests.putIfAbsent(type, classDigest);
+        }
+        return classDigest;
+    }
+
+    private static String readClassDigest(Class<?> type) {
+        String resource = "/" + type.getName().replace('.', '/') + ".class";
+        try (InputStream input = type.getResourceAsStream(resource)) {
+            if (input == null) {
+                return NO_FINGERPRINT;
+            }
+            return type.getName() + ":" + hex(sha256().digest(IOUtils.toByteArray(input)));
+        } catch (IOException e) {
+            return NO_FINGERPRINT;
+        }
+    }
+
+    private static void update(MessageDigest digest, StepContainer container) {
+        if (container instanceof Scenario) {
+            update(digest, ((Scenario) container).getTitle());
+        }
+        List<Step> steps = container.getSteps();
+        for (Step step : steps) {
+            if (step instanceof Scenario) {
+                update(digest, "Referring " + ((Scenario) step).getTitle());
+                continue;
+            }
+            update(digest, step.getStepType().name());
+            for (StepLine stepLine : step.getStepLines()) {
+                if (stepLine instanceof Table) {
+                    Table table = (Table) stepLine;
+                    update(digest, String.valueOf(table.getHeader()));
+                    update(digest, String.valueOf(table.getRows()));
+                } else {
+                    update(digest, stepLine.getText());
+                }
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        return String.format("%0" + bytes.length * 2 + "x", new BigInteger(1, bytes));
+    }
+}
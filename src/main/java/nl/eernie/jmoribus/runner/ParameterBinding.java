@@ -0,0 +1,89 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.configuration.Configuration;
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+import nl.eernie.jmoribus.matcher.ParameterConverter;
+import nl.eernie.jmoribus.matcher.ParameterType;
+import nl.eernie.jmoribus.model.Table;
+import nl.eernie.jmoribus.parser.PreparedTable;
+import nl.eernie.jmoribus.parser.ReflectionParser;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
+
+/**
+ * Supplies the value of one step method parameter. Everything that only depends on the step text, such as
+ * the converter or the referenced table, is resolved once when the binding is created.
+ */
+abstract class ParameterBinding {
+
+    /**
+     * @param webDriver the driver of the running scenario, null to use {@link Configuration#getWebDriver()}
+     */
+    abstract Object resolve(Configuration config, WebDriverLease webDriver) throws InvocationTargetException, IllegalAccessException;
+
+    boolean isWebDriver() {
+        return false;
+    }
+
+    static ParameterBinding constant(final Object value) {
+        return new ParameterBinding() {
+            @Override
+            Object resolve(Configuration config, WebDriverLease webDriver) {
+                return value;
+            }
+        };
+    }
+
+    static ParameterBinding webDriver() {
+        return new ParameterBinding() {
+            @Override
+            Object resolve(Configuration config, WebDriverLease webDriver) {
+                return webDriver == null ? config.getWebDriver() : webDriver.get();
+            }
+
+            @Override
+            boolean isWebDriver() {
+                return true;
+            }
+        };
+    }
+
+    static ParameterBinding converted(final ParameterConverter converter, final String value) {
+        return new ParameterBinding() {
+            @Override
+            Object resolve(Configuration config, WebDriverLease webDriver) throws InvocationTargetException, IllegalAccessException {
+                return converter.convert(value);
+            }
+        };
+    }
+
+    /**
+     * Converts the value of a typed placeholder on every run, for a type whose values can be changed by a step.
+     */
+    static ParameterBinding placeholder(final ParameterType placeholderType, final String value, final Class<?> parameterType) {
+        return new ParameterBinding() {
+            @Override
+            Object resolve(Configuration config, WebDriverLease webDriver) {
+                return placeholderType.convert(value, parameterType);
+            }
+        };
+    }
+
+    /**
+     * Creates the objects of a table on every run, a step can change them. How the rows are bound is resolved
+     * once; a table that cannot be bound to the type is converted by the converter of the parameter type.
+     */
+    static ParameterBinding tableObject(Table table, Type type, Class<?> parameterType, String value, MethodMatcher methodMatcher) {
+        final PreparedTable preparedTable = ReflectionParser.prepare(table, type, methodMatcher);
+        if (preparedTable == null) {
+            return converted(methodMatcher.findConverterFor(parameterType), value);
+        }
+        return new ParameterBinding() {
+            @Override
+            Object resolve(Configuration config, WebDriverLease webDriver) throws InvocationTargetException, IllegalAccessException {
+                return preparedTable.parse();
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.model.StepContainer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The planned steps of a prologue or scenario. A scenario that is referred to from several places is
+ * planned once and shared.
+ */
+public final class PlannedContainer {
+
+    private final StepContainer stepContainer;
+    private final List<PlannedStep> steps;
+
+    PlannedContainer(StepContainer stepContainer, List<PlannedStep> steps) {
+        this.stepContainer = stepContainer;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    public StepContainer getStepContainer() {
+        return stepContainer;
+    }
+
+    public List<PlannedStep> getSteps() {
+        return steps;
+    }
+}
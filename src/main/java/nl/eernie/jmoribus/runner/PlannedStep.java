@@ -0,0 +1,46 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.model.Step;
+
+/**
+ * A step of an {@link ExecutionPlan}: either a bound invocation, a pending step without a matching
+ * step method, or a referring scenario that points to the plan of that scenario.
+ */
+public final class PlannedStep {
+
+    private final Step step;
+    private final StepInvocation invocation;
+    private final PlannedContainer referring;
+
+    PlannedStep(Step step, StepInvocation invocation, PlannedContainer referring) {
+        this.step = step;
+        this.invocation = invocation;
+        this.referring = referring;
+    }
+
+    public Step getStep() {
+        return step;
+    }
+
+    /**
+     * @return the bound invocation, or null when the step is pending or referring
+     */
+    public StepInvocation getInvocation() {
+        return invocation;
+    }
+
+    /**
+     * @return the plan of the referred scenario, or null when this is not a referring step
+     */
+    public PlannedContainer getReferring() {
+        return referring;
+    }
+
+    public boolean isReferring() {
+        return referring != null;
+    }
+
+    public boolean isPending() {
+        return invocation == null && referring == null;
+    }
+}
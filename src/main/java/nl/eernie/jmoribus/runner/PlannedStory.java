@@ -0,0 +1,42 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.model.Story;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class PlannedStory {
+
+    private final Story story;
+    private final PlannedContainer prologue;
+    private final List<PlannedContainer> scenarios;
+
+    PlannedStory(Story story, PlannedContainer prologue, List<PlannedContainer> scenarios) {
+        this.story = story;
+        this.prologue = prologue;
+        this.scenarios = Collections.unmodifiableList(scenarios);
+    }
+
+    public Story getStory() {
+        return story;
+    }
+
+    /**
+     * @return the planned prologue, or null when the story has none
+     */
+    public PlannedContainer getPrologue() {
+        return prologue;
+    }
+
+    public List<PlannedContainer> getScenarios() {
+        return scenarios;
+    }
+
+    /**
+     * @return the same story with its prologue, running only the given scenarios
+     */
+    public PlannedStory withScenarios(List<PlannedContainer> scenarios) {
+        return new PlannedStory(story, prologue, new ArrayList<>(scenarios));
+    }
+}
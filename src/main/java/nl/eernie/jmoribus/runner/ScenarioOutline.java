@@ -0,0 +1,207 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepLine;
+import nl.eernie.jmoribus.model.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A scenario with an examples table, compiled once into templates in which every {@code <column>}
+ * placeholder is replaced by the index of its column. Creating the iteration for a row then only
+ * concatenates the literal parts with the cells of that row.
+ */
+final class ScenarioOutline {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("<([^<>]+)>");
+
+    private final Scenario scenario;
+    private final List<StepTemplate> steps;
+
+    private ScenarioOutline(Scenario scenario, List<StepTemplate> steps) {
+        this.scenario = scenario;
+        this.steps = steps;
+    }
+
+    static boolean isOutline(Scenario scenario) {
+        Table examplesTable = scenario.getExamplesTable();
+        return examplesTable != null && examplesTable.getHeader() != null && !examplesTable.getRows().isEmpty();
+    }
+
+    static ScenarioOutline compile(Scenario scenario) {
+        List<String> header = scenario.getExamplesTable().getHeader();
+        List<StepTemplate> steps = new ArrayList<>(scenario.getSteps().size());
+        for (Step step : scenario.getSteps()) {
+            steps.add(StepTemplate.compile(step, header));
+        }
+        return new ScenarioOutline(scenario, steps);
+    }
+
+    int getIterationCount() {
+        return scenario.getExamplesTable().getRows().size();
+    }
+
+    /**
+     * @return a scenario of the same story whose steps have the placeholders replaced by the cells of the row
+     */
+    Scenario createIteration(int rowIndex) {
+        List<String> row = scenario.getExamplesTable().getRows().get(rowIndex);
+        Scenario iteration = new Scenario();
+        iteration.setTitle(scenario.getTitle() + " [" + (rowIndex + 1) + "]");
+        iteration.setStory(scenario.getStory());
+        for (StepTemplate step : steps) {
+            iteration.getSteps().add(step.render(row, iteration));
+        }
+        return iteration;
+    }
+
+    private static final class StepTemplate {
+
+        private final Step step;
+        private final List<LineTemplate> lines;
+
+        private StepTemplate(Step step, List<LineTemplate> lines) {
+            this.step = step;
+            this.lines = lines;
+        }
+
+        static StepTemplate compile(Step step, List<String> header) {
+            if (step instanceof Scenario) {
+                return new StepTemplate(step, null);
+            }
+            List<LineTemplate> lines = new ArrayList<>(step.getStepLines().size());
+            for (StepLine stepLine : step.getStepLines()) {
+                if (stepLine instanceof Table) {
+                    lines.add(TableTemplate.compile((Table) stepLine, header));
+                } else {
+                    lines.add(TextTemplate.compile(stepLine.getText(), header));
+                }
+            }
+            return new StepTemplate(step, lines);
+        }
+
+        Step render(List<String> row, Scenario iteration) {
+            if (lines == null) {
+                return step;
+            }
+            Step rendered = new Step(step.getStepType());
+            rendered.setStepContainer(iteration);
+            for (LineTemplate line : lines) {
+                rendered.getStepLines().add(line.renderLine(row));
+            }
+            return rendered;
+        }
+    }
+
+    private interface LineTemplate {
+
+        StepLine renderLine(List<String> row);
+    }
+
+    private static final class TableTemplate implements LineTemplate {
+
+        private final List<String> header;
+        private final List<List<TextTemplate>> rows;
+
+        private TableTemplate(List<String> header, List<List<TextTemplate>> rows) {
+            this.header = header;
+            this.rows = rows;
+        }
+
+        static TableTemplate compile(Table table, List<String> examplesHeader) {
+            List<List<TextTemplate>> rows = new ArrayList<>(table.getRows().size());
+            for (List<String> row : table.getRows()) {
+                List<TextTemplate> cells = new ArrayList<>(row.size());
+                for (String cell : row) {
+                    cells.add(TextTemplate.compile(cell, examplesHeader));
+                }
+                rows.add(cells);
+            }
+            return new TableTemplate(table.getHeader(), rows);
+        }
+
+        @Override
+        public StepLine renderLine(List<String> examplesRow) {
+            Table table = new Table();
+            table.setHeader(header);
+            for (List<TextTemplate> cells : rows) {
+                List<String> row = new ArrayList<>(cells.size());
+                for (TextTemplate cell : cells) {
+                    row.add(cell.render(examplesRow));
+                }
+                table.getRows().add(row);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Text split into literal parts with a column index between every two of them. Placeholders without
+     * a matching column are kept as literal text.
+     */
+    private static final class TextTemplate implements LineTemplate {
+
+        private final String[] literals;
+        private final int[] columns;
+        private final int literalLength;
+
+        private TextTemplate(String[] literals, int[] columns, int literalLength) {
+            this.literals = literals;
+            this.columns = columns;
+            this.literalLength = literalLength;
+        }
+
+        static TextTemplate compile(String text, List<String> header) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> columns = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            Matcher matcher = PLACEHOLDER.matcher(text);
+            int position = 0;
+            while (matcher.find()) {
+                literal.append(text, position, matcher.start());
+                int column = header.indexOf(matcher.group(1).trim());
+                if (column < 0) {
+                    literal.append(matcher.group());
+                } else {
+                    literals.add(literal.toString());
+                    columns.add(column);
+                    literal.setLength(0);
+                }
+                position = matcher.end();
+            }
+            literal.append(text, position, text.length());
+            literals.add(literal.toString());
+
+            int[] columnIndexes = new int[columns.size()];
+            int literalLength = 0;
+            for (int i = 0; i < columnIndexes.length; i++) {
+                columnIndexes[i] = columns.get(i);
+            }
+            for (String part : literals) {
+                literalLength += part.length();
+            }
+            return new TextTemplate(literals.toArray(new String[literals.size()]), columnIndexes, literalLength);
+        }
+
+        @Override
+        public StepLine renderLine(List<String> row) {
+            return new Line(render(row));
+        }
+
+        String render(List<String> row) {
+            if (columns.length == 0) {
+                return literals[0];
+            }
+            StringBuilder builder = new StringBuilder(literalLength + columns.length * 16);
+            for (int i = 0; i < columns.length; i++) {
+                builder.append(literals[i]).append(row.get(columns[i]));
+            }
+            return builder.append(literals[columns.length]).toString();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package nl.eernie.jmoribus.runner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns keys to shards with rendezvous hashing: every shard scores the key and the highest score wins.
+ * The score only depends on the key and the shard, so adding stories never moves other stories and changing
+ * the shard count only moves the keys that have to move. The hash is computed from the UTF-8 bytes, every
+ * JVM therefore assigns a key to the same shard.
+ */
+public final class Sharding {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private Sharding() {
+    }
+
+    public static int shardOf(String key, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1, was " + shardCount);
+        }
+        long keyHash = hash(key);
+        int winner = 0;
+        long highestScore = Long.MIN_VALUE;
+        for (int shard = 0; shard < shardCount; shard++) {
+            long score = mix(keyHash ^ (shard + 1) * GOLDEN_GAMMA);
+            if (score > highestScore) {
+                highestScore = score;
+                winner = shard;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Assigns the keys longest first to the shard with the least expected duration so far. Keys with the same
+     * duration are taken in alphabetical order and ties between shards go to the lowest index, so every shard
+     * computes the same assignment from the same durations.
+     *
+     * @return the shard of every key
+     */
+    public static Map<String, Integer> balance(final Map<String, Long> expectedMillis, int shardCount) {
+        List<String> keys = new ArrayList<>(expectedMillis.keySet());
+        Collections.sort(keys, new Comparator<String>() {
+            @Override
+            public int compare(String first, String second) {
+                int compared = Long.compare(expectedMillis.get(second), expectedMillis.get(first));
+                return compared != 0 ? compared : first.compareTo(second);
+            }
+        });
+        long[] load = new long[shardCount];
+        Map<String, Integer> shards = new HashMap<>();
+        for (String key : keys) {
+            int lightest = 0;
+            for (int shard = 1; shard < shardCount; shard++) {
+                if (load[shard] < load[lightest]) {
+                    lightest = shard;
+                }
+            }
+            load[lightest] += expectedMillis.get(key);
+            shards.put(key, lightest);
+        }
+        return shards;
+    }
+
+    /**
+     * @return the key of a scenario, which stays the same when other scenarios are added to its story
+     */
+    public static String scenarioKey(String storyIdentifier, String scenarioTitle) {
+        return storyIdentifier + '\n' + scenarioTitle;
+    }
+
+    private static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreads every input bit over the whole result.
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
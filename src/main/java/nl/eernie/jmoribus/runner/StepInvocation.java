@@ -0,0 +1,70 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.configuration.Configuration;
+import nl.eernie.jmoribus.matcher.PossibleStep;
+import nl.eernie.jmoribus.model.Step;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A step bound to its step method, the argument strings extracted from the step text and the way every
+ * parameter is supplied. A step that could not be bound keeps the error, it is thrown when the step is run
+ * so it is reported at the same moment as before.
+ */
+public final class StepInvocation {
+
+    private final PossibleStep possibleStep;
+    private final Step step;
+    private final List<String> arguments;
+    private final ParameterBinding[] bindings;
+    private final RuntimeException bindingError;
+
+    StepInvocation(PossibleStep possibleStep, Step step, List<String> arguments, ParameterBinding[] bindings, RuntimeException bindingError) {
+        this.possibleStep = possibleStep;
+        this.step = step;
+        this.arguments = Collections.unmodifiableList(arguments);
+        this.bindings = bindings;
+        this.bindingError = bindingError;
+    }
+
+    public PossibleStep getPossibleStep() {
+        return possibleStep;
+    }
+
+    public Step getStep() {
+        return step;
+    }
+
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    public RuntimeException getBindingError() {
+        return bindingError;
+    }
+
+    /**
+     * @return true when the step method takes a {@link org.openqa.selenium.WebDriver}
+     */
+    public boolean needsWebDriver() {
+        for (ParameterBinding binding : bindings) {
+            if (binding != null && binding.isWebDriver()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Object[] createParameters(Configuration config, WebDriverLease webDriver) throws InvocationTargetException, IllegalAccessException {
+        if (bindingError != null) {
+            throw bindingError;
+        }
+        Object[] parameters = new Object[bindings.length];
+        for (int i = 0; i < bindings.length; i++) {
+            parameters[i] = bindings[i].resolve(config, webDriver);
+        }
+        return parameters;
+    }
+}
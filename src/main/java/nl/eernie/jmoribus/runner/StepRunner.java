@@ -6,17 +6,16 @@ import nl.eernie.jmoribus.matcher.BeforeAfterMethod;
 import nl.eernie.jmoribus.matcher.BeforeAfterType;
 import nl.eernie.jmoribus.matcher.MethodMatcher;
 import nl.eernie.jmoribus.matcher.ParameterConverter;
+import nl.eernie.jmoribus.matcher.ParameterType;
 import nl.eernie.jmoribus.matcher.PossibleStep;
 import nl.eernie.jmoribus.model.Step;
 import nl.eernie.jmoribus.model.StepLine;
 import nl.eernie.jmoribus.model.Table;
-import nl.eernie.jmoribus.parser.ReflectionParser;
 import org.apache.commons.lang3.ArrayUtils;
 import org.openqa.selenium.WebDriver;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Iterator;
 import java.util.List;
 
 public class StepRunner {
@@ -31,41 +30,69 @@ public class StepRunner {
 
     public void run(PossibleStep matchedStep, Step step) throws Throwable {
         List<String> parameterValues = matchedStep.getRegexStepMatcher().getParameterValues(step);
-        Object[] parameters = createParameters(matchedStep.getMethod(), parameterValues, step);
-        matchedStep.getMethod().invoke(matchedStep.getMethodObject(), parameters);
+        run(bind(matchedStep, step, parameterValues));
     }
 
-    private Object[] createParameters(Method method, List<String> parameterValues, Step step) throws InvocationTargetException, IllegalAccessException {
+    public void run(StepInvocation invocation) throws Throwable {
+        run(invocation, null);
+    }
+
+    void run(StepInvocation invocation, WebDriverLease webDriver) throws Throwable {
+        Object[] parameters = invocation.createParameters(config, webDriver);
+        invocation.getPossibleStep().getInvoker().invoke(parameters);
+    }
+
+    /**
+     * Decides once how every parameter of the step method is supplied. Errors are kept in the invocation
+     * instead of being thrown, they belong to the moment the step is run.
+     */
+    public StepInvocation bind(PossibleStep matchedStep, Step step, List<String> parameterValues) {
+        Method method = matchedStep.getMethod();
         Class<?>[] parameterTypes = method.getParameterTypes();
-        Object[] parameters = new Object[parameterTypes.length];
+        ParameterBinding[] bindings = new ParameterBinding[parameterTypes.length];
         int extraValues = ArrayUtils.contains(parameterTypes, WebDriver.class) ? 1 : 0;
         if (parameterValues.size() + extraValues != parameterTypes.length) {
-            throw new RuntimeException("Velden en waarden komen niet overeen"); //TODO: refactor me
+            RuntimeException error = new RuntimeException("Velden en waarden komen niet overeen"); //TODO: refactor me
+            return new StepInvocation(matchedStep, step, parameterValues, bindings, error);
         }
-        Iterator<String> values = parameterValues.iterator();
-        for (int i = 0; i < parameterTypes.length; i++) {
-            Class<?> parameterType = parameterTypes[i];
-            if (parameterType.equals(WebDriver.class)) {
-                parameters[i] = config.getWebDriver();
-            } else {
-                String parameterValue = values.next();
-                if (parameterType.equals(String.class)) {
-                    parameters[i] = parameterValue;
-                } else if (parameterType.equals(Table.class)) {
-                    StepLine table = getTable(step, parameterValue);
-                    parameters[i] = table;
-                } else if (parameterValue.startsWith("TABLE")) {
-                    StepLine table = getTable(step, parameterValue);
-                    Object object = ReflectionParser.parse((Table) table, method.getGenericParameterTypes()[i], methodMatcher);
-                    parameters[i] = object;
-                }
-                if (parameters[i] == null) {
-                    ParameterConverter converter = methodMatcher.findConverterFor(parameterType);
-                    parameters[i] = converter.convert(parameterValue);
+        try {
+            int valueIndex = 0;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Class<?> parameterType = parameterTypes[i];
+                if (parameterType.equals(WebDriver.class)) {
+                    bindings[i] = ParameterBinding.webDriver();
+                } else {
+                    ParameterType placeholderType = matchedStep.getRegexStepMatcher().getParameterType(valueIndex);
+                    bindings[i] = bindValue(method, i, parameterType, placeholderType, parameterValues.get(valueIndex), step);
+                    valueIndex++;
                 }
             }
+        } catch (RuntimeException e) {
+            return new StepInvocation(matchedStep, step, parameterValues, bindings, e);
+        }
+        return new StepInvocation(matchedStep, step, parameterValues, bindings, null);
+    }
+
+    private ParameterBinding bindValue(Method method, int index, Class<?> parameterType, ParameterType placeholderType, String parameterValue, Step step) {
+        if (placeholderType != null && placeholderType.canConvertTo(parameterType) && !parameterType.equals(String.class)) {
+            ParameterConverter converter = methodMatcher.findConverterMethodFor(parameterType);
+            if (converter != null) {
+                return ParameterBinding.converted(converter, parameterValue);
+            }
+            Object value = placeholderType.convert(parameterValue, parameterType);
+            if (placeholderType.isMutable(parameterType)) {
+                return ParameterBinding.placeholder(placeholderType, parameterValue, parameterType);
+            }
+            return ParameterBinding.constant(value);
+        } else if (parameterType.equals(String.class)) {
+            return ParameterBinding.constant(parameterValue);
+        } else if (parameterType.equals(Table.class)) {
+            return ParameterBinding.constant(getTable(step, parameterValue));
+        } else if (parameterValue.startsWith("TABLE")) {
+            Table table = (Table) getTable(step, parameterValue);
+            return ParameterBinding.tableObject(table, method.getGenericParameterTypes()[index], parameterType, parameterValue, methodMatcher);
         }
-        return parameters;
+        return ParameterBinding.converted(methodMatcher.findConverterFor(parameterType), parameterValue);
     }
 
     private StepLine getTable(Step step, String parameterValue) {
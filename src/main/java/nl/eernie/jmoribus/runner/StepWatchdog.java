@@ -0,0 +1,82 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.context.ContextProvider;
+import nl.eernie.jmoribus.context.CopyableContextProvider;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a step on a separate thread while the calling thread watches its deadline. A step that overruns is
+ * interrupted and abandoned, the caller continues with a {@link nl.eernie.jmoribus.exception.StepTimeoutException}.
+ * <p>
+ * The step sees a copy of the context of the caller, the variables it sets are copied back when it finishes
+ * in time. The threads are created on first use and end after being idle for a minute.
+ */
+final class StepWatchdog {
+
+    private final ContextProvider contextProvider;
+    private ExecutorService executor;
+
+    StepWatchdog(ContextProvider contextProvider) {
+        this.contextProvider = contextProvider;
+    }
+
+    void run(final StepRunner stepRunner, final StepInvocation invocation, final WebDriverLease webDriver, Deadline deadline) throws Throwable {
+        final CopyableContextProvider contextProvider = ContextSnapshot.copyable(this.contextProvider);
+        ContextSnapshot snapshot = ContextSnapshot.capture(contextProvider);
+        Future<Outcome> future = executor().submit(snapshot.wrap(new Callable<Outcome>() {
+            @Override
+            public Outcome call() {
+                try {
+                    stepRunner.run(invocation, webDriver);
+                } catch (Throwable e) {
+                    return new Outcome(null, e);
+                }
+                return new Outcome(contextProvider.getVariables(), null);
+            }
+        }));
+        Outcome outcome;
+        try {
+            outcome = future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw deadline.exceeded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        if (outcome.failure != null) {
+            throw outcome.failure;
+        }
+        contextProvider.setVariables(outcome.variables);
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = WorkerPools.newCachedPool("step");
+        }
+        return executor;
+    }
+
+    /**
+     * What the step left behind: the variables it set, or what it threw, as it threw it.
+     */
+    private static final class Outcome {
+
+        private final Map<String, String> variables;
+        private final Throwable failure;
+
+        private Outcome(Map<String, String> variables, Throwable failure) {
+            this.variables = variables;
+            this.failure = failure;
+        }
+    }
+}
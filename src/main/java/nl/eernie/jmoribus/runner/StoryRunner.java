@@ -0,0 +1,499 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.configuration.Configuration;
+import nl.eernie.jmoribus.exception.StepTimeoutException;
+import nl.eernie.jmoribus.matcher.BeforeAfterType;
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+import nl.eernie.jmoribus.matcher.PossibleStep;
+import nl.eernie.jmoribus.model.Prologue;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.ConcurrentReporter;
+import nl.eernie.jmoribus.webdriver.WebDriverPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a single planned story, including its hooks, prologue and scenarios.
+ * One instance is shared by all workers when stories run in parallel, so it keeps no state per story.
+ * <p>
+ * Without a scenario executor the scenarios run in sequence on the calling thread after a single prologue.
+ * With one, every scenario runs on a worker in its own copy of the story context and replays the prologue
+ * and the scenario hooks there; the story callbacks still wrap all scenarios of the story.
+ * <p>
+ * A failed prologue or scenario counts as one failure for {@link Configuration#getMaxFailures()}. When steps
+ * are skipped after a failure, a failed prologue also skips the steps of the scenarios that follow it.
+ * <p>
+ * A step that exceeds its own timeout, or the remaining time of its scenario or story, is abandoned by the
+ * {@link StepWatchdog} and reported as an error; the rest of that scenario is skipped.
+ * <p>
+ * With an incremental cache directory a story whose fingerprint matches its last passing run is not run,
+ * its scenarios are reported as cached passes instead.
+ * <p>
+ * With {@link Configuration#getCategoryLimits() category limits} a scenario only starts when the categories of
+ * its steps have capacity left. Scenarios run concurrently are admitted in order of capacity, so the ones that
+ * use no exhausted category overtake those that wait; the limits also hold across stories run in parallel.
+ * <p>
+ * With a {@link Configuration#getWebDriverPool() web driver pool} every scenario whose plan has a step taking a
+ * driver leases one at its first such step and returns it when it ends. A prologue that runs once for the
+ * scenarios that follow it keeps its driver for all of them, so they continue in the browser state it left.
+ * <p>
+ * A failed scenario is run again up to {@link Configuration#getScenarioRetries()} times, every attempt from the
+ * prologue in a fresh copy of the context the story started with. Only the last attempt counts as a failure.
+ */
+public class StoryRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoryRunner.class);
+
+    private final Configuration config;
+    private final StepRunner stepRunner;
+    private final ConcurrentReporter reporter;
+    private final ExecutorService scenarioExecutor;
+    private final StepWatchdog watchdog;
+    private final DurationHistory durationHistory;
+    private final FlakinessHistory flakinessHistory;
+    private final IncrementalCache incrementalCache;
+    private final CategoryLimits categoryLimits;
+    private final WebDriverPool webDriverPool;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public StoryRunner(MethodMatcher methodMatcher, Configuration config) {
+        this(methodMatcher, config, null);
+    }
+
+    public StoryRunner(MethodMatcher methodMatcher, Configuration config, ExecutorService scenarioExecutor) {
+        this(methodMatcher, config, scenarioExecutor, null);
+    }
+
+    /**
+     * @param durationHistory records the durations of the stories and scenarios, and orders concurrently run
+     * scenarios longest first; may be null
+     */
+    public StoryRunner(MethodMatcher methodMatcher, Configuration config, ExecutorService scenarioExecutor, DurationHistory durationHistory) {
+        this(methodMatcher, config, scenarioExecutor, durationHistory, null);
+    }
+
+    /**
+     * @param flakinessHistory records for every scenario whether it only passed after a retry; may be null
+     */
+    public StoryRunner(MethodMatcher methodMatcher, Configuration config, ExecutorService scenarioExecutor, DurationHistory durationHistory, FlakinessHistory flakinessHistory) {
+        this.config = config;
+        this.durationHistory = durationHistory;
+        this.flakinessHistory = flakinessHistory;
+        this.stepRunner = new StepRunner(methodMatcher, config);
+        this.reporter = config.getConcurrentReporter();
+        this.scenarioExecutor = scenarioExecutor;
+        this.watchdog = new StepWatchdog(config.getContextProvider());
+        this.incrementalCache = config.getIncrementalCacheDirectory() == null ? null : new IncrementalCache(config.getIncrementalCacheDirectory(), methodMatcher);
+        Map<String, Integer> limits = config.getCategoryLimits();
+        this.categoryLimits = limits == null || limits.isEmpty() ? null : new CategoryLimits(limits);
+        this.webDriverPool = config.getWebDriverPool();
+    }
+
+    public void runStory(PlannedStory plannedStory) {
+        Story story = plannedStory.getStory();
+        if (isMaxFailuresReached()) {
+            LOGGER.warn("Not starting story {}, {} scenarios failed already", story.getUniqueIdentifier(), failures.get());
+            return;
+        }
+        if (incrementalCache != null && incrementalCache.isPassed(plannedStory)) {
+            reportCachedPass(plannedStory);
+            return;
+        }
+        long start = System.nanoTime();
+        reporter.beforeStory(story);
+        if (story.getFeature() != null) {
+            reporter.feature(story.getFeature());
+        }
+        stepRunner.runBeforeAfter(BeforeAfterType.BEFORE_STORY);
+        Deadline storyDeadline = Deadline.after("Story", config.getStoryTimeout());
+        boolean passed;
+        if (scenarioExecutor == null) {
+            Map<String, String> storyVariables = storyVariables();
+            ExecutionState prologueState = new ExecutionState(false, storyDeadline, leaseWebDriver(plannedStory.getPrologue()));
+            try {
+                Set<String> categories = acquireCategories(plannedStory.getPrologue());
+                try {
+                    runPrologue(plannedStory.getPrologue(), prologueState);
+                } finally {
+                    releaseCategories(categories);
+                }
+                countFailure(prologueState);
+                passed = prologueState.isPassed();
+                for (PlannedContainer scenario : plannedStory.getScenarios()) {
+                    categories = acquireCategories(scenario, config.getScenarioRetries() > 0 ? plannedStory.getPrologue() : null);
+                    try {
+                        passed &= runScenario(scenario, plannedStory.getPrologue(), prologueState, storyVariables, storyDeadline);
+                    } finally {
+                        releaseCategories(categories);
+                    }
+                }
+            } finally {
+                releaseWebDriver(prologueState.webDriver);
+            }
+        } else {
+            passed = runScenariosInParallel(plannedStory, storyDeadline);
+        }
+        reporter.afterStory(story);
+        stepRunner.runBeforeAfter(BeforeAfterType.AFTER_STORY);
+        if (durationHistory != null) {
+            durationHistory.recordStory(story.getUniqueIdentifier(), millisSince(start));
+        }
+        if (incrementalCache != null) {
+            incrementalCache.record(plannedStory, passed);
+        }
+    }
+
+    private void reportCachedPass(PlannedStory plannedStory) {
+        Story story = plannedStory.getStory();
+        reporter.beforeStory(story);
+        if (story.getFeature() != null) {
+            reporter.feature(story.getFeature());
+        }
+        for (PlannedContainer scenario : plannedStory.getScenarios()) {
+            reporter.cachedScenario((Scenario) scenario.getStepContainer());
+        }
+        reporter.afterStory(story);
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    public boolean isMaxFailuresReached() {
+        return config.getMaxFailures() > 0 && failures.get() >= config.getMaxFailures();
+    }
+
+    private Set<String> acquireCategories(PlannedContainer... containers) {
+        if (categoryLimits == null) {
+            return Collections.emptySet();
+        }
+        Set<String> categories = categoryLimits.categoriesOf(containers);
+        try {
+            categoryLimits.acquire(categories);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the categories " + categories, e);
+        }
+        return categories;
+    }
+
+    private void releaseCategories(Set<String> categories) {
+        if (categoryLimits != null) {
+            categoryLimits.release(categories);
+        }
+    }
+
+    /**
+     * @return true when all scenarios passed
+     */
+    private boolean runScenariosInParallel(final PlannedStory plannedStory, final Deadline storyDeadline) {
+        ContextSnapshot snapshot = ContextSnapshot.capture(config.getContextProvider());
+        List<PlannedContainer> scenarios = plannedStory.getScenarios();
+        if (durationHistory != null) {
+            scenarios = durationHistory.longestFirst(plannedStory);
+        }
+        final AtomicBoolean passed = new AtomicBoolean(true);
+        List<Future<?>> futures = new ArrayList<>(scenarios.size());
+        List<PlannedContainer> waiting = new LinkedList<>(scenarios);
+        while (!waiting.isEmpty()) {
+            final PlannedContainer scenario = admitNext(waiting, plannedStory.getPrologue());
+            futures.add(scenarioExecutor.submit(snapshot.wrap(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!runScenario(scenario, plannedStory.getPrologue(), null, storyVariables(), storyDeadline)) {
+                            passed.set(false);
+                        }
+                    } finally {
+                        if (categoryLimits != null) {
+                            categoryLimits.release(categoryLimits.categoriesOf(scenario, plannedStory.getPrologue()));
+                        }
+                    }
+                }
+            })));
+        }
+        WorkerPools.awaitAll(futures);
+        return passed.get();
+    }
+
+    private PlannedContainer admitNext(List<PlannedContainer> waiting, PlannedContainer prologue) {
+        if (categoryLimits == null) {
+            return waiting.remove(0);
+        }
+        try {
+            return categoryLimits.admitNext(waiting, prologue);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to admit a scenario", e);
+        }
+    }
+
+    /**
+     * @return a copy of the context to start retries from, or null when scenarios are not retried
+     */
+    private Map<String, String> storyVariables() {
+        if (config.getScenarioRetries() <= 0) {
+            return null;
+        }
+        return ContextSnapshot.copyable(config.getContextProvider()).getVariables();
+    }
+
+    /**
+     * Runs the scenario, and again while it fails and retries are left.
+     *
+     * @param prologueState the outcome of the prologue that ran once already, null when the prologue is replayed
+     * before every attempt
+     * @param storyVariables the context before the prologue, every retry starts from a copy of it; null without
+     * retries
+     * @return true when the scenario passed
+     */
+    private boolean runScenario(PlannedContainer plannedScenario, PlannedContainer prologue, ExecutionState prologueState, Map<String, String> storyVariables, Deadline storyDeadline) {
+        Scenario scenario = (Scenario) plannedScenario.getStepContainer();
+        long start = System.nanoTime();
+        int attempt = 1;
+        ExecutionState state = runAttempt(plannedScenario, prologueState == null ? prologue : null, prologueState, attempt, storyDeadline);
+        while (state.retried) {
+            ContextSnapshot.copyable(config.getContextProvider()).setVariables(storyVariables);
+            attempt++;
+            state = runAttempt(plannedScenario, prologue, null, attempt, storyDeadline);
+        }
+        countFailure(state);
+        if (durationHistory != null) {
+            durationHistory.recordScenario(scenario.getStory().getUniqueIdentifier(), scenario.getTitle(), millisSince(start));
+        }
+        if (flakinessHistory != null) {
+            flakinessHistory.record(scenario.getStory().getUniqueIdentifier(), scenario.getTitle(), attempt > 1 && state.isPassed());
+        }
+        return state.isPassed();
+    }
+
+    /**
+     * @param prologue the prologue to replay before the scenario, null when it ran once already
+     * @param prologueState the outcome of the prologue that ran once already, null when it is replayed
+     */
+    private ExecutionState runAttempt(PlannedContainer plannedScenario, PlannedContainer prologue, ExecutionState prologueState, int attempt, Deadline storyDeadline) {
+        Scenario scenario = (Scenario) plannedScenario.getStepContainer();
+        Deadline deadline = Deadline.after("Scenario", config.getScenarioTimeout()).earliest(storyDeadline);
+        ExecutionState state;
+        if (prologueState == null) {
+            state = new ExecutionState(false, deadline, leaseWebDriver(plannedScenario, prologue));
+        } else if (prologueState.webDriver == null) {
+            state = new ExecutionState(prologueState.failed, deadline, leaseWebDriver(plannedScenario));
+        } else {
+            state = new ExecutionState(prologueState.failed, deadline, prologueState.webDriver);
+        }
+        try {
+            reporter.beforeScenario(scenario);
+            runPrologue(prologue, state);
+            stepRunner.runBeforeAfter(BeforeAfterType.BEFORE_SCENARIO);
+            runStepContainer(plannedScenario, state);
+            if (state.failed && attempt <= config.getScenarioRetries() && !storyDeadline.isExpired()) {
+                state.retried = true;
+                reporter.retryScenario(scenario, attempt);
+            } else if (attempt > 1 && state.isPassed()) {
+                reporter.flakyScenario(scenario, attempt);
+            }
+            reporter.afterScenario(scenario);
+            stepRunner.runBeforeAfter(BeforeAfterType.AFTER_SCENARIO);
+        } finally {
+            if (prologueState == null || state.webDriver != prologueState.webDriver) {
+                releaseWebDriver(state.webDriver);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * @return a lease when there is a pool and one of the containers has a step taking a driver, null otherwise
+     */
+    private WebDriverLease leaseWebDriver(PlannedContainer... containers) {
+        if (webDriverPool == null) {
+            return null;
+        }
+        for (PlannedContainer container : containers) {
+            if (container != null && needsWebDriver(container, Collections.newSetFromMap(new IdentityHashMap<PlannedContainer, Boolean>()))) {
+                return new WebDriverLease(webDriverPool);
+            }
+        }
+        return null;
+    }
+
+    private static boolean needsWebDriver(PlannedContainer container, Set<PlannedContainer> visiting) {
+        if (!visiting.add(container)) {
+            return false;
+        }
+        for (PlannedStep step : container.getSteps()) {
+            if (step.isReferring() ? needsWebDriver(step.getReferring(), visiting) : step.getInvocation() != null && step.getInvocation().needsWebDriver()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void releaseWebDriver(WebDriverLease webDriver) {
+        if (webDriver != null) {
+            webDriver.release();
+        }
+    }
+
+    private void runPrologue(PlannedContainer plannedPrologue, ExecutionState state) {
+        if (plannedPrologue != null) {
+            Prologue prologue = (Prologue) plannedPrologue.getStepContainer();
+            reporter.beforePrologue(prologue);
+            runStepContainer(plannedPrologue, state);
+            reporter.afterPrologue(prologue);
+        }
+    }
+
+    private void countFailure(ExecutionState state) {
+        if (state.failedHere) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private void runStepContainer(PlannedContainer plannedContainer, ExecutionState state) {
+        StepContainer stepContainer = plannedContainer.getStepContainer();
+        for (PlannedStep plannedStep : plannedContainer.getSteps()) {
+            Step step = plannedStep.getStep();
+            if (plannedStep.isReferring()) {
+                Scenario referringScenario = (Scenario) step;
+                reporter.beforeReferringScenario(stepContainer, referringScenario);
+                runStepContainer(plannedStep.getReferring(), state);
+                reporter.afterReferringScenario(stepContainer, referringScenario);
+                continue;
+            }
+            reporter.beforeStep(step);
+            if (state.timedOut || state.failed && config.isSkipStepsAfterFailure()) {
+                reporter.skippedStep(step);
+                continue;
+            }
+            StepInvocation invocation = plannedStep.getInvocation();
+            if (invocation == null) {
+                state.pending = true;
+                reporter.pendingStep(step);
+                continue;
+            }
+            Deadline deadline = stepDeadline(invocation.getPossibleStep()).earliest(state.deadline);
+            if (deadline.isExpired()) {
+                state.timeOut();
+                reporter.errorStep(step, deadline.exceeded());
+            } else {
+                runStep(invocation, state, deadline);
+            }
+        }
+    }
+
+    private Deadline stepDeadline(PossibleStep possibleStep) {
+        long timeout = possibleStep.getTimeout() > 0 ? possibleStep.getTimeout() : config.getStepTimeout();
+        return Deadline.after("Step", timeout);
+    }
+
+    private void runStep(StepInvocation invocation, ExecutionState state, Deadline deadline) {
+        Step step = invocation.getStep();
+        PossibleStep matchedStep = invocation.getPossibleStep();
+        List<String> missingRequiredVariables = checkMissingVariables(matchedStep.getRequiredVariables());
+        if (missingRequiredVariables.isEmpty()) {
+            try {
+                if (deadline.isNone()) {
+                    stepRunner.run(invocation, state.webDriver);
+                } else {
+                    watchdog.run(stepRunner, invocation, state.webDriver, deadline);
+                }
+
+                List<String> missingOutputVariables = checkMissingVariables(matchedStep.getOutputVariables());
+                if (missingOutputVariables.isEmpty()) {
+                    reporter.successStep(step);
+                } else {
+                    String error = "Missing output variables: " + missingOutputVariables;
+                    state.fail();
+                    reporter.errorStep(step, error);
+                }
+            } catch (AssertionError e) {
+                state.fail();
+                reporter.failedStep(step, e);
+            } catch (StepTimeoutException e) {
+                state.timeOut();
+                reporter.errorStep(step, e);
+            } catch (Throwable e) {
+                state.fail();
+                if (e.getCause() instanceof AssertionError) {
+                    reporter.failedStep(step, (AssertionError) e.getCause());
+                } else {
+                    reporter.errorStep(step, e);
+                }
+            }
+        } else {
+            String error = "Missing required variables: " + missingRequiredVariables;
+            state.fail();
+            reporter.errorStep(step, error);
+        }
+    }
+
+    private List<String> checkMissingVariables(String[] variablesToCheck) {
+        List<String> missingRequiredVariables = new ArrayList<>();
+        if (variablesToCheck != null) {
+
+            List<String> requiredVariables = Arrays.asList(variablesToCheck);
+
+            for (String requiredVariable : requiredVariables) {
+                if (!config.getContextProvider().isVariableSet(requiredVariable)) {
+                    missingRequiredVariables.add(requiredVariable);
+                }
+            }
+        }
+        return missingRequiredVariables;
+    }
+
+    /**
+     * Failure state of one prologue or scenario run, only touched by the thread running it.
+     * A run that starts after a failed prologue is failed, but that failure was counted already.
+     * After a timeout the remaining steps of the run are skipped.
+     */
+    private static final class ExecutionState {
+
+        private final Deadline deadline;
+        private final WebDriverLease webDriver;
+        private boolean failed;
+        private boolean failedHere;
+        private boolean timedOut;
+        private boolean pending;
+        private boolean retried;
+
+        private ExecutionState(boolean failed, Deadline deadline, WebDriverLease webDriver) {
+            this.failed = failed;
+            this.deadline = deadline;
+            this.webDriver = webDriver;
+        }
+
+        private void fail() {
+            failed = true;
+            failedHere = true;
+        }
+
+        private void timeOut() {
+            fail();
+            timedOut = true;
+        }
+
+        private boolean isPassed() {
+            return !failed && !pending;
+        }
+    }
+}
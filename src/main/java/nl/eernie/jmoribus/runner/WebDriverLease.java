@@ -0,0 +1,37 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.webdriver.WebDriverPool;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * The driver of one scenario run. It is leased from the pool when the first step asks for it and returned when
+ * the run ends, so a scenario only holds a driver from its first browser step on.
+ */
+final class WebDriverLease {
+
+    private final WebDriverPool pool;
+    private WebDriver driver;
+
+    WebDriverLease(WebDriverPool pool) {
+        this.pool = pool;
+    }
+
+    synchronized WebDriver get() {
+        if (driver == null) {
+            try {
+                driver = pool.lease();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a web driver", e);
+            }
+        }
+        return driver;
+    }
+
+    synchronized void release() {
+        if (driver != null) {
+            pool.release(driver);
+            driver = null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.configuration.ExecutorMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the worker pools used to run stories and scenarios concurrently.
+ */
+public final class WorkerPools {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerPools.class);
+
+    private static final Method VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    private WorkerPools() {
+    }
+
+    public static ExecutorService newPool(String name, int threads, ExecutorMode executorMode) {
+        if (executorMode == ExecutorMode.VIRTUAL_THREADS) {
+            return newVirtualThreadPool(name);
+        }
+        return Executors.newFixedThreadPool(threads, new WorkerThreadFactory(name));
+    }
+
+    /**
+     * @return a pool that starts a thread for every task that finds no idle one, idle threads end after a minute
+     */
+    public static ExecutorService newCachedPool(String name) {
+        return Executors.newCachedThreadPool(new WorkerThreadFactory(name));
+    }
+
+    private static ExecutorService newVirtualThreadPool(String name) {
+        if (VIRTUAL_THREAD_EXECUTOR == null) {
+            LOGGER.warn("Virtual threads need a Java 21 runtime, running the {} workers on platform threads", name);
+            return newCachedPool(name);
+        }
+        try {
+            return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor", e);
+        }
+    }
+
+    private static Method findVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Waits for all futures, also when one of them failed, and rethrows the first failure afterwards.
+     */
+    public static void awaitAll(List<Future<?>> futures) {
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for workers to finish", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("Worker failed outside of a step", e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        private WorkerThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jmoribus-" + name + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package nl.eernie.jmoribus.webdriver;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Creates and maintains the drivers of a {@link WebDriverPool}.
+ */
+public interface WebDriverFactory {
+
+    WebDriver create();
+
+    /**
+     * Brings a driver back to a clean state after a scenario used it, for example by deleting its cookies and
+     * opening a blank page.
+     */
+    void reset(WebDriver driver);
+
+    /**
+     * @return false when the driver can not be used anymore, it is quit and replaced by a new one when needed
+     */
+    boolean isHealthy(WebDriver driver);
+}
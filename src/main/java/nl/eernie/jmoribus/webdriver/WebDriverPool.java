@@ -0,0 +1,150 @@
+package nl.eernie.jmoribus.webdriver;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps at most a fixed number of drivers, created by a {@link WebDriverFactory} when no idle driver is left.
+ * A returned driver is reset and checked before it is handed out again; a driver that fails either is quit.
+ * The pool outlives a run, so its drivers stay warm until it is closed.
+ */
+public class WebDriverPool implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverPool.class);
+
+    private final WebDriverFactory factory;
+    private final int maxDrivers;
+    private final Deque<WebDriver> idle = new ArrayDeque<>();
+    private int drivers;
+    private boolean closed;
+
+    public WebDriverPool(WebDriverFactory factory, int maxDrivers) {
+        if (maxDrivers < 1) {
+            throw new IllegalArgumentException("A pool needs at least one driver, got " + maxDrivers);
+        }
+        this.factory = factory;
+        this.maxDrivers = maxDrivers;
+    }
+
+    /**
+     * Creates drivers until the given number is idle, or the pool is full.
+     */
+    public void warmUp(int count) {
+        while (true) {
+            synchronized (this) {
+                if (closed || idle.size() >= count || drivers >= maxDrivers) {
+                    return;
+                }
+                drivers++;
+            }
+            makeIdle(create());
+        }
+    }
+
+    /**
+     * Takes an idle driver, or creates one when the pool is not full. Waits for a driver to be released
+     * otherwise.
+     */
+    public WebDriver lease() throws InterruptedException {
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("The web driver pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    return idle.pop();
+                }
+                if (drivers < maxDrivers) {
+                    drivers++;
+                    break;
+                }
+                wait();
+            }
+        }
+        return create();
+    }
+
+    private WebDriver create() {
+        try {
+            return factory.create();
+        } catch (RuntimeException | Error e) {
+            discarded();
+            throw e;
+        }
+    }
+
+    /**
+     * Resets the driver and makes it available again, or quits it when it is unhealthy or the pool is closed.
+     */
+    public void release(WebDriver driver) {
+        boolean healthy;
+        try {
+            factory.reset(driver);
+            healthy = factory.isHealthy(driver);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to reset web driver, replacing it", e);
+            healthy = false;
+        }
+        if (healthy) {
+            makeIdle(driver);
+        } else {
+            quit(driver);
+            discarded();
+        }
+    }
+
+    private void makeIdle(WebDriver driver) {
+        synchronized (this) {
+            if (!closed) {
+                idle.push(driver);
+                notifyAll();
+                return;
+            }
+        }
+        quit(driver);
+        discarded();
+    }
+
+    private synchronized void discarded() {
+        drivers--;
+        notifyAll();
+    }
+
+    /**
+     * @return the number of drivers that exist, both idle and leased
+     */
+    public synchronized int size() {
+        return drivers;
+    }
+
+    /**
+     * Quits the idle drivers; leased drivers are quit when they are released.
+     */
+    @Override
+    public void close() {
+        Deque<WebDriver> toQuit;
+        synchronized (this) {
+            closed = true;
+            toQuit = new ArrayDeque<>(idle);
+            drivers -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        for (WebDriver driver : toQuit) {
+            quit(driver);
+        }
+    }
+
+    private static void quit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to quit web driver", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package nl.eernie.jmoribus;
+
+import nl.eernie.jmoribus.annotation.Category;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import nl.eernie.jmoribus.reporter.Reporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class CategoryLimitTest {
+
+    private final DefaultConfiguration configuration = new DefaultConfiguration();
+    private final Steps steps = new Steps();
+
+    @Test
+    public void testLimitedScenariosDoNotHoldBackOthers() {
+        configuration.setScenarioThreads(4);
+        configuration.setCategoryLimit("browser", 1);
+        Reporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(steps));
+
+        Story story = createStory("story");
+        for (int i = 0; i < 4; i++) {
+            addScenario(story, "browser " + i, "the browser is used");
+        }
+        for (int i = 0; i < 4; i++) {
+            addScenario(story, "plain " + i, "plain work is done");
+        }
+        new JMoribus(configuration).runStories(Arrays.asList(story));
+
+        Mockito.verify(reporter, times(8)).successStep(any(Step.class));
+        Mockito.verify(reporter, never()).failedStep(any(Step.class), any(AssertionError.class));
+        Assert.assertEquals(1, steps.maxBrowsers.get());
+        Assert.assertTrue(steps.maxRunning.get() > 1);
+    }
+
+    @Test
+    public void testLimitHoldsAcrossStories() {
+        configuration.setStoryThreads(3);
+        configuration.setCategoryLimit("browser", 2);
+        configuration.addSteps(Arrays.<Object>asList(steps));
+
+        Story first = createStory("first");
+        Story second = createStory("second");
+        Story third = createStory("third");
+        for (Story story : Arrays.asList(first, second, third)) {
+            addScenario(story, "browser", "the browser is used");
+            addScenario(story, "browser again", "the browser is used");
+        }
+        new JMoribus(configuration).runStories(Arrays.asList(first, second, third));
+
+        Assert.assertEquals(2, steps.maxBrowsers.get());
+        Assert.assertEquals(6, steps.runs.get());
+    }
+
+    private Story createStory(String title) {
+        Story story = new Story();
+        story.setTitle(title);
+        story.setUniqueIdentifier(title);
+        return story;
+    }
+
+    private void addScenario(Story story, String title, String stepText) {
+        Scenario scenario = new Scenario();
+        scenario.setTitle(title);
+        scenario.setStory(story);
+        Step step = new Step(StepType.GIVEN);
+        step.setStepContainer(scenario);
+        step.getStepLines().add(new Line(stepText));
+        scenario.getSteps().add(step);
+        story.getScenarios().add(scenario);
+    }
+
+    public static class Steps {
+
+        private final AtomicInteger browsers = new AtomicInteger();
+        private final AtomicInteger maxBrowsers = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final AtomicInteger runs = new AtomicInteger();
+
+        @Category("browser")
+        @Given("the browser is used")
+        public void useBrowser() throws InterruptedException {
+            record(maxBrowsers, browsers.incrementAndGet());
+            work();
+            browsers.decrementAndGet();
+        }
+
+        @Given("plain work is done")
+        public void work() throws InterruptedException {
+            runs.incrementAndGet();
+            record(maxRunning, running.incrementAndGet());
+            Thread.sleep(100);
+            running.decrementAndGet();
+        }
+
+        private static void record(AtomicInteger max, int value) {
+            int current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // retry
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package nl.eernie.jmoribus;
+
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import nl.eernie.jmoribus.reporter.Reporter;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class FailFastTest {
+
+    @Test
+    public void testStepsAfterFailureAreSkipped() {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setSkipStepsAfterFailure(true);
+        DefaultReporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        Reporter reporterWithoutSkips = Mockito.mock(Reporter.class);
+        configuration.addReporter(reporterWithoutSkips);
+        configuration.addSteps(Arrays.<Object>asList(new Steps()));
+
+        new JMoribus(configuration).runStories(Arrays.asList(createStory("story", "failing step", "success step", "error step")));
+
+        Mockito.verify(reporter, times(1)).failedStep(any(Step.class), any(AssertionError.class));
+        Mockito.verify(reporter, times(2)).skippedStep(any(Step.class));
+        Mockito.verify(reporter, never()).successStep(any(Step.class));
+        Mockito.verify(reporter, never()).errorStep(any(Step.class), any(Throwable.class));
+        Mockito.verify(reporterWithoutSkips, times(1)).failedStep(any(Step.class), any(AssertionError.class));
+    }
+
+    @Test
+    public void testStepsAfterFailureRunByDefault() {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        DefaultReporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(new Steps()));
+
+        new JMoribus(configuration).runStories(Arrays.asList(createStory("story", "failing step", "success step")));
+
+        Mockito.verify(reporter, never()).skippedStep(any(Step.class));
+        Mockito.verify(reporter, times(1)).successStep(any(Step.class));
+    }
+
+    @Test
+    public void testNoNewStoriesAfterMaxFailures() {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setMaxFailures(2);
+        DefaultReporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(new Steps()));
+
+        List<Story> stories = new ArrayList<>();
+        stories.add(createStory("passing", "success step"));
+        stories.add(createStory("failing 1", "failing step"));
+        stories.add(createStory("failing 2", "failing step"));
+        stories.add(createStory("not started", "success step"));
+        new JMoribus(configuration).runStories(stories);
+
+        Mockito.verify(reporter, times(3)).beforeStory(any(Story.class));
+        Mockito.verify(reporter, never()).beforeStory(stories.get(3));
+    }
+
+    private Story createStory(String title, String... stepTexts) {
+        Story story = new Story();
+        story.setTitle(title);
+        story.setUniqueIdentifier(title);
+        Scenario scenario = new Scenario();
+        scenario.setTitle(title + " scenario");
+        scenario.setStory(story);
+        for (String stepText : stepTexts) {
+            Step step = new Step(stepTypeOf(stepText));
+            step.setStepContainer(scenario);
+            step.getStepLines().add(new Line(stepText));
+            scenario.getSteps().add(step);
+        }
+        story.getScenarios().add(scenario);
+        return story;
+    }
+
+    private StepType stepTypeOf(String stepText) {
+        switch (stepText) {
+            case "failing step":
+                return StepType.GIVEN;
+            case "error step":
+                return StepType.WHEN;
+            default:
+                return StepType.THEN;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package nl.eernie.jmoribus;
+
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.configuration.ExecutorMode;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Prologue;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ParallelScenariosTest {
+
+    private static final int THREADS = 4;
+
+    private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void testScenariosRunConcurrentlyWithOwnPrologue() {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setScenarioThreads(THREADS);
+        configuration.addReporter(new EventReporter());
+        ParallelSteps parallelSteps = new ParallelSteps(configuration.getContextProvider(), THREADS);
+        configuration.addSteps(Arrays.<Object>asList(parallelSteps));
+
+        Story story = createStory();
+        new JMoribus(configuration).runStories(Arrays.asList(story));
+
+        Assert.assertEquals(THREADS, parallelSteps.getPrologueRuns());
+        Assert.assertEquals(THREADS, parallelSteps.getThreadNames().size());
+        Assert.assertEquals("beforeStory " + story.getTitle(), events.get(0));
+        Assert.assertEquals("afterStory " + story.getTitle(), events.get(events.size() - 1));
+        Assert.assertEquals(THREADS, Collections.frequency(events, "success"));
+        Assert.assertFalse(events.contains("unsuccessful"));
+        for (Scenario scenario : story.getScenarios()) {
+            Assert.assertTrue(events.contains("afterScenario " + scenario.getTitle()));
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsDoNotCapConcurrentScenarios() {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setExecutorMode(ExecutorMode.VIRTUAL_THREADS);
+        configuration.setScenarioThreads(2);
+        configuration.addReporter(new EventReporter());
+        ParallelSteps parallelSteps = new ParallelSteps(configuration.getContextProvider(), THREADS);
+        configuration.addSteps(Arrays.<Object>asList(parallelSteps));
+
+        new JMoribus(configuration).runStories(Arrays.asList(createStory()));
+
+        Assert.assertEquals(THREADS, Collections.frequency(events, "success"));
+        Assert.assertFalse(events.contains("unsuccessful"));
+    }
+
+    private Story createStory() {
+        Story story = new Story();
+        story.setTitle("parallel story");
+        story.setUniqueIdentifier("parallel.story");
+        Prologue prologue = new Prologue();
+        prologue.setStory(story);
+        prologue.getSteps().add(createStep(prologue, StepType.GIVEN, "the prologue prepares the context"));
+        story.setPrologue(prologue);
+        for (int i = 0; i < THREADS; i++) {
+            Scenario scenario = new Scenario();
+            scenario.setTitle("scenario " + i);
+            scenario.setStory(story);
+            scenario.getSteps().add(createStep(scenario, StepType.GIVEN, "the scenario " + i + " is running"));
+            story.getScenarios().add(scenario);
+        }
+        return story;
+    }
+
+    private Step createStep(StepContainer stepContainer, StepType stepType, String text) {
+        Step step = new Step(stepType);
+        step.setStepContainer(stepContainer);
+        step.getStepLines().add(new Line(text));
+        return step;
+    }
+
+    private class EventReporter extends DefaultReporter {
+
+        @Override
+        public void beforeStory(Story story) {
+            events.add("beforeStory " + story.getTitle());
+        }
+
+        @Override
+        public void afterScenario(Scenario scenario) {
+            events.add("afterScenario " + scenario.getTitle());
+        }
+
+        @Override
+        public void afterStory(Story story) {
+            events.add("afterStory " + story.getTitle());
+        }
+
+        @Override
+        public void successStep(Step step) {
+            if (step.getStepContainer() instanceof Scenario) {
+                events.add("success");
+            }
+        }
+
+        @Override
+        public void pendingStep(Step step) {
+            events.add("unsuccessful");
+        }
+
+        @Override
+        public void failedStep(Step step, AssertionError e) {
+            super.failedStep(step, e);
+            events.add("unsuccessful");
+        }
+
+        @Override
+        public void errorStep(Step step, Throwable e) {
+            super.errorStep(step, e);
+            events.add("unsuccessful");
+        }
+
+        @Override
+        public void errorStep(Step step, String cause) {
+            super.errorStep(step, cause);
+            events.add("unsuccessful");
+        }
+    }
+}
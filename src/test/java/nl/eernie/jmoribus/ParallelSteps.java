@@ -0,0 +1,67 @@
+package nl.eernie.jmoribus;
+
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.context.ContextProvider;
+import org.junit.Assert;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelSteps {
+
+    private final ContextProvider contextProvider;
+    private final CyclicBarrier barrier;
+    private final Set<String> threadNames = Collections.synchronizedSet(new HashSet<String>());
+    private final AtomicInteger prologueRuns = new AtomicInteger();
+
+    public ParallelSteps(ContextProvider contextProvider, int parties) {
+        this.contextProvider = contextProvider;
+        this.barrier = new CyclicBarrier(parties);
+    }
+
+    @Given("the story $name is running")
+    public void storyIsRunning(String name) throws Exception {
+        threadNames.add(Thread.currentThread().getName());
+        Assert.assertFalse("Variable leaked from another story", contextProvider.isVariableSet("story"));
+        contextProvider.set("story", name);
+        barrier.await(10, TimeUnit.SECONDS);
+    }
+
+    @Then("the story variable is $name")
+    public void storyVariableIs(String name) {
+        Assert.assertEquals(name, contextProvider.get("story"));
+    }
+
+    @Then("the suite variable is visible")
+    public void suiteVariableIsVisible() {
+        Assert.assertEquals("suite", contextProvider.get("suite"));
+    }
+
+    @Given("the prologue prepares the context")
+    public void prologuePreparesContext() {
+        prologueRuns.incrementAndGet();
+        contextProvider.set("prologue", Thread.currentThread().getName());
+    }
+
+    @Given("the scenario $name is running")
+    public void scenarioIsRunning(String name) throws Exception {
+        threadNames.add(Thread.currentThread().getName());
+        Assert.assertEquals(Thread.currentThread().getName(), contextProvider.get("prologue"));
+        Assert.assertFalse("Variable leaked from another scenario", contextProvider.isVariableSet("scenario"));
+        contextProvider.set("scenario", name);
+        barrier.await(10, TimeUnit.SECONDS);
+    }
+
+    public int getPrologueRuns() {
+        return prologueRuns.get();
+    }
+
+    public Set<String> getThreadNames() {
+        return threadNames;
+    }
+}
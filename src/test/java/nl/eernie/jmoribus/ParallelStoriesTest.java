@@ -0,0 +1,105 @@
+package nl.eernie.jmoribus;
+
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelStoriesTest {
+
+    private static final int THREADS = 4;
+
+    private final AtomicInteger finishedStories = new AtomicInteger();
+    private final AtomicInteger successSteps = new AtomicInteger();
+    private final AtomicInteger unsuccessfulSteps = new AtomicInteger();
+
+    @Test
+    public void testStoriesRunConcurrentlyWithIsolatedContext() {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setStoryThreads(THREADS);
+        configuration.addReporter(new CountingReporter());
+        ParallelSteps parallelSteps = new ParallelSteps(configuration.getContextProvider(), THREADS);
+        configuration.addSteps(Arrays.<Object>asList(parallelSteps));
+        configuration.getContextProvider().set("suite", "suite");
+
+        List<Story> stories = new ArrayList<>();
+        for (int i = 0; i < THREADS * 2; i++) {
+            stories.add(createStory("story" + i));
+        }
+
+        new JMoribus(configuration).runStories(stories);
+
+        Assert.assertEquals(stories.size(), finishedStories.get());
+        Assert.assertEquals(stories.size() * 3, successSteps.get());
+        Assert.assertEquals(0, unsuccessfulSteps.get());
+        Assert.assertEquals(THREADS, parallelSteps.getThreadNames().size());
+        Assert.assertFalse(parallelSteps.getThreadNames().contains(Thread.currentThread().getName()));
+    }
+
+    private Story createStory(String name) {
+        Story story = new Story();
+        story.setTitle(name);
+        story.setUniqueIdentifier(name);
+        Scenario scenario = new Scenario();
+        scenario.setTitle(name + " scenario");
+        scenario.setStory(story);
+        scenario.getSteps().add(createStep(scenario, StepType.GIVEN, "the story " + name + " is running"));
+        scenario.getSteps().add(createStep(scenario, StepType.THEN, "the story variable is " + name));
+        scenario.getSteps().add(createStep(scenario, StepType.THEN, "the suite variable is visible"));
+        story.getScenarios().add(scenario);
+        return story;
+    }
+
+    private Step createStep(Scenario scenario, StepType stepType, String text) {
+        Step step = new Step(stepType);
+        step.setStepContainer(scenario);
+        step.getStepLines().add(new Line(text));
+        return step;
+    }
+
+    private class CountingReporter extends DefaultReporter {
+
+        @Override
+        public void afterStory(Story story) {
+            finishedStories.incrementAndGet();
+        }
+
+        @Override
+        public void successStep(Step step) {
+            successSteps.incrementAndGet();
+        }
+
+        @Override
+        public void pendingStep(Step step) {
+            unsuccessfulSteps.incrementAndGet();
+        }
+
+        @Override
+        public void failedStep(Step step, AssertionError e) {
+            super.failedStep(step, e);
+            unsuccessfulSteps.incrementAndGet();
+        }
+
+        @Override
+        public void errorStep(Step step, Throwable e) {
+            super.errorStep(step, e);
+            unsuccessfulSteps.incrementAndGet();
+        }
+
+        @Override
+        public void errorStep(Step step, String cause) {
+            super.errorStep(step, cause);
+            unsuccessfulSteps.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package nl.eernie.jmoribus;
+
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.annotation.Timeout;
+import nl.eernie.jmoribus.annotation.When;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.exception.StepTimeoutException;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class TimeoutTest {
+
+    private final DefaultConfiguration configuration = new DefaultConfiguration();
+    private volatile boolean released;
+
+    @Test
+    public void testHangingStepIsAbandoned() {
+        DefaultReporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(new Steps()));
+
+        Story story = createStory("story");
+        addScenario(story, "hanging", "the step hangs", "the variable is set");
+        addScenario(story, "next", "the variable is set");
+        long start = System.currentTimeMillis();
+        new JMoribus(configuration).runStories(Arrays.asList(story));
+        released = true;
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        Mockito.verify(reporter, times(1)).errorStep(any(Step.class), error.capture());
+        Assert.assertTrue(error.getValue() instanceof StepTimeoutException);
+        Assert.assertEquals("Step exceeded its timeout of 200 ms", error.getValue().getMessage());
+        Mockito.verify(reporter, times(1)).skippedStep(any(Step.class));
+        Mockito.verify(reporter, times(1)).successStep(any(Step.class));
+    }
+
+    @Test
+    public void testScenarioTimeout() {
+        configuration.setScenarioTimeout(300);
+        DefaultReporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(new Steps()));
+
+        Story story = createStory("story");
+        addScenario(story, "slow", "the step takes 200 millis", "the step takes 200 millis", "the variable is set");
+        new JMoribus(configuration).runStories(Arrays.asList(story));
+
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        Mockito.verify(reporter, times(1)).successStep(any(Step.class));
+        Mockito.verify(reporter, times(1)).errorStep(any(Step.class), error.capture());
+        Assert.assertEquals("Scenario exceeded its timeout of 300 ms", error.getValue().getMessage());
+        Mockito.verify(reporter, times(1)).skippedStep(any(Step.class));
+    }
+
+    @Test
+    public void testVariablesOfTimedStepAreKept() {
+        configuration.setStepTimeout(5000);
+        DefaultReporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(new Steps()));
+
+        Story story = createStory("story");
+        addScenario(story, "variables", "the variable is set", "the variable is available");
+        new JMoribus(configuration).runStories(Arrays.asList(story));
+
+        Mockito.verify(reporter, times(2)).successStep(any(Step.class));
+        Mockito.verify(reporter, never()).failedStep(any(Step.class), any(AssertionError.class));
+    }
+
+    private Story createStory(String title) {
+        Story story = new Story();
+        story.setTitle(title);
+        story.setUniqueIdentifier(title);
+        return story;
+    }
+
+    private void addScenario(Story story, String title, String... stepTexts) {
+        Scenario scenario = new Scenario();
+        scenario.setTitle(title);
+        scenario.setStory(story);
+        for (String stepText : stepTexts) {
+            Step step = new Step(stepTypeOf(stepText));
+            step.setStepContainer(scenario);
+            step.getStepLines().add(new Line(stepText));
+            scenario.getSteps().add(step);
+        }
+        story.getScenarios().add(scenario);
+    }
+
+    private StepType stepTypeOf(String stepText) {
+        switch (stepText) {
+            case "the variable is set":
+                return StepType.WHEN;
+            case "the variable is available":
+                return StepType.THEN;
+            default:
+                return StepType.GIVEN;
+        }
+    }
+
+    public class Steps {
+
+        @Timeout(200)
+        @Given("the step hangs")
+        public void hang() {
+            while (!released) {
+                // ignores interrupts, like a blocking socket read would
+                Thread.yield();
+            }
+        }
+
+        @Given("the step takes $millis millis")
+        public void sleep(String millis) throws InterruptedException {
+            Thread.sleep(Long.parseLong(millis));
+        }
+
+        @When("the variable is set")
+        public void setVariable() {
+            configuration.getContextProvider().set("timeout", "kept");
+        }
+
+        @Then("the variable is available")
+        public void checkVariable() {
+            Assert.assertEquals("kept", configuration.getContextProvider().get("timeout"));
+        }
+    }
+}
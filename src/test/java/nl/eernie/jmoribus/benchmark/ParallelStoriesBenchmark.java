@@ -0,0 +1,83 @@
+package nl.eernie.jmoribus.benchmark;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.When;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures story throughput against the number of story threads for I/O bound steps.
+ * Run the main method from the IDE or with {@code mvn exec:java}; it is not part of the test suite.
+ */
+public final class ParallelStoriesBenchmark {
+
+    private static final int STORIES = 200;
+    private static final int STEPS_PER_STORY = 5;
+    private static final long STEP_MILLIS = 10;
+    private static final int[] WORKERS = {1, 2, 4, 8, 16, 32, 64};
+
+    private ParallelStoriesBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        List<Story> stories = createStories();
+        run(stories, 4);
+        System.out.printf("%8s %12s %14s %8s%n", "workers", "millis", "stories/sec", "speedup");
+        double baseline = 0;
+        for (int workers : WORKERS) {
+            long millis = run(stories, workers);
+            double throughput = STORIES * 1000d / millis;
+            if (baseline == 0) {
+                baseline = throughput;
+            }
+            System.out.printf("%8d %12d %14.1f %8.1f%n", workers, millis, throughput, throughput / baseline);
+        }
+    }
+
+    private static long run(List<Story> stories, int workers) {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setStoryThreads(workers);
+        configuration.addSteps(Arrays.<Object>asList(new IoSteps()));
+        JMoribus jMoribus = new JMoribus(configuration);
+        long start = System.nanoTime();
+        jMoribus.runStories(stories);
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static List<Story> createStories() {
+        List<Story> stories = new ArrayList<>(STORIES);
+        for (int i = 0; i < STORIES; i++) {
+            Story story = new Story();
+            story.setTitle("story " + i);
+            story.setUniqueIdentifier("story" + i);
+            Scenario scenario = new Scenario();
+            scenario.setTitle("scenario " + i);
+            scenario.setStory(story);
+            for (int j = 0; j < STEPS_PER_STORY; j++) {
+                Step step = new Step(StepType.WHEN);
+                step.setStepContainer(scenario);
+                step.getStepLines().add(new Line("the backend answers after " + STEP_MILLIS + " millis"));
+                scenario.getSteps().add(step);
+            }
+            story.getScenarios().add(scenario);
+            stories.add(story);
+        }
+        return stories;
+    }
+
+    public static class IoSteps {
+
+        @When("the backend answers after $millis millis")
+        public void backendAnswers(String millis) throws InterruptedException {
+            Thread.sleep(Long.parseLong(millis));
+        }
+    }
+}
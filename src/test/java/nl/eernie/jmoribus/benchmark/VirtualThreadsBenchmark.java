@@ -0,0 +1,75 @@
+package nl.eernie.jmoribus.benchmark;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.configuration.ExecutorMode;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Compares the fixed pool with virtual threads for a story with many I/O bound scenarios.
+ * Run the main method on a Java 21 runtime, older runtimes measure the platform thread fallback instead.
+ */
+public final class VirtualThreadsBenchmark {
+
+    private static final int[] SCENARIOS = {1000, 10000};
+    private static final int[] POOL_SIZES = {64, 256};
+    private static final int STEPS_PER_SCENARIO = 5;
+    private static final long STEP_MILLIS = 20;
+
+    private VirtualThreadsBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("java " + System.getProperty("java.version"));
+        run(createStory(100), ExecutorMode.VIRTUAL_THREADS, 2);
+        System.out.printf("%10s %16s %10s %16s%n", "scenarios", "mode", "millis", "scenarios/sec");
+        for (int scenarios : SCENARIOS) {
+            Story story = createStory(scenarios);
+            for (int poolSize : POOL_SIZES) {
+                print(scenarios, "fixed pool " + poolSize, run(story, ExecutorMode.FIXED_POOL, poolSize));
+            }
+            print(scenarios, "virtual threads", run(story, ExecutorMode.VIRTUAL_THREADS, 2));
+        }
+    }
+
+    private static void print(int scenarios, String mode, long millis) {
+        System.out.printf("%10d %16s %10d %16.1f%n", scenarios, mode, millis, scenarios * 1000d / millis);
+    }
+
+    private static long run(Story story, ExecutorMode executorMode, int scenarioThreads) {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setExecutorMode(executorMode);
+        configuration.setScenarioThreads(scenarioThreads);
+        configuration.addSteps(Arrays.<Object>asList(new ParallelStoriesBenchmark.IoSteps()));
+        JMoribus jMoribus = new JMoribus(configuration);
+        long start = System.nanoTime();
+        jMoribus.runStories(Collections.singletonList(story));
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static Story createStory(int scenarios) {
+        Story story = new Story();
+        story.setTitle("story");
+        story.setUniqueIdentifier("story");
+        for (int i = 0; i < scenarios; i++) {
+            Scenario scenario = new Scenario();
+            scenario.setTitle("scenario " + i);
+            scenario.setStory(story);
+            for (int j = 0; j < STEPS_PER_SCENARIO; j++) {
+                Step step = new Step(StepType.WHEN);
+                step.setStepContainer(scenario);
+                step.getStepLines().add(new Line("the backend answers after " + STEP_MILLIS + " millis"));
+                scenario.getSteps().add(step);
+            }
+            story.getScenarios().add(scenario);
+        }
+        return story;
+    }
+}
@@ -0,0 +1,29 @@
+package nl.eernie.jmoribus.distributed;
+
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.annotation.When;
+
+import java.lang.management.ManagementFactory;
+
+public class DistributedSteps {
+
+    @Given("the prologue runs")
+    public void prologue() {
+    }
+
+    @When("the worker takes $millis millis")
+    public void sleep(String millis) throws InterruptedException {
+        Thread.sleep(Long.parseLong(millis));
+    }
+
+    @Then("the worker reports its process")
+    public void reportProcess() {
+        throw new AssertionError(ManagementFactory.getRuntimeMXBean().getName());
+    }
+
+    @Then("the worker breaks")
+    public void breaks() {
+        throw new IllegalStateException("broken on the worker");
+    }
+}
@@ -0,0 +1,258 @@
+package nl.eernie.jmoribus.distributed;
+
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.configuration.ShardingMode;
+import nl.eernie.jmoribus.exception.RemoteStepException;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.parser.ParseableStory;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import nl.eernie.jmoribus.reporter.ResultFile;
+import nl.eernie.jmoribus.reporter.ScenarioResult;
+import nl.eernie.jmoribus.runner.FlakinessHistory;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class DistributedTest {
+
+    private static final String STORY = "Prologue:\nGiven the prologue runs\n\n"
+            + "Scenario: slow\nWhen the worker takes 300 millis\nThen the worker reports its process\n\n"
+            + "Scenario: referring\nReferring slow\nThen the worker breaks\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testEventsOfWorkersAreReplayedOnTheCoordinator() throws Exception {
+        DefaultConfiguration coordinatorConfiguration = createConfiguration();
+        coordinatorConfiguration.setShardingMode(ShardingMode.SCENARIO);
+        CollectingReporter reporter = new CollectingReporter();
+        coordinatorConfiguration.addReporter(reporter);
+
+        try (Coordinator coordinator = new Coordinator(coordinatorConfiguration, createStories(3))) {
+            final int port = coordinator.start(0);
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                Thread worker = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            DefaultConfiguration workerConfiguration = createConfiguration();
+                            workerConfiguration.setShardingMode(ShardingMode.SCENARIO);
+                            new Worker(workerConfiguration).run("localhost", port);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+            Assert.assertTrue(coordinator.awaitCompletion(30, TimeUnit.SECONDS));
+            for (Thread worker : workers) {
+                worker.join(10000);
+            }
+        }
+
+        Assert.assertEquals(6, reporter.scenarios.size());
+        Assert.assertEquals(6, reporter.failures.size());
+        Assert.assertEquals(3, reporter.errors.size());
+        for (Throwable error : reporter.errors) {
+            // the step method is invoked reflectively, the worker reports the InvocationTargetException around it
+            RemoteStepException cause = (RemoteStepException) error.getCause();
+            Assert.assertEquals(IllegalStateException.class.getName(), cause.getRemoteClassName());
+            Assert.assertEquals(IllegalStateException.class.getName() + ": broken on the worker", cause.getMessage());
+        }
+        Assert.assertEquals(3, reporter.referrals.size());
+        for (Scenario referred : reporter.referrals) {
+            Assert.assertEquals("slow", referred.getTitle());
+        }
+    }
+
+    @Test
+    public void testWorkerWithAnotherPlanRefusesWork() throws Exception {
+        DefaultConfiguration coordinatorConfiguration = createConfiguration();
+        CollectingReporter reporter = new CollectingReporter();
+        coordinatorConfiguration.addReporter(reporter);
+
+        try (Coordinator coordinator = new Coordinator(coordinatorConfiguration, createStories(2))) {
+            int port = coordinator.start(0);
+            DefaultConfiguration shardedConfiguration = createConfiguration();
+            shardedConfiguration.setShardCount(2);
+            shardedConfiguration.setShardIndex(0);
+            shardedConfiguration.setShardingMode(ShardingMode.SCENARIO);
+            try {
+                new Worker(shardedConfiguration).run("localhost", port);
+                Assert.fail("The worker planned half of the scenarios");
+            } catch (IllegalStateException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("The plan of this worker differs"));
+            }
+            Assert.assertTrue(reporter.scenarios.isEmpty());
+
+            new Worker(createConfiguration()).run("localhost", port);
+            Assert.assertTrue(coordinator.awaitCompletion(30, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(4, reporter.scenarios.size());
+    }
+
+    @Test
+    public void testCloseDisconnectsAWorkerThatIsStillConnected() throws Exception {
+        File journal = new File(temporaryFolder.getRoot(), "journal.txt");
+        DefaultConfiguration coordinatorConfiguration = createConfiguration();
+        coordinatorConfiguration.setResultJournalFile(journal);
+
+        Coordinator coordinator = new Coordinator(coordinatorConfiguration, createStories(1));
+        long start;
+        try (Socket silentWorker = new Socket("localhost", coordinator.start(0))) {
+            // the coordinator waits for the worker to ask for work, a read that ignores interrupts
+            silentWorker.getInputStream().read();
+            Assert.assertFalse(coordinator.awaitCompletion(100, TimeUnit.MILLISECONDS));
+            start = System.currentTimeMillis();
+            coordinator.close();
+            // times out when the coordinator did not disconnect the worker
+            silentWorker.setSoTimeout(5000);
+            while (silentWorker.getInputStream().read() != -1) {
+                // the rest of the sources
+            }
+        }
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+        Assert.assertTrue(ResultFile.read(journal).isEmpty());
+        Assert.assertFalse(new File(journal.getPath() + ".running").exists());
+    }
+
+    @Test
+    public void testCoordinatorKeepsJournalAndFlakinessHistory() throws Exception {
+        File journal = new File(temporaryFolder.getRoot(), "journal.txt");
+        File flakinessHistory = new File(temporaryFolder.getRoot(), "flakiness.properties");
+        DefaultConfiguration coordinatorConfiguration = createConfiguration();
+        coordinatorConfiguration.setShardingMode(ShardingMode.SCENARIO);
+        coordinatorConfiguration.setResultJournalFile(journal);
+        coordinatorConfiguration.setFlakinessHistoryFile(flakinessHistory);
+
+        try (Coordinator coordinator = new Coordinator(coordinatorConfiguration, createStories(2))) {
+            int port = coordinator.start(0);
+            DefaultConfiguration workerConfiguration = createConfiguration();
+            workerConfiguration.setShardingMode(ShardingMode.SCENARIO);
+            new Worker(workerConfiguration).run("localhost", port);
+            Assert.assertTrue(coordinator.awaitCompletion(30, TimeUnit.SECONDS));
+        }
+
+        List<ScenarioResult> results = ResultFile.read(journal);
+        Assert.assertEquals(4, results.size());
+        for (ScenarioResult result : results) {
+            Assert.assertEquals(ScenarioResult.Status.FAILED, result.getStatus());
+        }
+        Assert.assertFalse(new File(journal.getPath() + ".running").exists());
+        Assert.assertEquals(0, FlakinessHistory.load(flakinessHistory).getFlakeRate("story-1", "slow"), 0);
+        Properties runs = new Properties();
+        try (InputStream input = new FileInputStream(flakinessHistory)) {
+            runs.load(input);
+        }
+        Assert.assertEquals(4, runs.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJournalOfParallelScenariosIsRejected() {
+        DefaultConfiguration configuration = createConfiguration();
+        configuration.setResultJournalFile(new File(temporaryFolder.getRoot(), "journal.txt"));
+        configuration.setScenarioThreads(2);
+        new Coordinator(configuration, createStories(1));
+    }
+
+    @Test
+    public void testWorkIsSpreadOverWorkerJvms() throws Exception {
+        DefaultConfiguration configuration = createConfiguration();
+        CollectingReporter reporter = new CollectingReporter();
+        configuration.addReporter(reporter);
+
+        List<Process> processes = new ArrayList<>();
+        try (Coordinator coordinator = new Coordinator(configuration, createStories(12))) {
+            int port = coordinator.start(0);
+            for (int i = 0; i < 3; i++) {
+                ProcessBuilder processBuilder = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                        "-cp", System.getProperty("java.class.path"),
+                        Worker.class.getName(), "localhost", Integer.toString(port), DistributedSteps.class.getName());
+                processBuilder.redirectErrorStream(true);
+                processBuilder.redirectOutput(temporaryFolder.newFile("worker-" + i + ".log"));
+                processes.add(processBuilder.start());
+            }
+            Assert.assertTrue(coordinator.awaitCompletion(60, TimeUnit.SECONDS));
+            for (Process process : processes) {
+                Assert.assertEquals(0, process.waitFor());
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+
+        Assert.assertEquals(24, reporter.scenarios.size());
+        Set<String> workerProcesses = new HashSet<>();
+        for (AssertionError failure : reporter.failures) {
+            workerProcesses.add(failure.getMessage());
+        }
+        Assert.assertTrue("Only ran on " + workerProcesses, workerProcesses.size() >= 2);
+    }
+
+    private DefaultConfiguration createConfiguration() {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.addSteps(Collections.<Object>singletonList(new DistributedSteps()));
+        return configuration;
+    }
+
+    private List<ParseableStory> createStories(int count) {
+        List<ParseableStory> stories = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            stories.add(new ParseableStory(new ByteArrayInputStream(STORY.getBytes(StandardCharsets.UTF_8)), "story-" + i));
+        }
+        return stories;
+    }
+
+    public static class CollectingReporter extends DefaultReporter {
+
+        private final List<Scenario> scenarios = new CopyOnWriteArrayList<>();
+        private final List<AssertionError> failures = new CopyOnWriteArrayList<>();
+        private final List<Throwable> errors = new CopyOnWriteArrayList<>();
+        private final List<Scenario> referrals = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void afterScenario(Scenario scenario) {
+            scenarios.add(scenario);
+        }
+
+        @Override
+        public void failedStep(Step step, AssertionError e) {
+            failures.add(e);
+        }
+
+        @Override
+        public void errorStep(Step step, Throwable e) {
+            errors.add(e);
+        }
+
+        @Override
+        public void beforeReferringScenario(StepContainer stepContainer, Scenario scenario) {
+            referrals.add(scenario);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.annotation.ParameterConverter;
+import nl.eernie.jmoribus.exception.NoParameterConverterFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ConverterRegistryTest {
+
+    private final MethodMatcher methodMatcher = new MethodMatcher(Arrays.<Object>asList(new Converters()));
+
+    @Test
+    public void userConverterBeforeBuiltInTest() throws Exception {
+        Assert.assertEquals(84, methodMatcher.findConverterFor(Integer.class).convert("42"));
+        Assert.assertEquals(42, methodMatcher.findConverterFor(int.class).convert("42"));
+    }
+
+    @Test
+    public void converterToSubtypeTest() throws Exception {
+        Assert.assertEquals(Arrays.asList("a", "b"), methodMatcher.findConverterFor(List.class).convert("a,b"));
+        Assert.assertSame(methodMatcher.findConverterFor(List.class), methodMatcher.findConverterFor(Collection.class));
+    }
+
+    @Test
+    public void builtInConvertersTest() throws Exception {
+        Assert.assertEquals(7L, methodMatcher.findConverterFor(long.class).convert("7"));
+        Assert.assertEquals(Boolean.TRUE, methodMatcher.findConverterFor(boolean.class).convert("true"));
+        Assert.assertEquals('x', methodMatcher.findConverterFor(char.class).convert("x"));
+        Assert.assertEquals(new BigDecimal("1.50"), methodMatcher.findConverterFor(BigDecimal.class).convert("1.50"));
+        Assert.assertEquals(TimeUnit.SECONDS, methodMatcher.findConverterFor(TimeUnit.class).convert("seconds"));
+
+        Class<?> localDate = Class.forName("java.time.LocalDate");
+        Object date = methodMatcher.findConverterFor(localDate).convert("2015-03-31");
+        Assert.assertEquals("2015-03-31", date.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBooleanTest() throws Exception {
+        methodMatcher.findConverterFor(Boolean.class).convert("yes");
+    }
+
+    @Test(expected = NoParameterConverterFoundException.class)
+    public void noConverterTest() {
+        methodMatcher.findConverterFor(Thread.class);
+    }
+
+    public static class Converters {
+
+        @ParameterConverter
+        public Integer doubled(String value) {
+            return Integer.valueOf(value) * 2;
+        }
+
+        @ParameterConverter
+        public ArrayList<String> list(String value) {
+            return new ArrayList<>(Arrays.asList(value.split(",")));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.Steps;
+import nl.eernie.jmoribus.configuration.StepMatching;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class MatchCacheTest {
+
+    @Test
+    public void cachedMatchTest() {
+        MethodMatcher methodMatcher = new MethodMatcher(Arrays.<Object>asList(new Steps()), StepMatching.REGEX, 10);
+
+        StepMatch first = methodMatcher.matchStep(createStep(StepType.WHEN, "bla bla bla 5"));
+        StepMatch second = methodMatcher.matchStep(createStep(StepType.WHEN, "bla bla bla 5"));
+        Assert.assertSame(first, second);
+        Assert.assertEquals(Collections.singletonList("5"), second.getParameterValues());
+
+        Assert.assertNull(methodMatcher.matchStep(createStep(StepType.THEN, "bla bla bla 5")));
+        Assert.assertNull(methodMatcher.findMatchedStep(createStep(StepType.THEN, "bla bla bla 5")));
+
+        MatchCache matchCache = methodMatcher.getMatchCache();
+        Assert.assertEquals(2, matchCache.getHits());
+        Assert.assertEquals(2, matchCache.getMisses());
+        Assert.assertEquals(2, matchCache.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedTest() {
+        MatchCache matchCache = new MatchCache(2);
+        StepMatch match = new StepMatch(null, Collections.<String>emptyList());
+        matchCache.put(StepType.WHEN, "first", match);
+        matchCache.put(StepType.WHEN, "second", match);
+        Assert.assertSame(match, matchCache.get(StepType.WHEN, "first"));
+
+        matchCache.put(StepType.WHEN, "third", match);
+
+        Assert.assertEquals(2, matchCache.size());
+        Assert.assertNull(matchCache.get(StepType.WHEN, "second"));
+        Assert.assertSame(match, matchCache.get(StepType.WHEN, "first"));
+        Assert.assertSame(MatchCache.NO_MATCH, getNoMatch(matchCache));
+    }
+
+    private static StepMatch getNoMatch(MatchCache matchCache) {
+        matchCache.put(StepType.GIVEN, "first", null);
+        return matchCache.get(StepType.GIVEN, "first");
+    }
+
+    private static Step createStep(StepType stepType, String text) {
+        Step step = new Step(stepType);
+        step.getStepLines().add(new Line(text));
+        return step;
+    }
+}
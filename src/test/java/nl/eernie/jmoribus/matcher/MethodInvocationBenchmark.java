@@ -0,0 +1,65 @@
+package nl.eernie.jmoribus.matcher;
+
+import java.lang.reflect.Method;
+
+/**
+ * Compares calling a step method and a parameter converter through {@link Method#invoke(Object, Object...)} with
+ * calling them through a {@link MethodInvoker}. Run the main method from the IDE; it is not part of the test suite.
+ */
+public final class MethodInvocationBenchmark {
+
+    private static final int CALLS = 20000000;
+
+    private MethodInvocationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Target target = new Target();
+        Method step = Target.class.getMethod("step", String.class, Integer.class);
+        Method converter = Target.class.getMethod("convert", String.class);
+        MethodInvoker stepInvoker = MethodInvoker.bind(step, target);
+        MethodInvoker converterInvoker = MethodInvoker.bind(converter, target);
+        Object[] arguments = {"value", 42};
+
+        System.out.printf("%10s %14s %14s%n", "call", "reflect ns/op", "handle ns/op");
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                step.invoke(target, arguments);
+            }
+            double reflectStep = (System.nanoTime() - start) / (double) CALLS;
+            start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                stepInvoker.invoke(arguments);
+            }
+            double handleStep = (System.nanoTime() - start) / (double) CALLS;
+            start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                converter.invoke(target, "7");
+            }
+            double reflectConverter = (System.nanoTime() - start) / (double) CALLS;
+            start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                converterInvoker.invoke("7");
+            }
+            double handleConverter = (System.nanoTime() - start) / (double) CALLS;
+            System.out.printf("%10s %14.1f %14.1f%n", "step", reflectStep, handleStep);
+            System.out.printf("%10s %14.1f %14.1f%n", "converter", reflectConverter, handleConverter);
+        }
+        System.out.println(target.sum);
+    }
+
+    public static class Target {
+
+        private long sum;
+
+        public void step(String value, Integer number) {
+            sum += value.length() + number;
+        }
+
+        public Integer convert(String value) {
+            sum++;
+            return value.length();
+        }
+    }
+}
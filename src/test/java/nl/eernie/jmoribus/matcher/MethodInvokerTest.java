@@ -0,0 +1,98 @@
+package nl.eernie.jmoribus.matcher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+public class MethodInvokerTest {
+
+    @Test
+    public void invokeTest() throws Exception {
+        Target target = new Target();
+        Assert.assertEquals("a1", MethodInvoker.bind(Target.class.getMethod("concat", String.class, int.class), target).invoke(new Object[]{"a", 1}));
+        Assert.assertEquals(42, MethodInvoker.bind(Target.class.getMethod("parse", String.class), target).invoke("42"));
+        Assert.assertEquals("static", MethodInvoker.bind(Target.class.getMethod("name"), null).invoke());
+
+        MethodInvoker hook = MethodInvoker.bind(Target.class.getMethod("hook"), target);
+        Assert.assertNull(hook.invoke());
+        Assert.assertNull(hook.invoke(new Object[0]));
+        Assert.assertEquals(2, target.calls);
+    }
+
+    @Test
+    public void wrapExceptionTest() throws Exception {
+        MethodInvoker invoker = MethodInvoker.bind(Target.class.getMethod("fail"), new Target());
+        try {
+            invoker.invoke();
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof AssertionError);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongNumberOfArgumentsTest() throws Exception {
+        MethodInvoker.bind(Target.class.getMethod("parse", String.class), new Target()).invoke();
+    }
+
+    @Test
+    public void nullPrimitiveArgumentTest() throws Exception {
+        MethodInvoker invoker = MethodInvoker.bind(Target.class.getMethod("concat", String.class, int.class), new Target());
+        try {
+            invoker.invoke(new Object[]{"a", null});
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("is null"));
+        }
+    }
+
+    @Test
+    public void wrongArgumentTypeTest() throws Exception {
+        MethodInvoker invoker = MethodInvoker.bind(Target.class.getMethod("parse", String.class), new Target());
+        try {
+            invoker.invoke(Integer.valueOf(42));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("java.lang.Integer"));
+        }
+        try {
+            MethodInvoker.bind(Target.class.getMethod("concat", String.class, int.class), new Target()).invoke(new Object[]{"a", "1"});
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("java.lang.String"));
+        }
+    }
+
+    @Test
+    public void widenedPrimitiveArgumentTest() throws Exception {
+        MethodInvoker invoker = MethodInvoker.bind(Target.class.getMethod("concat", String.class, int.class), new Target());
+        Assert.assertEquals("a7", invoker.invoke(new Object[]{"a", (short) 7}));
+        Assert.assertEquals("65", invoker.invoke(new Object[]{"", 'A'}));
+    }
+
+    public static class Target {
+
+        private int calls;
+
+        public String concat(String text, int number) {
+            return text + number;
+        }
+
+        public Integer parse(String value) {
+            return Integer.valueOf(value);
+        }
+
+        public static String name() {
+            return "static";
+        }
+
+        public void hook() {
+            calls++;
+        }
+
+        public void fail() {
+            throw new AssertionError("failed");
+        }
+    }
+}
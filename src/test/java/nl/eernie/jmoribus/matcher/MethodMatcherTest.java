@@ -1,7 +1,13 @@
 package nl.eernie.jmoribus.matcher;
 
 import nl.eernie.jmoribus.Steps;
+import nl.eernie.jmoribus.annotation.BeforeScenario;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.configuration.StepMatching;
 import nl.eernie.jmoribus.exception.NoParameterConverterFoundException;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -32,10 +38,70 @@ public class MethodMatcherTest {
         Assert.assertEquals(BeforeAfterType.BEFORE_SCENARIO, beforeAfterMethods.get(0).getBeforeAfterType());
     }
 
+    @Test
+    public void automatonMatchesLikeRegexTest() {
+        MethodMatcher regexMatcher = new MethodMatcher(Arrays.<Object>asList(new Steps()), StepMatching.REGEX);
+        MethodMatcher automatonMatcher = new MethodMatcher(Arrays.<Object>asList(new Steps()), StepMatching.AUTOMATON);
+
+        int matched = 0;
+        for (Step step : Arrays.asList(createStep(StepType.WHEN, "bla bla bla 5"), createStep(StepType.WHEN, "another 7"),
+                createStep(StepType.WHEN, "dddd some more text"), createStep(StepType.GIVEN, "failing step"),
+                createStep(StepType.THEN, "the system should have the following state transitions: TABLE0 and the following states should be present: TABLE1"),
+                createStep(StepType.THEN, "an unknown step"))) {
+            StepMatch expected = regexMatcher.matchStep(step);
+            StepMatch actual = automatonMatcher.matchStep(step);
+            if (expected == null) {
+                Assert.assertNull(actual);
+            } else {
+                Assert.assertEquals(expected.getPossibleStep().getMethod(), actual.getPossibleStep().getMethod());
+                Assert.assertEquals(expected.getParameterValues(), actual.getParameterValues());
+                matched++;
+            }
+        }
+        Assert.assertEquals(5, matched);
+    }
+
+    @Test
+    public void stepsOfPackagePrivateBaseClassTest() throws Exception {
+        VisibleSteps steps = new VisibleSteps();
+        MethodMatcher methodMatcher = new MethodMatcher(Arrays.<Object>asList(steps));
+
+        StepMatch match = methodMatcher.matchStep(createStep(StepType.GIVEN, "a hidden step"));
+        Assert.assertNotNull(match);
+        match.getPossibleStep().getInvoker().invoke(new Object[0]);
+        methodMatcher.findBeforeAfters(BeforeAfterType.BEFORE_SCENARIO).get(0).invoke();
+
+        Assert.assertEquals(2, steps.invocations);
+        Assert.assertFalse(MethodMatcher.isOverridden(HiddenSteps.class.getMethod("hidden"), VisibleSteps.class));
+    }
+
+    private static Step createStep(StepType stepType, String text) {
+        Step step = new Step(stepType);
+        step.getStepLines().add(new Line(text));
+        return step;
+    }
+
     @Test(expected = NoParameterConverterFoundException.class)
     public void noParameterConverterFoundExceptionTest() {
         MethodMatcher methodMatcher = new MethodMatcher(Arrays.<Object>asList(new Steps()));
         methodMatcher.findConverterFor(Test.class);
     }
 
+    static class HiddenSteps {
+
+        int invocations;
+
+        @Given("a hidden step")
+        public void hidden() {
+            invocations++;
+        }
+
+        @BeforeScenario
+        public void beforeScenario() {
+            invocations++;
+        }
+    }
+
+    public static class VisibleSteps extends HiddenSteps {
+    }
 }
@@ -0,0 +1,53 @@
+package nl.eernie.jmoribus.matcher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RegexStepMatcherTest {
+
+    private final RegexStepMatcher matcher = new StepParser().parseStep("the user $name buys $count items");
+
+    @Test
+    public void matchTest() {
+        Assert.assertEquals(Arrays.asList("john", "3"), matcher.match("the user john buys 3 items"));
+        Assert.assertNull(matcher.match("the user john sells 3 items"));
+        Assert.assertTrue(matcher.matches("the user john buys 3 items"));
+    }
+
+    @Test
+    public void sharedByThreadsTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int offset = thread;
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 10000; i++) {
+                            String name = "user" + offset + "_" + i;
+                            String count = String.valueOf(i);
+                            if (!Arrays.asList(name, count).equals(matcher.match("the user " + name + " buys " + count + " items"))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
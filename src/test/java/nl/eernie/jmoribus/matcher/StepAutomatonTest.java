@@ -0,0 +1,104 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.model.StepType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+
+public class StepAutomatonTest {
+
+    private static final String[] PATTERNS = {
+            "the $who logs in",
+            "the user admin logs in",
+            "the user $name logs $direction",
+            "yes|no is answered",
+            "the price is $amount.",
+            "a (bracketed) [step] with {braces} costs $price+",
+            "the  spaced   step $x",
+            "$first and $second",
+            "user$id is shown",
+            "$anything",
+            "$count:int items",
+    };
+
+    private static final String[] TEXTS = {
+            "the user admin logs in",
+            "the user bob logs out",
+            "the admin logs in",
+            "yes",
+            "no is answered",
+            "the price is 10.",
+            "the price is 10",
+            "a (bracketed) [step] with {braces} costs 5+",
+            "the spaced\tstep y",
+            "cats and dogs and mice",
+            "user42 is shown",
+            "multi\nline text",
+            "",
+    };
+
+    private final StepParser parser = new StepParser();
+
+    @Test
+    public void testMatchesLikeTheRegularExpressions() {
+        List<PossibleStep> possibleSteps = createPossibleSteps(PATTERNS);
+        StepAutomaton automaton = new StepAutomaton(possibleSteps);
+
+        for (String text : TEXTS) {
+            StepMatch expected = scan(possibleSteps, text);
+            StepMatch actual = automaton.match(text);
+            if (expected == null) {
+                Assert.assertNull(text, actual);
+            } else {
+                Assert.assertSame(text, expected.getPossibleStep(), actual.getPossibleStep());
+                Assert.assertEquals(text, expected.getParameterValues(), actual.getParameterValues());
+            }
+        }
+        Assert.assertEquals(Arrays.asList("cats and dogs", "mice"), automaton.match("cats and dogs and mice").getParameterValues());
+        Assert.assertEquals("yes|no is answered", automaton.match("yes").getPossibleStep().getStep());
+        Assert.assertEquals(2, automaton.getFallbackCount());
+    }
+
+    @Test
+    public void testBacktrackingPatternsTakeLinearTime() {
+        List<PossibleStep> possibleSteps = createPossibleSteps(new String[]{"$a $b $c $d $e $f $g end"});
+        StepAutomaton automaton = new StepAutomaton(possibleSteps);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("x ");
+        }
+
+        long start = System.nanoTime();
+        Assert.assertNull(automaton.match(text.toString()));
+        Assert.assertNotNull(automaton.match(text + "end"));
+        Assert.assertTrue((System.nanoTime() - start) / 1000000 < 2000);
+    }
+
+    private List<PossibleStep> createPossibleSteps(String[] patterns) {
+        List<PossibleStep> possibleSteps = new ArrayList<>();
+        for (String pattern : patterns) {
+            PossibleStep possibleStep = new PossibleStep(pattern, null, StepType.GIVEN, null, null, null, null);
+            possibleStep.setRegexStepMatcher(parser.parseStep(pattern));
+            possibleSteps.add(possibleStep);
+        }
+        return possibleSteps;
+    }
+
+    private static StepMatch scan(List<PossibleStep> possibleSteps, String text) {
+        for (PossibleStep possibleStep : possibleSteps) {
+            Matcher matcher = possibleStep.getRegexStepMatcher().getPattern().matcher(text);
+            if (matcher.matches()) {
+                List<String> values = new ArrayList<>();
+                for (int group = 1; group <= matcher.groupCount(); group++) {
+                    values.add(matcher.group(group));
+                }
+                return new StepMatch(possibleStep, values);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.model.StepType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class StepIndexTest {
+
+    private static final String[] PATTERNS = {
+            "the $who logs in",
+            "the user admin logs in",
+            "the user $name logs in",
+            "the user $name logs out",
+            "the user",
+            "user$id is shown",
+            "yes|no is answered",
+            "the price is $amount.",
+            "the  spaced   step $x",
+            "$anything at all",
+    };
+
+    private static final String[] TEXTS = {
+            "the user admin logs in",
+            "the user bob logs in",
+            "the user bob logs out",
+            "the admin logs in",
+            "the user",
+            "the user ",
+            "user42 is shown",
+            "user is shown",
+            "yes",
+            "no is answered",
+            "the price is 10.",
+            "the price is 10",
+            "the spaced step y",
+            "the\tuser\nbob logs out",
+            " the user bob logs in",
+            "nothing at all",
+            "unknown",
+            "",
+    };
+
+    private final StepParser parser = new StepParser();
+
+    @Test
+    public void testLiteralPrefix() {
+        Assert.assertEquals(Arrays.asList("the", "user"), parser.parseLiteralPrefix("the user $name logs in"));
+        Assert.assertEquals(Arrays.asList("the", "user", "admin", "logs", "in"), parser.parseLiteralPrefix("the user admin logs in"));
+        Assert.assertEquals(new ArrayList<String>(), parser.parseLiteralPrefix("user$id is shown"));
+        Assert.assertEquals(Arrays.asList("the"), parser.parseLiteralPrefix("the user$id is shown"));
+        Assert.assertEquals(new ArrayList<String>(), parser.parseLiteralPrefix("$anything at all"));
+        Assert.assertEquals(new ArrayList<String>(), parser.parseLiteralPrefix("yes|no is answered"));
+    }
+
+    @Test
+    public void testFirstMatchIsPreserved() {
+        List<PossibleStep> possibleSteps = new ArrayList<>();
+        for (StepType stepType : new StepType[]{StepType.GIVEN, StepType.WHEN}) {
+            for (String pattern : PATTERNS) {
+                PossibleStep possibleStep = new PossibleStep(pattern, null, stepType, null, null, null, null);
+                possibleStep.setRegexStepMatcher(parser.parseStep(pattern));
+                possibleSteps.add(possibleStep);
+            }
+        }
+        StepIndex index = new StepIndex(possibleSteps, parser);
+
+        for (StepType stepType : StepType.values()) {
+            for (String text : TEXTS) {
+                Assert.assertSame(stepType + " " + text, scan(possibleSteps, stepType, text), index.findMatchedStep(stepType, text));
+            }
+        }
+        Assert.assertEquals("the $who logs in", index.findMatchedStep(StepType.WHEN, "the user admin logs in").getStep());
+        Assert.assertEquals("the user $name logs out", index.findMatchedStep(StepType.GIVEN, "the user bob logs out").getStep());
+        Assert.assertNull(index.findMatchedStep(StepType.THEN, "the user"));
+    }
+
+    private static PossibleStep scan(List<PossibleStep> possibleSteps, StepType stepType, String text) {
+        for (PossibleStep possibleStep : possibleSteps) {
+            if (possibleStep.getStepType() == stepType && possibleStep.getRegexStepMatcher().matches(text)) {
+                return possibleStep;
+            }
+        }
+        return null;
+    }
+}
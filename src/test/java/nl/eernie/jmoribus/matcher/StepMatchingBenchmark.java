@@ -0,0 +1,107 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.model.StepType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the cost of finding the matching step against the number of step patterns, for the step index and
+ * for the combined automaton and for a scan over all patterns. The patterns look like those of a large suite: a few verbs and many domain
+ * words, each with parameters. Run the main method from the IDE; it is not part of the test suite.
+ */
+public final class StepMatchingBenchmark {
+
+    private static final int[] PATTERN_COUNTS = {100, 500, 1000, 3500};
+    private static final String[] VERBS = {"the user", "the system", "an admin", "the page"};
+    private static final int LOOKUPS = 20000;
+
+    private StepMatchingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%9s %14s %14s %14s%n", "patterns", "scan ns/op", "index ns/op", "automaton ns/op");
+        for (int patternCount : PATTERN_COUNTS) {
+            List<PossibleStep> possibleSteps = createPossibleSteps(patternCount);
+            StepIndex index = new StepIndex(possibleSteps, new StepParser());
+            StepAutomaton automaton = new StepAutomaton(possibleSteps);
+            String[] texts = createTexts(patternCount);
+            for (int warmup = 0; warmup < 3; warmup++) {
+                scan(possibleSteps, texts);
+                lookUp(index, texts);
+                match(automaton, texts);
+            }
+            double scanNanos = scan(possibleSteps, texts);
+            double indexNanos = lookUp(index, texts);
+            double automatonNanos = match(automaton, texts);
+            System.out.printf("%9d %14.0f %14.0f %14.0f%n", patternCount, scanNanos, indexNanos, automatonNanos);
+        }
+    }
+
+    private static List<PossibleStep> createPossibleSteps(int patternCount) {
+        StepParser parser = new StepParser();
+        List<PossibleStep> possibleSteps = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            String pattern = VERBS[i % VERBS.length] + " opens entity" + i + " with $name and $value";
+            PossibleStep possibleStep = new PossibleStep(pattern, null, StepType.WHEN, null, null, null, null);
+            possibleStep.setRegexStepMatcher(parser.parseStep(pattern));
+            possibleSteps.add(possibleStep);
+        }
+        return possibleSteps;
+    }
+
+    private static String[] createTexts(int patternCount) {
+        Random random = new Random(42);
+        String[] texts = new String[LOOKUPS];
+        for (int i = 0; i < texts.length; i++) {
+            int pattern = random.nextInt(patternCount);
+            texts[i] = VERBS[pattern % VERBS.length] + " opens entity" + pattern + " with name " + i + " and value " + i;
+        }
+        return texts;
+    }
+
+    private static double scan(List<PossibleStep> possibleSteps, String[] texts) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (String text : texts) {
+            for (PossibleStep possibleStep : possibleSteps) {
+                if (possibleStep.getRegexStepMatcher().matches(text)) {
+                    found++;
+                    break;
+                }
+            }
+        }
+        return check(found, texts, start);
+    }
+
+    private static double lookUp(StepIndex index, String[] texts) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (String text : texts) {
+            if (index.findMatchedStep(StepType.WHEN, text) != null) {
+                found++;
+            }
+        }
+        return check(found, texts, start);
+    }
+
+    private static double match(StepAutomaton automaton, String[] texts) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (String text : texts) {
+            if (automaton.match(text) != null) {
+                found++;
+            }
+        }
+        return check(found, texts, start);
+    }
+
+    private static double check(int found, String[] texts, long start) {
+        double nanos = (System.nanoTime() - start) / (double) texts.length;
+        if (found != texts.length) {
+            throw new IllegalStateException("Matched " + found + " of " + texts.length + " steps");
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,136 @@
+package nl.eernie.jmoribus.matcher;
+
+import nl.eernie.jmoribus.Steps;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.annotation.When;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+public class StepRegistryTest {
+
+    @Test
+    public void registryMatchesReflectionTest() throws Exception {
+        StepRegistry registry = StepRegistry.load(Steps.class, new Steps());
+        Assert.assertNotNull("the processor should have written a registry for the test steps", registry);
+
+        Set<String> expected = new HashSet<>();
+        for (Method method : Steps.class.getMethods()) {
+            addSteps(expected, method, method.isAnnotationPresent(Given.class) ? method.getAnnotation(Given.class).value() : null);
+            addSteps(expected, method, method.isAnnotationPresent(When.class) ? method.getAnnotation(When.class).value() : null);
+            addSteps(expected, method, method.isAnnotationPresent(Then.class) ? method.getAnnotation(Then.class).value() : null);
+        }
+        Set<String> actual = new HashSet<>();
+        StepParser parser = new StepParser();
+        for (PossibleStep possibleStep : registry.getPossibleSteps()) {
+            actual.add(possibleStep.getMethod() + " " + possibleStep.getStep());
+            Assert.assertEquals(parser.parseStep(possibleStep.getStep()).getPattern().pattern(), possibleStep.getRegexStepMatcher().getPattern().pattern());
+        }
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(1, registry.getParameterConverters().size());
+        Assert.assertEquals(4, registry.getBeforeAfterMethods().size());
+    }
+
+    @Test
+    public void registryOrderMatchesReflectionTest() throws Exception {
+        Method[] methods = Steps.class.getMethods();
+        Arrays.sort(methods, MethodOrder.INSTANCE);
+        List<String> expected = new ArrayList<>();
+        for (Method method : methods) {
+            addSteps(expected, method, method.isAnnotationPresent(Given.class) ? method.getAnnotation(Given.class).value() : null);
+            addSteps(expected, method, method.isAnnotationPresent(When.class) ? method.getAnnotation(When.class).value() : null);
+            addSteps(expected, method, method.isAnnotationPresent(Then.class) ? method.getAnnotation(Then.class).value() : null);
+        }
+        List<String> actual = new ArrayList<>();
+        for (PossibleStep possibleStep : StepRegistry.load(Steps.class, new Steps()).getPossibleSteps()) {
+            actual.add(possibleStep.getMethod() + " " + possibleStep.getStep());
+        }
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void registryPerDeclaringClassTest() throws Exception {
+        SubSteps subSteps = new SubSteps();
+        StepRegistry baseRegistry = StepRegistry.load(BaseSteps.class, subSteps);
+        Assert.assertEquals(1, baseRegistry.getPossibleSteps().size());
+        Assert.assertEquals("a base step", baseRegistry.getPossibleSteps().get(0).getStep());
+
+        List<String> steps = new ArrayList<>();
+        for (PossibleStep possibleStep : new MethodMatcher(Arrays.<Object>asList(subSteps)).getPossibleSteps()) {
+            steps.add(possibleStep.getStep());
+        }
+        Assert.assertEquals(Arrays.asList("a sub step", "a base step"), steps);
+    }
+
+    @Test
+    public void staleRegistryIsNotUsedTest() throws Exception {
+        Properties properties = new Properties();
+        try (InputStream inputStream = Steps.class.getClassLoader().getResourceAsStream(StepRegistry.LOCATION + Steps.class.getName())) {
+            properties.load(inputStream);
+        }
+        Assert.assertNotNull(StepRegistry.load(Steps.class, new Steps(), properties));
+
+        Properties changedPattern = (Properties) properties.clone();
+        changedPattern.setProperty(StepRegistry.STEP + 0 + StepRegistry.PATTERN, "an old pattern");
+        assertStale(changedPattern);
+
+        Properties missingHook = (Properties) properties.clone();
+        missingHook.setProperty(StepRegistry.HOOKS, "3");
+        assertStale(missingHook);
+    }
+
+    private static void assertStale(Properties properties) throws Exception {
+        try {
+            StepRegistry.load(Steps.class, new Steps(), properties);
+            Assert.fail("A registry that differs from the annotations of the class is used");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Step registry of " + Steps.class.getName() + " is older than the class", e.getMessage());
+        }
+    }
+
+    @Test
+    public void classWithoutRegistryTest() throws Exception {
+        Assert.assertNull(StepRegistry.load(Object.class, new Object()));
+        Assert.assertNull(StepRegistry.load(ArrayList.class, new ArrayList<>()));
+    }
+
+    private static void addSteps(Collection<String> steps, Method method, String[] patterns) {
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                steps.add(method + " " + pattern);
+            }
+        }
+    }
+
+    public static class BaseSteps {
+
+        @Given("a base step")
+        public void base() {
+        }
+
+        @Given("an overridden step")
+        public void overridden() {
+        }
+    }
+
+    public static class SubSteps extends BaseSteps {
+
+        @Given("a sub step")
+        public void sub() {
+        }
+
+        @Override
+        public void overridden() {
+        }
+    }
+}
@@ -6,10 +6,12 @@ import nl.eernie.jmoribus.model.Table;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.beans.ConstructorProperties;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.Matchers.any;
@@ -61,6 +63,44 @@ public class ReflectionParserTest {
 
     }
 
+    @Test
+    public void testImmutableObjects() throws Exception {
+
+        Table table = new Table();
+        table.setHeader(Arrays.asList("name", "age"));
+        table.getRows().add(Arrays.asList("John", "42"));
+        table.getRows().add(Arrays.asList("Jane", "37"));
+
+        MethodMatcher methodMatcher = new MethodMatcher(Collections.emptyList());
+        Type type = ListTest.class.getMethod("immutableMethod", List.class).getGenericParameterTypes()[0];
+        List<?> list = (List<?>) ReflectionParser.parse(table, type, methodMatcher);
+
+        Assert.assertEquals(2, list.size());
+        ImmutableObject o = (ImmutableObject) list.get(1);
+        Assert.assertEquals("Jane", o.getName());
+        Assert.assertEquals(37, o.getAge());
+        Assert.assertFalse(o.isActive());
+        Assert.assertSame(TableBinder.forTable(ImmutableObject.class, table.getHeader(), methodMatcher),
+                TableBinder.forTable(ImmutableObject.class, Arrays.asList("name", "age"), methodMatcher));
+    }
+
+    @Test
+    public void testPreparedTableCreatesNewObjects() throws Exception {
+
+        Table table = new Table();
+        table.setHeader(Arrays.asList("columnA", "columnB", "columnC"));
+        table.getRows().add(Arrays.asList("aaaa", "bbb", "100"));
+
+        PreparedTable preparedTable = ReflectionParser.prepare(table, TestObject.class, mockMethodMatcher());
+        TestObject first = (TestObject) preparedTable.parse();
+        TestObject second = (TestObject) preparedTable.parse();
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("aaaa", second.getColumnA());
+        Assert.assertSame(100, second.getColumnC());
+        Assert.assertNull(ReflectionParser.prepare(table, String[].class, mockMethodMatcher()));
+    }
+
     private MethodMatcher mockMethodMatcher() throws InvocationTargetException, IllegalAccessException {
 
         MethodMatcher methodMatcher = mock(MethodMatcher.class);
@@ -75,6 +115,36 @@ public class ReflectionParserTest {
         public void testMethod(List<TestObject> testObjects) {
 
         }
+
+        public void immutableMethod(List<ImmutableObject> immutableObjects) {
+
+        }
+    }
+
+    public static final class ImmutableObject {
+
+        private final String name;
+        private final int age;
+        private final boolean active;
+
+        @ConstructorProperties({"name", "age", "active"})
+        public ImmutableObject(String name, int age, boolean active) {
+            this.name = name;
+            this.age = age;
+            this.active = active;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
     }
 
 }
@@ -0,0 +1,78 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.BeforeScenario;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.exception.NoParameterConverterFoundException;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.parser.ParseableStory;
+import nl.eernie.jmoribus.parser.StoryParser;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import nl.eernie.jmoribus.reporter.Reporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+
+public class DryRunTest {
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Test
+    public void testDryRunReportsProblemsWithoutInvokingSteps() {
+        ParseableStory parseableStory = new ParseableStory(getClass().getResourceAsStream("/runner/dryRun.story"), "dryRun.story");
+        List<Story> stories = StoryParser.parseStories(Arrays.asList(parseableStory), false);
+
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        Reporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(new DryRunSteps()));
+
+        new JMoribus(configuration).dryRun(stories);
+
+        Assert.assertEquals(0, invocations.get());
+        Mockito.verify(reporter, times(1)).beforeStory(stories.get(0));
+        Mockito.verify(reporter, times(2)).successStep(any(Step.class));
+        Mockito.verify(reporter, times(2)).pendingStep(any(Step.class));
+        Mockito.verify(reporter, times(1)).errorStep(any(Step.class), eq("Unknown scenario with title scenario that does not exist"));
+
+        ArgumentCaptor<Throwable> errors = ArgumentCaptor.forClass(Throwable.class);
+        Mockito.verify(reporter, times(4)).errorStep(any(Step.class), errors.capture());
+        Assert.assertEquals("Velden en waarden komen niet overeen", errors.getAllValues().get(0).getMessage());
+        Assert.assertTrue(errors.getAllValues().get(1) instanceof NoParameterConverterFoundException);
+    }
+
+    public class DryRunSteps {
+
+        @BeforeScenario
+        public void beforeScenario() {
+            invocations.incrementAndGet();
+        }
+
+        @Given("a bound step")
+        public void boundStep() {
+            invocations.incrementAndGet();
+        }
+
+        @Then("a step with too many parameters")
+        public void tooManyParameters(String parameter) {
+            invocations.incrementAndGet();
+        }
+
+        @Then("a step expecting a thread $thread")
+        public void missingConverter(Thread thread) {
+            invocations.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DurationHistoryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDurationsAreRecorded() throws Exception {
+        File historyFile = new File(temporaryFolder.getRoot(), "history/durations.properties");
+        DefaultConfiguration configuration = createConfiguration(historyFile);
+
+        new JMoribus(configuration).runStories(Arrays.asList(createStory("slow", 1, "50")));
+
+        DurationHistory history = DurationHistory.load(historyFile);
+        Assert.assertTrue(history.getStoryMillis("slow") >= 50);
+        Assert.assertTrue(history.getScenarioMillis("slow", "scenario 1") >= 50);
+    }
+
+    @Test
+    public void testStoriesAreOrderedLongestFirst() throws Exception {
+        File historyFile = temporaryFolder.newFile();
+        DurationHistory history = new DurationHistory();
+        history.recordStory("short", 100);
+        history.recordStory("long", 900);
+        history.recordScenario("known", "scenario 1", 200);
+        history.save(historyFile);
+
+        List<Story> stories = new ArrayList<>();
+        stories.add(createStory("short", 1, "0"));
+        stories.add(createStory("unknown", 1, "0", "0", "0", "0", "0", "0"));
+        stories.add(createStory("long", 1, "0"));
+        stories.add(createStory("known", 1, "0", "0"));
+        ExecutionPlan plan = new JMoribus(createConfiguration(historyFile)).compile(stories);
+
+        List<String> order = new ArrayList<>();
+        for (PlannedStory story : plan.getDurationHistory().longestFirst(plan.getStories())) {
+            order.add(story.getStory().getUniqueIdentifier());
+        }
+        // the known scenario calibrates the estimate to 100 ms per step, the unknown story has 6 steps
+        Assert.assertEquals(Arrays.asList("long", "unknown", "known", "short"), order);
+    }
+
+    @Test
+    public void testShardsAreBalancedByDuration() throws Exception {
+        File historyFile = temporaryFolder.newFile();
+        DurationHistory history = new DurationHistory();
+        history.recordStory("a", 1000);
+        history.recordStory("b", 600);
+        history.recordStory("c", 500);
+        history.recordStory("d", 100);
+        history.save(historyFile);
+
+        List<Story> stories = Arrays.asList(createStory("a", 1, "0"), createStory("b", 1, "0"), createStory("c", 1, "0"), createStory("d", 1, "0"));
+        Assert.assertEquals(Arrays.asList("a", "d"), plannedStories(historyFile, 0, stories));
+        Assert.assertEquals(Arrays.asList("b", "c"), plannedStories(historyFile, 1, stories));
+    }
+
+    private List<String> plannedStories(File historyFile, int shardIndex, List<Story> stories) {
+        DefaultConfiguration configuration = createConfiguration(historyFile);
+        configuration.setShardCount(2);
+        configuration.setShardIndex(shardIndex);
+        configuration.setBalanceShardsByDuration(true);
+        List<String> identifiers = new ArrayList<>();
+        for (PlannedStory story : new JMoribus(configuration).compile(stories).getStories()) {
+            identifiers.add(story.getStory().getUniqueIdentifier());
+        }
+        return identifiers;
+    }
+
+    private DefaultConfiguration createConfiguration(File historyFile) {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setDurationHistoryFile(historyFile);
+        configuration.addSteps(Arrays.<Object>asList(new SleepSteps()));
+        return configuration;
+    }
+
+    private Story createStory(String identifier, int scenarioNumber, String... sleeps) {
+        Story story = new Story();
+        story.setTitle(identifier);
+        story.setUniqueIdentifier(identifier);
+        Scenario scenario = new Scenario();
+        scenario.setTitle("scenario " + scenarioNumber);
+        scenario.setStory(story);
+        for (String millis : sleeps) {
+            Step step = new Step(StepType.GIVEN);
+            step.setStepContainer(scenario);
+            step.getStepLines().add(new Line("the step takes " + millis + " millis"));
+            scenario.getSteps().add(step);
+        }
+        story.getScenarios().add(scenario);
+        return story;
+    }
+
+    public static class SleepSteps {
+
+        @Given("the step takes $millis millis")
+        public void sleep(String millis) throws InterruptedException {
+            Thread.sleep(Long.parseLong(millis));
+        }
+    }
+}
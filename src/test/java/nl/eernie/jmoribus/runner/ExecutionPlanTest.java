@@ -0,0 +1,89 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.Steps;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.parser.ParseableStory;
+import nl.eernie.jmoribus.parser.StoryParser;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import nl.eernie.jmoribus.reporter.Reporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+
+public class ExecutionPlanTest {
+
+    @Test
+    public void testPlanBindsEveryStepOnce() {
+        List<ParseableStory> parseableStories = new ArrayList<>();
+        parseableStories.add(new ParseableStory(getClass().getResourceAsStream("/reporter/reporterTestStory.story"), "reporter.story"));
+        parseableStories.add(new ParseableStory(getClass().getResourceAsStream("/storyWithMultipleTablesPerStep.story"), "tables.story"));
+        List<Story> stories = StoryParser.parseStories(parseableStories);
+
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.addSteps(Arrays.<Object>asList(new Steps()));
+        ExecutionPlan plan = new JMoribus(configuration).compile(stories);
+
+        Assert.assertEquals(2, plan.getStories().size());
+        PlannedStory reporterStory = plan.getStories().get(0);
+        Assert.assertSame(stories.get(0), reporterStory.getStory());
+        Assert.assertTrue(reporterStory.getPrologue().getSteps().get(0).isPending());
+
+        PlannedContainer referringScenario = reporterStory.getScenarios().get(1);
+        PlannedStep referringStep = referringScenario.getSteps().get(0);
+        Assert.assertTrue(referringStep.isReferring());
+        Assert.assertSame(reporterStory.getScenarios().get(0), referringStep.getReferring());
+
+        StepInvocation failingStep = referringScenario.getSteps().get(1).getInvocation();
+        Assert.assertEquals("failingStep", failingStep.getPossibleStep().getMethod().getName());
+        Assert.assertTrue(failingStep.getArguments().isEmpty());
+        Assert.assertNull(failingStep.getBindingError());
+
+        StepInvocation tableStep = plan.getStories().get(1).getScenarios().get(0).getSteps().get(3).getInvocation();
+        Assert.assertEquals("tabledMethod", tableStep.getPossibleStep().getMethod().getName());
+        Assert.assertEquals(Arrays.asList("TABLE1", "TABLE3"), tableStep.getArguments());
+    }
+
+    @Test
+    public void testPlanKeepsBindingErrorsForRunTime() {
+        Story story = StoryParser.parseStory(new ParseableStory(getClass().getResourceAsStream("/selenium.story"), "selenium.story"));
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.addSteps(Arrays.<Object>asList(new Object() {
+            @Given("the method has a WebDriver and more vars in the $signature")
+            public void arityMismatch() {
+            }
+        }));
+        ExecutionPlan plan = new JMoribus(configuration).compile(Arrays.asList(story));
+
+        StepInvocation invocation = plan.getStories().get(0).getScenarios().get(1).getSteps().get(0).getInvocation();
+        Assert.assertNotNull(invocation.getBindingError());
+    }
+
+    @Test
+    public void testPlanCanBeRunRepeatedly() {
+        Story story = StoryParser.parseStory(new ParseableStory(getClass().getResourceAsStream("/reporter/reporterTestStory.story"), "reporter.story"));
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        Reporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(new Steps()));
+        JMoribus jMoribus = new JMoribus(configuration);
+        ExecutionPlan plan = jMoribus.compile(Arrays.asList(story));
+
+        jMoribus.run(plan);
+        jMoribus.run(plan);
+
+        Mockito.verify(reporter, times(2)).beforeStory(story);
+        Mockito.verify(reporter, times(2)).failedStep(any(Step.class), any(AssertionError.class));
+        Mockito.verify(reporter, times(2)).successStep(any(Step.class));
+    }
+}
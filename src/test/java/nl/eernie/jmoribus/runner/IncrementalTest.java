@@ -0,0 +1,180 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.BeforeScenario;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.ParameterConverter;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.parser.ParseableStory;
+import nl.eernie.jmoribus.parser.StoryParser;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class IncrementalTest {
+
+    private static final String HELPER_STORY = "Scenario: helper\nGiven the helper runs\n";
+    private static final String STORY = "Scenario: first\nReferring helper\nGiven the step runs\n\nScenario: second\nGiven the step runs\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<String> executed = new ArrayList<>();
+    private boolean failing;
+
+    @Test
+    public void testUnchangedStoryIsCached() throws Exception {
+        run(STORY, HELPER_STORY);
+        Assert.assertEquals(4, executed.size());
+
+        executed.clear();
+        DefaultReporter reporter = run(STORY, HELPER_STORY);
+
+        Assert.assertTrue(executed.isEmpty());
+        Mockito.verify(reporter, times(3)).cachedScenario(any(Scenario.class));
+        Mockito.verify(reporter, never()).beforeScenario(any(Scenario.class));
+    }
+
+    @Test
+    public void testChangedSourceRunsAgain() throws Exception {
+        run(STORY, HELPER_STORY);
+        executed.clear();
+
+        run(STORY + "\nScenario: third\nGiven the step runs\n", HELPER_STORY);
+
+        Assert.assertEquals(Arrays.asList("helper", "step", "step", "step"), executed);
+    }
+
+    @Test
+    public void testChangedReferredScenarioRunsAgain() throws Exception {
+        run(STORY, HELPER_STORY);
+        executed.clear();
+
+        run(STORY, HELPER_STORY + "Given the step runs\n");
+
+        Assert.assertEquals(Arrays.asList("helper", "step", "step", "step", "helper", "step"), executed);
+    }
+
+    @Test
+    public void testFailedStoryIsNotCached() throws Exception {
+        failing = true;
+        run(STORY, HELPER_STORY);
+        executed.clear();
+
+        failing = false;
+        run(STORY, HELPER_STORY);
+
+        // the helper story passed the first time and stays cached
+        Assert.assertEquals(Arrays.asList("helper", "step", "step"), executed);
+    }
+
+    @Test
+    public void testStepClassesArePartOfTheFingerprint() throws Exception {
+        IncrementalCache cache = new IncrementalCache(temporaryFolder.getRoot(), new MethodMatcher(Arrays.<Object>asList(new IncrementalSteps())));
+        Story story = parse(STORY, HELPER_STORY).get(0);
+        DefaultConfiguration otherSteps = new DefaultConfiguration();
+        otherSteps.addSteps(Arrays.<Object>asList(new OtherSteps()));
+
+        String fingerprint = cache.fingerprint(new JMoribus(createConfiguration()).compile(Arrays.asList(story)).getStories().get(0));
+        String otherFingerprint = cache.fingerprint(new JMoribus(otherSteps).compile(Arrays.asList(story)).getStories().get(0));
+
+        Assert.assertEquals(64, fingerprint.length());
+        Assert.assertNotEquals(fingerprint, otherFingerprint);
+    }
+
+    @Test
+    public void testHookAndConverterClassesArePartOfTheFingerprint() throws Exception {
+        Story story = parse(STORY, HELPER_STORY).get(0);
+        PlannedStory plannedStory = new JMoribus(createConfiguration()).compile(Arrays.asList(story)).getStories().get(0);
+
+        String fingerprint = fingerprint(plannedStory, new IncrementalSteps());
+        String hooksFingerprint = fingerprint(plannedStory, new IncrementalSteps(), new Hooks());
+        String convertersFingerprint = fingerprint(plannedStory, new IncrementalSteps(), new Converters());
+
+        Assert.assertNotEquals(fingerprint, hooksFingerprint);
+        Assert.assertNotEquals(fingerprint, convertersFingerprint);
+        Assert.assertNotEquals(hooksFingerprint, convertersFingerprint);
+    }
+
+    private String fingerprint(PlannedStory plannedStory, Object... steps) {
+        return new IncrementalCache(temporaryFolder.getRoot(), new MethodMatcher(Arrays.asList(steps))).fingerprint(plannedStory);
+    }
+
+    private DefaultReporter run(String story, String helperStory) {
+        DefaultConfiguration configuration = createConfiguration();
+        DefaultReporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        new JMoribus(configuration).runStories(parse(story, helperStory));
+        return reporter;
+    }
+
+    private DefaultConfiguration createConfiguration() {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setIncrementalCacheDirectory(temporaryFolder.getRoot());
+        configuration.addSteps(Arrays.<Object>asList(new IncrementalSteps()));
+        return configuration;
+    }
+
+    private List<Story> parse(String story, String helperStory) {
+        return StoryParser.parseStories(Arrays.asList(
+                new ParseableStory(new ByteArrayInputStream(story.getBytes(StandardCharsets.UTF_8)), "story"),
+                new ParseableStory(new ByteArrayInputStream(helperStory.getBytes(StandardCharsets.UTF_8)), "helper")));
+    }
+
+    public class IncrementalSteps {
+
+        @Given("the helper runs")
+        public void helper() {
+            executed.add("helper");
+        }
+
+        @Given("the step runs")
+        public void step() {
+            executed.add("step");
+            Assert.assertFalse(failing);
+        }
+    }
+
+    public static class OtherSteps {
+
+        @Given("the helper runs")
+        public void helper() {
+        }
+
+        @Then("the step runs")
+        public void step() {
+        }
+    }
+
+    public static class Hooks {
+
+        @BeforeScenario
+        public void beforeScenario() {
+        }
+    }
+
+    public static class Converters {
+
+        @ParameterConverter
+        public Long convert(String value) {
+            return Long.valueOf(value);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.annotation.When;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.parser.ParseableStory;
+import nl.eernie.jmoribus.parser.StoryParser;
+import nl.eernie.jmoribus.reporter.ResultFile;
+import nl.eernie.jmoribus.reporter.ScenarioResult;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RerunFailuresTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<String> executed = new ArrayList<>();
+    private boolean fixed;
+
+    @Test
+    public void testOnlyFailedAndPendingScenariosAreRerun() throws Exception {
+        File journal = new File(temporaryFolder.getRoot(), "journal.txt");
+        Story story = StoryParser.parseStory(new ParseableStory(getClass().getResourceAsStream("/runner/rerun.story"), "rerun.story"));
+
+        new JMoribus(createConfiguration(journal, false)).runStories(Arrays.asList(story));
+        Assert.assertEquals("helper=PASSED, passing=PASSED, failing=FAILED, pending=PENDING", describe(ResultFile.read(journal)));
+
+        fixed = true;
+        executed.clear();
+        new JMoribus(createConfiguration(journal, true)).runStories(Arrays.asList(story));
+
+        Assert.assertEquals(Arrays.asList("prologue", "helper", "fix"), executed);
+        Assert.assertEquals("failing=PASSED, helper=PASSED, passing=PASSED, pending=PENDING", describe(ResultFile.read(journal)));
+    }
+
+    @Test
+    public void testEverythingRunsWithoutJournal() {
+        File journal = new File(temporaryFolder.getRoot(), "missing.txt");
+        Story story = StoryParser.parseStory(new ParseableStory(getClass().getResourceAsStream("/runner/rerun.story"), "rerun.story"));
+
+        ExecutionPlan plan = new JMoribus(createConfiguration(journal, true)).compile(Arrays.asList(story));
+
+        Assert.assertEquals(4, plan.getStories().get(0).getScenarios().size());
+    }
+
+    private DefaultConfiguration createConfiguration(File journal, boolean rerunFailures) {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setResultJournalFile(journal);
+        configuration.setRerunFailures(rerunFailures);
+        configuration.addSteps(Arrays.<Object>asList(new RerunSteps()));
+        return configuration;
+    }
+
+    private String describe(List<ScenarioResult> results) {
+        StringBuilder builder = new StringBuilder();
+        for (ScenarioResult result : results) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(result.getScenarioTitle()).append('=').append(result.getStatus());
+        }
+        return builder.toString();
+    }
+
+    public class RerunSteps {
+
+        @Given("the prologue runs")
+        public void prologue() {
+            executed.add("prologue");
+        }
+
+        @When("the helper runs")
+        public void helper() {
+            executed.add("helper");
+        }
+
+        @Then("the scenario passes")
+        public void passes() {
+            executed.add("passes");
+        }
+
+        @Then("the fix is deployed")
+        public void fix() {
+            executed.add("fix");
+            Assert.assertTrue(fixed);
+        }
+    }
+}
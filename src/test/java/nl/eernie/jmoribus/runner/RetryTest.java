@@ -0,0 +1,171 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.context.CopyableContextProvider;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Prologue;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepContainer;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import nl.eernie.jmoribus.reporter.ResultFile;
+import nl.eernie.jmoribus.reporter.ScenarioResult;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class RetryTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final DefaultConfiguration configuration = new DefaultConfiguration();
+    private final DefaultReporter reporter = Mockito.mock(DefaultReporter.class);
+    private final AtomicInteger prologueRuns = new AtomicInteger();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+    private int failingAttempts;
+
+    @Test
+    public void testFlakyScenarioIsRetriedFromThePrologue() throws Exception {
+        for (int scenarioThreads : new int[]{1, 2}) {
+            File journal = temporaryFolder.newFile();
+            File flakiness = new File(temporaryFolder.getRoot(), "flakiness-" + scenarioThreads + ".properties");
+            prepare(journal, flakiness, scenarioThreads, 1);
+            failingAttempts = 1;
+
+            Story story = createStory("story", "flaky");
+            new JMoribus(configuration).runStories(Arrays.asList(story));
+
+            Scenario scenario = story.getScenarios().get(0);
+            Assert.assertEquals(2, attempts.get());
+            Assert.assertEquals(2, prologueRuns.get());
+            Mockito.verify(reporter, times(1)).retryScenario(scenario, 1);
+            Mockito.verify(reporter, times(1)).flakyScenario(scenario, 2);
+            Mockito.verify(reporter, times(2)).afterScenario(scenario);
+            Mockito.verify(reporter, times(1)).failedStep(any(Step.class), any(AssertionError.class));
+            Assert.assertEquals(ScenarioResult.Status.FLAKY, ResultFile.read(journal).get(0).getStatus());
+            Assert.assertEquals(1, ResultFile.read(journal).size());
+            Assert.assertEquals(1.0, FlakinessHistory.load(flakiness).getFlakeRate("story", "flaky"), 0);
+        }
+    }
+
+    @Test
+    public void testScenarioFailsWhenRetriesAreExhausted() throws Exception {
+        File journal = temporaryFolder.newFile();
+        File flakiness = new File(temporaryFolder.getRoot(), "flakiness.properties");
+        prepare(journal, flakiness, 1, 2);
+        failingAttempts = 5;
+
+        Story story = createStory("story", "broken");
+        new JMoribus(configuration).runStories(Arrays.asList(story));
+
+        Assert.assertEquals(3, attempts.get());
+        Mockito.verify(reporter, times(2)).retryScenario(any(Scenario.class), anyInt());
+        Mockito.verify(reporter, never()).flakyScenario(any(Scenario.class), anyInt());
+        Mockito.verify(reporter, times(3)).failedStep(any(Step.class), any(AssertionError.class));
+        Assert.assertEquals(ScenarioResult.Status.FAILED, ResultFile.read(journal).get(0).getStatus());
+        Assert.assertEquals(0.0, FlakinessHistory.load(flakiness).getFlakeRate("story", "broken"), 0);
+    }
+
+    @Test
+    public void testQuarantinedScenariosRunLast() throws Exception {
+        File flakiness = new File(temporaryFolder.getRoot(), "flakiness.properties");
+        FlakinessHistory history = new FlakinessHistory();
+        for (int i = 0; i < FlakinessHistory.MIN_RUNS; i++) {
+            history.record("first", "flaky", i % 2 == 0);
+            history.record("first", "stable", false);
+        }
+        history.save(flakiness);
+        prepare(temporaryFolder.newFile(), flakiness, 1, 0);
+        configuration.setQuarantineFlakeRate(0.5);
+
+        new JMoribus(configuration).runStories(Arrays.asList(createStory("first", "flaky", "stable"), createStory("second", "other")));
+
+        Assert.assertEquals(Arrays.asList("stable", "other", "flaky"), executed);
+        FlakinessHistory updated = FlakinessHistory.load(flakiness);
+        Assert.assertEquals(0.5, updated.getFlakeRate("first", "flaky"), 0);
+        Assert.assertTrue(updated.isQuarantined("first", "flaky", 0.5));
+        Assert.assertFalse(updated.isQuarantined("second", "other", 0.5));
+    }
+
+    private void prepare(File journal, File flakiness, int scenarioThreads, int retries) {
+        Mockito.reset(reporter);
+        ((CopyableContextProvider) configuration.getContextProvider()).setVariables(Collections.<String, String>emptyMap());
+        prologueRuns.set(0);
+        attempts.set(0);
+        configuration.getConcurrentReporter().removeReporter(reporter);
+        configuration.addReporter(reporter);
+        if (configuration.getSteps().isEmpty()) {
+            configuration.addSteps(Arrays.<Object>asList(new Steps()));
+        }
+        configuration.setScenarioThreads(scenarioThreads);
+        configuration.setScenarioRetries(retries);
+        configuration.setResultJournalFile(journal);
+        configuration.setFlakinessHistoryFile(flakiness);
+    }
+
+    private Story createStory(String identifier, String... scenarioTitles) {
+        Story story = new Story();
+        story.setTitle(identifier);
+        story.setUniqueIdentifier(identifier);
+        Prologue prologue = new Prologue();
+        prologue.setStory(story);
+        prologue.getSteps().add(createStep(prologue, StepType.GIVEN, "the prologue runs"));
+        story.setPrologue(prologue);
+        for (String title : scenarioTitles) {
+            Scenario scenario = new Scenario();
+            scenario.setTitle(title);
+            scenario.setStory(story);
+            scenario.getSteps().add(createStep(scenario, StepType.THEN, "the scenario " + title + " runs in a fresh context"));
+            story.getScenarios().add(scenario);
+        }
+        return story;
+    }
+
+    private Step createStep(StepContainer container, StepType stepType, String text) {
+        Step step = new Step(stepType);
+        step.setStepContainer(container);
+        step.getStepLines().add(new Line(text));
+        return step;
+    }
+
+    public class Steps {
+
+        @Given("the prologue runs")
+        public void prologue() {
+            prologueRuns.incrementAndGet();
+            configuration.getContextProvider().set("prologue", "done");
+        }
+
+        @Then("the scenario $title runs in a fresh context")
+        public void scenario(String title) {
+            executed.add(title);
+            Assert.assertEquals("done", configuration.getContextProvider().get("prologue"));
+            Assert.assertFalse(configuration.getContextProvider().isVariableSet("attempted"));
+            configuration.getContextProvider().set("attempted", title);
+            if (title.equals("flaky") || title.equals("broken")) {
+                Assert.assertFalse(attempts.incrementAndGet() <= failingAttempts);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.parser.ParseableStory;
+import nl.eernie.jmoribus.parser.StoryParser;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import nl.eernie.jmoribus.reporter.Reporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class ScenarioOutlineTest {
+
+    private final List<String> deposits = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void testEveryExampleRowIsAnIteration() {
+        Story story = StoryParser.parseStory(new ParseableStory(getClass().getResourceAsStream("/runner/outline.story"), "outline.story"));
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setScenarioThreads(3);
+        Reporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        configuration.addSteps(Arrays.<Object>asList(new OutlineSteps()));
+
+        new JMoribus(configuration).runStories(Arrays.asList(story));
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("10 savings", "20 current", "30 savings")), new HashSet<>(deposits));
+        Mockito.verify(reporter, times(6)).successStep(any(Step.class));
+        Mockito.verify(reporter, never()).pendingStep(any(Step.class));
+
+        ArgumentCaptor<Scenario> scenarios = ArgumentCaptor.forClass(Scenario.class);
+        Mockito.verify(reporter, times(3)).beforeScenario(scenarios.capture());
+        List<String> titles = new ArrayList<>();
+        for (Scenario scenario : scenarios.getAllValues()) {
+            titles.add(scenario.getTitle());
+            Assert.assertSame(story, scenario.getStory());
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList("deposit [1]", "deposit [2]", "deposit [3]")), new HashSet<>(titles));
+    }
+
+    @Test
+    public void testPlanHasOneScenarioPerRow() {
+        Story story = StoryParser.parseStory(new ParseableStory(getClass().getResourceAsStream("/runner/outline.story"), "outline.story"));
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.addSteps(Arrays.<Object>asList(new OutlineSteps()));
+
+        ExecutionPlan plan = new JMoribus(configuration).compile(Arrays.asList(story));
+
+        List<PlannedContainer> iterations = plan.getStories().get(0).getScenarios();
+        Assert.assertEquals(3, iterations.size());
+        StepInvocation then = iterations.get(1).getSteps().get(1).getInvocation();
+        Assert.assertEquals(Arrays.asList("20", "current", "<unknown>"), then.getArguments());
+    }
+
+    public class OutlineSteps {
+
+        @Given("an amount of $amount is deposited on $account")
+        public void deposit(String amount, String account) {
+            deposits.add(amount + " " + account);
+        }
+
+        @Then("the deposits contain $amount on $account and $placeholder")
+        public void depositsContain(String amount, String account, String placeholder) {
+            Assert.assertTrue(deposits.contains(amount + " " + account));
+            Assert.assertEquals("<unknown>", placeholder);
+        }
+    }
+}
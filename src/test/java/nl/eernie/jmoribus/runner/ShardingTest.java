@@ -0,0 +1,153 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.annotation.Then;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.configuration.ShardingMode;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.ResultFile;
+import nl.eernie.jmoribus.reporter.ResultFileReporter;
+import nl.eernie.jmoribus.reporter.ScenarioResult;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class ShardingTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testAddingStoriesMovesNoOtherStory() {
+        Map<String, Integer> assignment = new HashMap<>();
+        int[] storiesPerShard = new int[12];
+        for (int i = 0; i < 1200; i++) {
+            int shard = Sharding.shardOf("story-" + i, 12);
+            assignment.put("story-" + i, shard);
+            storiesPerShard[shard]++;
+        }
+        for (int i = 0; i < 1200; i++) {
+            Assert.assertEquals(assignment.get("story-" + i).intValue(), Sharding.shardOf("story-" + i, 12));
+        }
+        for (int count : storiesPerShard) {
+            Assert.assertTrue("Unbalanced shards " + Arrays.toString(storiesPerShard), count > 50 && count < 150);
+        }
+    }
+
+    @Test
+    public void testGrowingShardCountOnlyMovesToNewShard() {
+        for (int i = 0; i < 1000; i++) {
+            int before = Sharding.shardOf("story-" + i, 4);
+            int after = Sharding.shardOf("story-" + i, 5);
+            Assert.assertTrue(after == before || after == 4);
+        }
+    }
+
+    @Test
+    public void testShardsCoverEveryStoryOnce() {
+        List<Story> stories = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            stories.add(createStory("story-" + i, "first", "second"));
+        }
+        List<String> planned = new ArrayList<>();
+        for (int shard = 0; shard < 4; shard++) {
+            for (PlannedStory story : createJMoribus(shard, 4, ShardingMode.STORY, null).compile(stories).getStories()) {
+                Assert.assertEquals(2, story.getScenarios().size());
+                planned.add(story.getStory().getUniqueIdentifier());
+            }
+        }
+        Assert.assertEquals(30, planned.size());
+        Assert.assertEquals(30, new HashSet<>(planned).size());
+    }
+
+    @Test
+    public void testMergedScenarioShardsContainEveryScenarioOnce() throws Exception {
+        List<Story> stories = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            stories.add(createStory("story-" + i, "passing", "failing", "third"));
+        }
+        List<File> resultFiles = new ArrayList<>();
+        for (int shard = 0; shard < 3; shard++) {
+            File resultFile = new File(temporaryFolder.getRoot(), "shard-" + shard + "/results.txt");
+            createJMoribus(shard, 3, ShardingMode.SCENARIO, resultFile).runStories(stories);
+            resultFiles.add(resultFile);
+        }
+
+        List<ScenarioResult> results = ResultFile.merge(resultFiles);
+        Assert.assertEquals(30, results.size());
+        Assert.assertEquals("story-0", results.get(0).getStoryIdentifier());
+        Assert.assertEquals("failing", results.get(0).getScenarioTitle());
+        for (ScenarioResult result : results) {
+            ScenarioResult.Status expected = result.getScenarioTitle().equals("failing") ? ScenarioResult.Status.FAILED : ScenarioResult.Status.PASSED;
+            Assert.assertEquals(expected, result.getStatus());
+        }
+    }
+
+    @Test
+    public void testResultFileRoundTrip() throws Exception {
+        File file = temporaryFolder.newFile();
+        ScenarioResult written = new ScenarioResult("stories/a\\b.story", "title\twith\nbreaks", ScenarioResult.Status.PENDING, 42);
+        ResultFile.write(file, Arrays.asList(written));
+
+        ScenarioResult read = ResultFile.read(file).get(0);
+        Assert.assertEquals(written.getStoryIdentifier(), read.getStoryIdentifier());
+        Assert.assertEquals(written.getScenarioTitle(), read.getScenarioTitle());
+        Assert.assertEquals(ScenarioResult.Status.PENDING, read.getStatus());
+        Assert.assertEquals(42, read.getDurationMillis());
+    }
+
+    private JMoribus createJMoribus(int shardIndex, int shardCount, ShardingMode shardingMode, File resultFile) {
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setShardIndex(shardIndex);
+        configuration.setShardCount(shardCount);
+        configuration.setShardingMode(shardingMode);
+        if (resultFile != null) {
+            configuration.addReporter(new ResultFileReporter(resultFile));
+        }
+        configuration.addSteps(Arrays.<Object>asList(new ShardSteps()));
+        return new JMoribus(configuration);
+    }
+
+    private Story createStory(String identifier, String... scenarioTitles) {
+        Story story = new Story();
+        story.setTitle(identifier);
+        story.setUniqueIdentifier(identifier);
+        for (String title : scenarioTitles) {
+            Scenario scenario = new Scenario();
+            scenario.setTitle(title);
+            scenario.setStory(story);
+            Step step = new Step(title.equals("failing") ? StepType.THEN : StepType.GIVEN);
+            step.setStepContainer(scenario);
+            step.getStepLines().add(new Line("the scenario is " + title));
+            scenario.getSteps().add(step);
+            story.getScenarios().add(scenario);
+        }
+        return story;
+    }
+
+    public static class ShardSteps {
+
+        @Given("the scenario is $title")
+        public void passing(String title) {
+        }
+
+        @Then("the scenario is $title")
+        public void failing(String title) {
+            Assert.fail(title);
+        }
+    }
+}
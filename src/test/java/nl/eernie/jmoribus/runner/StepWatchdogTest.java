@@ -0,0 +1,27 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.context.DefaultContextProvider;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.ExecutionException;
+
+public class StepWatchdogTest {
+
+    @Test
+    public void testThrowableIsRethrownUnwrapped() throws Throwable {
+        Throwable thrown = new Throwable("neither an exception nor an error");
+        StepRunner stepRunner = Mockito.mock(StepRunner.class);
+        Mockito.doThrow(thrown).when(stepRunner).run((StepInvocation) null, (WebDriverLease) null);
+
+        try {
+            new StepWatchdog(new DefaultContextProvider()).run(stepRunner, null, null, Deadline.after("Step", 5000));
+            Assert.fail("The throwable of the step is not rethrown");
+        } catch (ExecutionException e) {
+            Assert.fail("The throwable of the step is wrapped: " + e);
+        } catch (Throwable e) {
+            Assert.assertSame(thrown, e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package nl.eernie.jmoribus.runner;
+
+import nl.eernie.jmoribus.annotation.ParameterConverter;
+import nl.eernie.jmoribus.annotation.When;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.matcher.MethodMatcher;
+import nl.eernie.jmoribus.matcher.StepMatch;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+
+public class TypedPlaceholderTest {
+
+    private final TypedSteps steps = new TypedSteps();
+    private final MethodMatcher methodMatcher = new MethodMatcher(Collections.<Object>singletonList(steps));
+    private final StepRunner stepRunner = new StepRunner(methodMatcher, new DefaultConfiguration());
+
+    @Test
+    public void convertTypedPlaceholdersTest() throws Throwable {
+        Step step = createStep("the customer buys 3 items of SMALL on 2015-03-31 for 12.50");
+        StepMatch match = methodMatcher.matchStep(step);
+        Assert.assertEquals(Arrays.asList("3", "SMALL", "2015-03-31", "12.50"), match.getParameterValues());
+
+        StepInvocation invocation = stepRunner.bind(match.getPossibleStep(), step, match.getParameterValues());
+        Assert.assertNull(invocation.getBindingError());
+        stepRunner.run(invocation);
+
+        Assert.assertEquals(3, steps.count);
+        Assert.assertEquals(Size.SMALL, steps.size);
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(steps.when);
+        Assert.assertEquals(2015, calendar.get(Calendar.YEAR));
+        Assert.assertEquals(Calendar.MARCH, calendar.get(Calendar.MONTH));
+        Assert.assertEquals(new BigDecimal("12.50"), steps.price);
+    }
+
+    @Test
+    public void everyRunGetsItsOwnDateTest() throws Throwable {
+        Step step = createStep("the customer buys 3 items of SMALL on 2015-03-31 for 12.50");
+        StepMatch match = methodMatcher.matchStep(step);
+        StepInvocation invocation = stepRunner.bind(match.getPossibleStep(), step, match.getParameterValues());
+        stepRunner.run(invocation);
+        Date first = steps.when;
+        first.setTime(0);
+
+        stepRunner.run(invocation);
+        Assert.assertNotSame(first, steps.when);
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(steps.when);
+        Assert.assertEquals(2015, calendar.get(Calendar.YEAR));
+    }
+
+    @Test
+    public void converterMethodBeforePlaceholderTypeTest() throws Throwable {
+        MethodMatcher converting = new MethodMatcher(Arrays.<Object>asList(steps, new SizeConverter()));
+        Step step = createStep("the customer buys 3 items of big on 2015-03-31 for 12.50");
+        StepMatch match = converting.matchStep(step);
+        StepInvocation invocation = new StepRunner(converting, new DefaultConfiguration()).bind(match.getPossibleStep(), step, match.getParameterValues());
+        Assert.assertNull(invocation.getBindingError());
+        stepRunner.run(invocation);
+
+        Assert.assertEquals(Size.LARGE, steps.size);
+    }
+
+    @Test
+    public void typedPlaceholderOnlyMatchesItsTypeTest() {
+        Assert.assertNull(methodMatcher.matchStep(createStep("the customer buys three items of SMALL on 2015-03-31 for 12.50")));
+        Assert.assertNull(methodMatcher.matchStep(createStep("the customer buys 3 items of SMALL on 31-03-2015 for 12.50")));
+        Assert.assertNull(methodMatcher.matchStep(createStep("the customer buys 3 items of SMALL on 2015-03-31 for 12,50")));
+    }
+
+    @Test
+    public void plainPlaceholderTest() {
+        StepMatch match = methodMatcher.matchStep(createStep("the customer is called John Doe: regular"));
+        Assert.assertEquals(Arrays.asList("John Doe", "regular"), match.getParameterValues());
+    }
+
+    @Test
+    public void valueThatDoesNotFitTest() {
+        Step step = createStep("the customer buys 99999999999 items of SMALL on 2015-03-31 for 1");
+        StepMatch match = methodMatcher.matchStep(step);
+        StepInvocation invocation = stepRunner.bind(match.getPossibleStep(), step, match.getParameterValues());
+        Assert.assertTrue(invocation.getBindingError() instanceof IllegalArgumentException);
+    }
+
+    private static Step createStep(String text) {
+        Step step = new Step(StepType.WHEN);
+        step.getStepLines().add(new Line(text));
+        return step;
+    }
+
+    public enum Size {
+        SMALL, LARGE
+    }
+
+    public static class SizeConverter {
+
+        @ParameterConverter
+        public Size size(String value) {
+            return "big".equals(value) ? Size.LARGE : Size.valueOf(value);
+        }
+    }
+
+    public static class TypedSteps {
+
+        private int count;
+        private Size size;
+        private Date when;
+        private BigDecimal price;
+
+        @When("the customer buys $count:int items of $size:word on $when:date for $price:decimal")
+        public void buy(int count, Size size, Date when, BigDecimal price) {
+            this.count = count;
+            this.size = size;
+            this.when = when;
+            this.price = price;
+        }
+
+        @When("the customer is called $name: $kind")
+        public void name(String name, String kind) {
+        }
+    }
+}
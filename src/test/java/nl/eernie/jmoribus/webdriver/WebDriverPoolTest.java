@@ -0,0 +1,166 @@
+package nl.eernie.jmoribus.webdriver;
+
+import nl.eernie.jmoribus.JMoribus;
+import nl.eernie.jmoribus.annotation.Given;
+import nl.eernie.jmoribus.configuration.DefaultConfiguration;
+import nl.eernie.jmoribus.model.Line;
+import nl.eernie.jmoribus.model.Scenario;
+import nl.eernie.jmoribus.model.Step;
+import nl.eernie.jmoribus.model.StepType;
+import nl.eernie.jmoribus.model.Story;
+import nl.eernie.jmoribus.reporter.DefaultReporter;
+import nl.eernie.jmoribus.reporter.Reporter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class WebDriverPoolTest {
+
+    private final StubFactory factory = new StubFactory();
+
+    @Test
+    public void testDriversAreReusedAndBounded() throws InterruptedException {
+        WebDriverPool pool = new WebDriverPool(factory, 2);
+        WebDriver first = pool.lease();
+        WebDriver second = pool.lease();
+        pool.release(first);
+        Assert.assertSame(first, pool.lease());
+        Assert.assertEquals(2, factory.created.size());
+        Mockito.verify(first, times(1)).manage();
+        Mockito.verify(second, never()).manage();
+
+        pool.close();
+        Mockito.verify(first, never()).quit();
+        pool.release(first);
+        Mockito.verify(first, times(1)).quit();
+    }
+
+    @Test
+    public void testUnhealthyDriverIsReplaced() throws InterruptedException {
+        WebDriverPool pool = new WebDriverPool(factory, 1);
+        WebDriver driver = pool.lease();
+        factory.unhealthy.add(driver);
+        pool.release(driver);
+
+        Mockito.verify(driver, times(1)).quit();
+        Assert.assertEquals(0, pool.size());
+        Assert.assertNotSame(driver, pool.lease());
+    }
+
+    @Test
+    public void testWarmUp() throws InterruptedException {
+        WebDriverPool pool = new WebDriverPool(factory, 3);
+        pool.warmUp(5);
+        Assert.assertEquals(3, pool.size());
+        Assert.assertTrue(factory.created.contains(pool.lease()));
+        Assert.assertEquals(3, factory.created.size());
+        pool.close();
+    }
+
+    @Test
+    public void testScenariosLeaseOnlyWhenTheyNeedADriver() {
+        WebDriverPool pool = new WebDriverPool(factory, 2);
+        DefaultConfiguration configuration = new DefaultConfiguration();
+        configuration.setScenarioThreads(4);
+        configuration.setWebDriverPool(pool);
+        Reporter reporter = Mockito.mock(DefaultReporter.class);
+        configuration.addReporter(reporter);
+        Steps steps = new Steps();
+        configuration.addSteps(Arrays.<Object>asList(steps));
+
+        Story story = new Story();
+        story.setTitle("story");
+        story.setUniqueIdentifier("story");
+        for (int i = 0; i < 4; i++) {
+            addScenario(story, "browser " + i, "the browser is opened", "the browser is still the same");
+            addScenario(story, "plain " + i, "no browser is needed");
+        }
+        new JMoribus(configuration).runStories(Arrays.asList(story));
+
+        Mockito.verify(reporter, never()).failedStep(any(Step.class), any(AssertionError.class));
+        Mockito.verify(reporter, never()).errorStep(any(Step.class), any(Throwable.class));
+        Mockito.verify(reporter, times(12)).successStep(any(Step.class));
+        Assert.assertTrue(factory.created.size() <= 2);
+        Assert.assertEquals(4, steps.leases.get());
+        Assert.assertEquals(factory.created.size(), pool.size());
+        for (WebDriver driver : factory.created) {
+            Mockito.verify(driver, Mockito.atLeastOnce()).manage();
+        }
+        pool.close();
+    }
+
+    private void addScenario(Story story, String title, String... stepTexts) {
+        Scenario scenario = new Scenario();
+        scenario.setTitle(title);
+        scenario.setStory(story);
+        for (String stepText : stepTexts) {
+            Step step = new Step(StepType.GIVEN);
+            step.setStepContainer(scenario);
+            step.getStepLines().add(new Line(stepText));
+            scenario.getSteps().add(step);
+        }
+        story.getScenarios().add(scenario);
+    }
+
+    public static class Steps {
+
+        private final AtomicInteger leases = new AtomicInteger();
+        private final ThreadLocal<WebDriver> opened = new ThreadLocal<>();
+        private final Set<WebDriver> inUse = Collections.synchronizedSet(new HashSet<WebDriver>());
+
+        @Given("the browser is opened")
+        public void open(WebDriver driver) throws InterruptedException {
+            Assert.assertTrue("Driver leased twice", inUse.add(driver));
+            leases.incrementAndGet();
+            opened.set(driver);
+            Thread.sleep(50);
+        }
+
+        @Given("the browser is still the same")
+        public void same(WebDriver driver) {
+            Assert.assertSame(opened.get(), driver);
+            inUse.remove(driver);
+        }
+
+        @Given("no browser is needed")
+        public void plain() throws InterruptedException {
+            Thread.sleep(50);
+        }
+    }
+
+    private static class StubFactory implements WebDriverFactory {
+
+        private final List<WebDriver> created = Collections.synchronizedList(new ArrayList<WebDriver>());
+        private final Set<WebDriver> unhealthy = Collections.synchronizedSet(new HashSet<WebDriver>());
+
+        @Override
+        public WebDriver create() {
+            WebDriver driver = Mockito.mock(WebDriver.class);
+            created.add(driver);
+            return driver;
+        }
+
+        @Override
+        public void reset(WebDriver driver) {
+            driver.manage();
+        }
+
+        @Override
+        public boolean isHealthy(WebDriver driver) {
+            return !unhealthy.contains(driver);
+        }
+    }
+}